@@ -0,0 +1,222 @@
+package data;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Bit-packed Game of Life engine which sums neighbours with the Vector API.
+ * Every lane holds one word of 64 cells, so one vector instruction advances
+ * 64 times the lane count of cells.
+ *
+ * <p>
+ * Needs JDK 17+ with the incubator module, compile and run with
+ * {@code --add-modules jdk.incubator.vector}. Use
+ * {@link GameOfLifeBitPacked#createVectorEngine} to fall back to the plain
+ * bit-packed engine when the module is missing.
+ *
+ * @author BenGe47
+ *
+ */
+public class GameOfLifeVector extends GameOfLifeBitPacked {
+
+	private final static VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+	private final int[] BirthCounts;
+	private final int[] SurvivalCounts;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param inWidth cell width
+	 * @param inHeight cell height
+	 * @param inRandomness spawn randomness
+	 * @param inIsWrap is wrap-around edge
+	 * @param inRule birth/survival rule
+	 */
+	public GameOfLifeVector(int inWidth, int inHeight, Double inRandomness, Boolean inIsWrap, LifeRule inRule) {
+		super(inWidth, inHeight, inRandomness, inIsWrap, inRule);
+
+		BirthCounts = toCounts(inRule, false);
+		SurvivalCounts = toCounts(inRule, true);
+	}
+
+	/**
+	 * Neighbour counts which lead to a living cell.
+	 *
+	 * @param inRule birth/survival rule
+	 * @param isAlive true for survival, false for birth
+	 * @return int[] neighbour counts
+	 */
+	private static int[] toCounts(LifeRule inRule, boolean isAlive) {
+		int number = 0;
+		for (int n = 0; n <= 8; n++) {
+			if (inRule.isAliveNext(isAlive, n)) {
+				number++;
+			}
+		}
+		int[] counts = new int[number];
+		int i = 0;
+		for (int n = 0; n <= 8; n++) {
+			if (inRule.isAliveNext(isAlive, n)) {
+				counts[i++] = n;
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * Calculates the inner words of a row lanes words at once, the first and
+	 * last word of a row and the rows of a dead cells edge word by word.
+	 */
+	@Override
+	protected void calcRows(int fromY, int toY) {
+		long[] words = getWords();
+		long[] calcWords = getCalcWords();
+		int columns = getWordsPerRow();
+		int height = getCellHeight();
+		int lanes = SPECIES.length();
+		boolean hashing = isHashing();
+		long hashDelta = 0;
+		long births = 0;
+		long deaths = 0;
+
+		for (int y = fromY; y < toY; y++) {
+			int mid = y * columns;
+			int i = 1;
+			if (isWrapEdge() || (y > 0 && y < height - 1)) {
+				int up = (y == 0 ? height - 1 : y - 1) * columns;
+				int down = (y == height - 1 ? 0 : y + 1) * columns;
+				// the neighbour words of inner words lie in the same row
+				for (; i + lanes < columns; i += lanes) {
+					nextVector(words, up + i, mid + i, down + i).intoArray(calcWords, mid + i);
+				}
+			}
+			calcWords[mid] = calcWord(y, 0);
+			for (; i < columns; i++) {
+				calcWords[mid + i] = calcWord(y, i);
+			}
+
+			// hash and count the row while it is still in the cache
+			for (int j = mid; j < mid + columns; j++) {
+				long next = calcWords[j];
+				long changed = next ^ words[j];
+				if (changed != 0) {
+					if (hashing) {
+						hashDelta ^= mixHash(j, words[j]) ^ mixHash(j, next);
+					}
+					int born = Long.bitCount(changed & next);
+					births += born;
+					deaths += Long.bitCount(changed) - born;
+				}
+			}
+		}
+		xorFieldHash(hashDelta);
+		addCellChanges(births, deaths);
+	}
+
+	/**
+	 * Next generation of lanes words, the words before and after them have to
+	 * be inside their rows.
+	 *
+	 * @param inWords packed field
+	 * @param up index of first word in upper row
+	 * @param mid index of first word in the cells' row
+	 * @param down index of first word in lower row
+	 * @return LongVector of next generation words
+	 */
+	private LongVector nextVector(long[] inWords, int up, int mid, int down) {
+		LongVector uc = LongVector.fromArray(SPECIES, inWords, up);
+		LongVector ul = west(uc, LongVector.fromArray(SPECIES, inWords, up - 1));
+		LongVector ur = east(uc, LongVector.fromArray(SPECIES, inWords, up + 1));
+		LongVector mc = LongVector.fromArray(SPECIES, inWords, mid);
+		LongVector ml = west(mc, LongVector.fromArray(SPECIES, inWords, mid - 1));
+		LongVector mr = east(mc, LongVector.fromArray(SPECIES, inWords, mid + 1));
+		LongVector dc = LongVector.fromArray(SPECIES, inWords, down);
+		LongVector dl = west(dc, LongVector.fromArray(SPECIES, inWords, down - 1));
+		LongVector dr = east(dc, LongVector.fromArray(SPECIES, inWords, down + 1));
+
+		// 2 bit sums of the upper, middle and lower neighbour rows
+		LongVector upXor = ul.lanewise(VectorOperators.XOR, uc);
+		LongVector up0 = upXor.lanewise(VectorOperators.XOR, ur);
+		LongVector up1 = ul.and(uc).or(upXor.and(ur));
+		LongVector mid0 = ml.lanewise(VectorOperators.XOR, mr);
+		LongVector mid1 = ml.and(mr);
+		LongVector downXor = dl.lanewise(VectorOperators.XOR, dc);
+		LongVector down0 = downXor.lanewise(VectorOperators.XOR, dr);
+		LongVector down1 = dl.and(dc).or(downXor.and(dr));
+
+		// bit 0 of neighbour count and its carry into the twos
+		LongVector sumXor = up0.lanewise(VectorOperators.XOR, mid0);
+		LongVector count0 = sumXor.lanewise(VectorOperators.XOR, down0);
+		LongVector carry0 = up0.and(mid0).or(sumXor.and(down0));
+
+		LongVector a = up1.lanewise(VectorOperators.XOR, mid1);
+		LongVector b = down1.lanewise(VectorOperators.XOR, carry0);
+		LongVector pairA = up1.and(mid1);
+		LongVector pairB = down1.and(carry0);
+
+		if (getRule().isConway()) {
+			// exactly one of the four twos set means a count of 2 or 3
+			LongVector exactlyOneTwo = a.lanewise(VectorOperators.XOR, b).and(pairA.or(pairB).not());
+			return exactlyOneTwo.and(count0.or(mc));
+		}
+
+		LongVector count1 = a.lanewise(VectorOperators.XOR, b);
+		LongVector count2 = pairA.lanewise(VectorOperators.XOR, pairB).lanewise(VectorOperators.XOR, a.and(b));
+		LongVector count3 = pairA.and(pairB);
+
+		LongVector born = LongVector.zero(SPECIES);
+		for (int n : BirthCounts) {
+			born = born.or(equalsCount(n, count0, count1, count2, count3));
+		}
+		LongVector survived = LongVector.zero(SPECIES);
+		for (int n : SurvivalCounts) {
+			survived = survived.or(equalsCount(n, count0, count1, count2, count3));
+		}
+		return born.and(mc.not()).or(survived.and(mc));
+	}
+
+	/**
+	 * Lanes with all bits set where the bit-sliced count equals n.
+	 *
+	 * @param n neighbour count
+	 * @param count0 bit 0 of neighbour counts
+	 * @param count1 bit 1 of neighbour counts
+	 * @param count2 bit 2 of neighbour counts
+	 * @param count3 bit 3 of neighbour counts
+	 * @return LongVector mask
+	 */
+	private static LongVector equalsCount(int n, LongVector count0, LongVector count1, LongVector count2,
+			LongVector count3) {
+		return ((n & 1) != 0 ? count0 : count0.not()).and((n & 2) != 0 ? count1 : count1.not())
+				.and((n & 4) != 0 ? count2 : count2.not()).and((n & 8) != 0 ? count3 : count3.not());
+	}
+
+	/**
+	 * Lanes whose bit b is the left neighbour of cell b.
+	 *
+	 * @param inWords words of the cells
+	 * @param inPrevious words one index before
+	 * @return shifted words
+	 */
+	private static LongVector west(LongVector inWords, LongVector inPrevious) {
+		return inWords.lanewise(VectorOperators.LSHL, 1).or(inPrevious.lanewise(VectorOperators.LSHR, 63));
+	}
+
+	/**
+	 * Lanes whose bit b is the right neighbour of cell b.
+	 *
+	 * @param inWords words of the cells
+	 * @param inNext words one index after
+	 * @return shifted words
+	 */
+	private static LongVector east(LongVector inWords, LongVector inNext) {
+		return inWords.lanewise(VectorOperators.LSHR, 1).or(inNext.lanewise(VectorOperators.LSHL, 63));
+	}
+
+	@Override
+	public String getEngineInfo() {
+		return "Vector lanes: " + SPECIES.length() + " x 64 cells";
+	}
+
+}
@@ -0,0 +1,138 @@
+package data;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Abstract class of the Game of Life engines which calculate a generation row
+ * by row. Their rows are split into bands which run in parallel on a shared
+ * pool.
+ *
+ * @author BenGe47
+ *
+ */
+public abstract class ABandedGameOfLife extends AGameOfLife {
+
+	private static ForkJoinPool bandPool;
+	// fields with fewer cells are always calculated on the calling thread
+	private final static int MINPARALLELCELLS = 1 << 16;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param inWidth cell width
+	 * @param inHeight cell height
+	 * @param inRandomness spawn randomness
+	 * @param inIsWrap is wrap-around edge
+	 * @param inRule birth/survival rule
+	 */
+	public ABandedGameOfLife(int inWidth, int inHeight, Double inRandomness, Boolean inIsWrap, LifeRule inRule) {
+		super(inWidth, inHeight, inRandomness, inIsWrap, inRule);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param inWidth cell width
+	 * @param inHeight cell height
+	 * @param inRandomness spawn randomness
+	 * @param inBoundaryMode neighbours of the outermost cells
+	 * @param inRule birth/survival rule
+	 */
+	public ABandedGameOfLife(int inWidth, int inHeight, Double inRandomness,
+			GlobalSettings.BoundaryMode inBoundaryMode, LifeRule inRule) {
+		super(inWidth, inHeight, inRandomness, inBoundaryMode, inRule);
+	}
+
+	/**
+	 * Calculates rows fromY to toY(exclusive) by calling calcRows, split into
+	 * horizontal bands that run in parallel when parallelism is above 1 and the
+	 * field is big enough. Every band only writes its own rows, so the result is
+	 * the same as with one thread.
+	 *
+	 * @param fromY first row
+	 * @param toY row after the last row
+	 */
+	protected void calcBands(int fromY, int toY) {
+		int rows = toY - fromY;
+		if (getParallelism() <= 1 || rows < 2 || (long) rows * getCellWidth() < MINPARALLELCELLS) {
+			calcRows(fromY, toY);
+		} else {
+			int minRows = Math.max(getBandAlignment(), rows / (getParallelism() * 4));
+			getBandPool(getParallelism()).invoke(new BandTask(fromY, toY, minRows));
+		}
+	}
+
+	/**
+	 * Calculates the next generation of rows fromY to toY(exclusive). It may be
+	 * called from several threads at once for different rows.
+	 *
+	 * @param fromY first row
+	 * @param toY row after the last row
+	 */
+	protected abstract void calcRows(int fromY, int toY);
+
+	/**
+	 * Band borders are placed on multiples of this number of rows after the
+	 * first row, engines that calculate blocks of rows override it.
+	 *
+	 * @return rows per block
+	 */
+	protected int getBandAlignment() {
+		return 1;
+	}
+
+	/**
+	 * Returns the shared pool for band calculations, a new pool is created when
+	 * the parallelism changes.
+	 *
+	 * @param inParallelism number of threads
+	 * @return ForkJoinPool with inParallelism threads
+	 */
+	private static synchronized ForkJoinPool getBandPool(int inParallelism) {
+		if (bandPool == null || bandPool.getParallelism() != inParallelism) {
+			if (bandPool != null) {
+				bandPool.shutdown();
+			}
+			bandPool = new ForkJoinPool(inParallelism);
+		}
+		return bandPool;
+	}
+
+	/**
+	 * Splits a range of rows in halves until a band is small enough to be
+	 * calculated by one thread.
+	 */
+	private class BandTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+		private final int fromY;
+		private final int toY;
+		private final int minRows;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param inFromY first row
+		 * @param inToY row after the last row
+		 * @param inMinRows rows below which the band is not split again
+		 */
+		BandTask(int inFromY, int inToY, int inMinRows) {
+			fromY = inFromY;
+			toY = inToY;
+			minRows = inMinRows;
+		}
+
+		@Override
+		protected void compute() {
+			int align = getBandAlignment();
+			int mid = fromY + ((toY - fromY) / 2 / align) * align;
+			if (toY - fromY <= minRows || mid <= fromY) {
+				calcRows(fromY, toY);
+			} else {
+				invokeAll(new BandTask(fromY, mid, minRows), new BandTask(mid, toY, minRows));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,430 @@
+package data;
+
+import java.util.SplittableRandom;
+
+/**
+ * Abstract class which defines the common settings and calculation interface of
+ * all Game of Life engines.
+ *
+ * @author BenGe47
+ *
+ */
+public abstract class AGameOfLife {
+
+	private int cellWidth;
+	private int cellHeight;
+	private Double randomness;
+	private GlobalSettings.BoundaryMode boundaryMode;
+	private LifeRule rule;
+	private int parallelism = 1;
+	private long fieldHash;
+	private boolean isHashing = true;
+	private long population;
+	private long births;
+	private long deaths;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param inWidth cell width
+	 * @param inHeight cell height
+	 * @param inRandomness spawn randomness
+	 * @param inIsWrap is wrap-around edge
+	 * @param inRule birth/survival rule
+	 */
+	public AGameOfLife(int inWidth, int inHeight, Double inRandomness, Boolean inIsWrap, LifeRule inRule) {
+		this(inWidth, inHeight, inRandomness,
+				inIsWrap ? GlobalSettings.BoundaryMode.TORUS : GlobalSettings.BoundaryMode.DEAD, inRule);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param inWidth cell width
+	 * @param inHeight cell height
+	 * @param inRandomness spawn randomness
+	 * @param inBoundaryMode neighbours of the outermost cells
+	 * @param inRule birth/survival rule
+	 */
+	public AGameOfLife(int inWidth, int inHeight, Double inRandomness, GlobalSettings.BoundaryMode inBoundaryMode,
+			LifeRule inRule) {
+		cellWidth = inWidth;
+		cellHeight = inHeight;
+		randomness = inRandomness;
+		boundaryMode = inBoundaryMode;
+		rule = inRule;
+	}
+
+	/**
+	 * Calculate next iteration of field with Game of Life rules.
+	 *
+	 */
+	public abstract void calcNextGenField();
+
+	/**
+	 * True if the cell of the current generation is alive. Cells outside of a
+	 * bounded field are dead.
+	 *
+	 * @param x column
+	 * @param y row
+	 * @return true if alive
+	 */
+	public abstract boolean isAlive(int x, int y);
+
+	/**
+	 * Sets a cell of the current generation, e.g. while a pattern is loaded.
+	 * Bounded engines ignore cells outside of the field and on a dead cells
+	 * edge. Call finishCells after the last change.
+	 *
+	 * @param x column
+	 * @param y row
+	 * @param inIsAlive new state of the cell
+	 */
+	public abstract void setCell(int x, int y, boolean inIsAlive);
+
+	/**
+	 * Kills all cells of the current generation. Call finishCells after the
+	 * last change.
+	 *
+	 */
+	public abstract void clear();
+
+	/**
+	 * Brings field hash and population up to date after cells were changed
+	 * with setCell or clear. Births and deaths start again at 0.
+	 *
+	 */
+	public void finishCells() {
+		resetFieldHash();
+		countField();
+	}
+
+	/**
+	 * Hashes and counts the whole current generation, the field hash is 0
+	 * before. Called by the constructor and by finishCells.
+	 *
+	 */
+	protected abstract void countField();
+
+	/**
+	 * True if setCell changes the cell, it has to be inside of the field and
+	 * not on a dead cells edge.
+	 *
+	 * @param x column
+	 * @param y row
+	 * @return true if the cell can be set
+	 */
+	protected boolean isEditable(int x, int y) {
+		int border = boundaryMode == GlobalSettings.BoundaryMode.DEAD ? 1 : 0;
+		return x >= border && y >= border && x < cellWidth - border && y < cellHeight - border;
+	}
+
+	/**
+	 * Randomness rounded to 1/256 for randomWord.
+	 *
+	 * @return int level 0 to 256
+	 */
+	protected int randomLevel() {
+		return (int) Math.round(randomness * 256);
+	}
+
+	/**
+	 * Random word whose bits are set with the probability level / 256. Eight
+	 * random words are combined, which is much faster than a random number
+	 * per bit.
+	 *
+	 * @param inRandom random generator
+	 * @param inLevel probability in 1/256, see randomLevel
+	 * @return long random word
+	 */
+	protected static long randomWord(SplittableRandom inRandom, int inLevel) {
+		if (inLevel >= 256) {
+			return -1L;
+		}
+		long word = 0;
+		if (inLevel > 0) {
+			// bits of level from the lowest: set bit gives (p + 1) / 2, else p / 2
+			for (int bit = 0; bit < 8; bit++) {
+				word = ((inLevel >>> bit) & 1) != 0 ? word | inRandom.nextLong() : word & inRandom.nextLong();
+			}
+		}
+		return word;
+	}
+
+	/**
+	 * Hash of one cell or word of the field. An empty value hashes to 0, so the
+	 * hash of a field is the XOR over its non-empty values and a changed value
+	 * updates it with mixHash(index, old) ^ mixHash(index, new).
+	 *
+	 * @param index position of the value
+	 * @param value cell state or packed word
+	 * @return long hash, 0 for value 0
+	 */
+	protected static long mixHash(long index, long value) {
+		// the full SplitMix64 finalizer, with a single multiply a flip of the top bit
+		// hashes the same in every word and two such flips cancel in the field hash
+		long h = value ^ index * 0x9E3779B97F4A7C15L;
+		h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+		h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+		h ^= h >>> 31;
+		return value == 0 ? 0 : h;
+	}
+
+	/**
+	 * Changes the field hash by the hash delta of a band, may be called from
+	 * several threads at once.
+	 *
+	 * @param inDelta XOR of mixHash of old and new values
+	 */
+	protected synchronized void xorFieldHash(long inDelta) {
+		fieldHash ^= inDelta;
+	}
+
+	/**
+	 * Sets the field hash back to 0.
+	 *
+	 */
+	private synchronized void resetFieldHash() {
+		fieldHash = 0;
+	}
+
+	/**
+	 * Turns the hashing of new generations on or off, before the first
+	 * generation is calculated. Only the period detection reads the field hash,
+	 * so without it the engines do not hash the values they change.
+	 *
+	 * @param inIsHashing true if the field hash is kept up to date
+	 */
+	public void setHashing(boolean inIsHashing) {
+		isHashing = inIsHashing;
+	}
+
+	/**
+	 * True if new generations are hashed.
+	 *
+	 * @return isHashing
+	 */
+	public boolean isHashing() {
+		return isHashing;
+	}
+
+	/**
+	 * Hash of the current generation, updated while the generation is
+	 * calculated and stale once hashing is turned off. Equal fields of the same
+	 * engine have equal hashes, so repeated hashes reveal still lifes and
+	 * oscillators.
+	 *
+	 * @return long field hash
+	 */
+	public synchronized long getFieldHash() {
+		return fieldHash;
+	}
+
+	/**
+	 * Sets the counters of a new first generation.
+	 *
+	 * @param inPopulation number of living cells
+	 */
+	protected synchronized void setPopulation(long inPopulation) {
+		population = inPopulation;
+		births = 0;
+		deaths = 0;
+	}
+
+	/**
+	 * Clears births and deaths before a new generation is calculated.
+	 *
+	 */
+	protected synchronized void resetCellChanges() {
+		births = 0;
+		deaths = 0;
+	}
+
+	/**
+	 * Adds births and deaths of a band to the counters of the new generation,
+	 * may be called from several threads at once.
+	 *
+	 * @param inBirths cells which became alive
+	 * @param inDeaths cells which died
+	 */
+	protected synchronized void addCellChanges(long inBirths, long inDeaths) {
+		births += inBirths;
+		deaths += inDeaths;
+		population += inBirths - inDeaths;
+	}
+
+	/**
+	 * Number of living cells in the current generation, counted while the
+	 * generation is calculated.
+	 *
+	 * @return long population
+	 */
+	public synchronized long getPopulation() {
+		return population;
+	}
+
+	/**
+	 * Number of cells which became alive in the last step.
+	 *
+	 * @return long births, -1 if the engine does not count them
+	 */
+	public synchronized long getBirths() {
+		return births;
+	}
+
+	/**
+	 * Number of living cells which died in the last step.
+	 *
+	 * @return long deaths, -1 if the engine does not count them
+	 */
+	public synchronized long getDeaths() {
+		return deaths;
+	}
+
+	/**
+	 * Get number of cells in x direction.
+	 *
+	 * @return cellWidth
+	 */
+	public int getCellWidth() {
+		return cellWidth;
+	}
+
+	/**
+	 * Get number of cells in y direction.
+	 *
+	 * @return cellHeight
+	 */
+	public int getCellHeight() {
+		return cellHeight;
+	}
+
+	/**
+	 * Short engine specific status text for the sidebar.
+	 *
+	 * @return String status text, empty if there is none
+	 */
+	public String getEngineInfo() {
+		return "";
+	}
+
+	/**
+	 * Longer engine specific status, e.g. as HTML table for a tooltip.
+	 *
+	 * @return String status text, empty if there is none
+	 */
+	public String getEngineDetails() {
+		return "";
+	}
+
+	/**
+	 * Calculates inGenerations generations at once, without a view of the
+	 * generations in between. Engines with more than one generation per step
+	 * stop at the first step that reaches inGenerations.
+	 *
+	 * @param inGenerations number of generations, at least 1
+	 * @return long generations calculated
+	 */
+	public long advanceGenerations(long inGenerations) {
+		long generations = 0;
+		while (generations < inGenerations) {
+			calcNextGenField();
+			generations += getGenerationsPerStep();
+		}
+		return generations;
+	}
+
+	/**
+	 * Copies the current generation as packed rows, bit x % 64 of word
+	 * y * ((width + 63) / 64) + x / 64 is the cell x, y. Engines which keep
+	 * their field in another form return false and leave the words alone.
+	 *
+	 * @param inWords packed rows of the field size, overwritten
+	 * @return true if the rows were copied
+	 */
+	public boolean copyPackedRows(long[] inWords) {
+		return false;
+	}
+
+	/**
+	 * True if the world goes on beyond the field, so cells outside of it can be
+	 * set and live on.
+	 *
+	 * @return false for bounded engines
+	 */
+	public boolean isUnbounded() {
+		return false;
+	}
+
+	/**
+	 * Number of generations calculated by one call of calcNextGenField.
+	 *
+	 * @return generations per step
+	 */
+	public long getGenerationsPerStep() {
+		return 1;
+	}
+
+	/**
+	 * Return GOL field as boolean array indexed [x][y].
+	 *
+	 * @return boolean[][] of GridWorld
+	 */
+	public abstract boolean[][] getGridWorld();
+
+	/**
+	 * Get number of threads used for band calculations.
+	 *
+	 * @return parallelism
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Get spawn randomness of first generation.
+	 *
+	 * @return randomness
+	 */
+	public Double getRandomness() {
+		return randomness;
+	}
+
+	/**
+	 * Get birth/survival rule of the automaton.
+	 *
+	 * @return rule
+	 */
+	public LifeRule getRule() {
+		return rule;
+	}
+
+	/**
+	 * True if edges wrap around to the opposite edge.
+	 *
+	 * @return isWrapEdge
+	 */
+	public Boolean isWrapEdge() {
+		return boundaryMode == GlobalSettings.BoundaryMode.TORUS;
+	}
+
+	/**
+	 * Get what the neighbours of the outermost cells are.
+	 *
+	 * @return boundaryMode
+	 */
+	public GlobalSettings.BoundaryMode getBoundaryMode() {
+		return boundaryMode;
+	}
+
+	/**
+	 * Set number of threads used by the band calculations of ABandedGameOfLife,
+	 * other engines ignore it. 1 calculates on the calling thread only.
+	 *
+	 * @param inParallelism number of threads
+	 */
+	public void setParallelism(int inParallelism) {
+		parallelism = Math.max(1, inParallelism);
+	}
+
+}
@@ -0,0 +1,175 @@
+package data;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Abstract class of the streaming pattern file readers. The header is read by
+ * the constructor, so the rule of a pattern is known before the engine is
+ * created. The cells are read by readCells straight into the engine without
+ * holding the text in memory.
+ *
+ * @author BenGe47
+ *
+ */
+public abstract class APatternReader implements Closeable {
+
+	private final Reader input;
+	private final char[] Buffer = new char[1 << 16];
+	private int bufferPos;
+	private int bufferEnd;
+	private String rule;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param inReader pattern text
+	 */
+	public APatternReader(Reader inReader) {
+		input = inReader;
+	}
+
+	/**
+	 * Opens a pattern file, files ending with .mc are read as Macrocell and all
+	 * others as RLE.
+	 *
+	 * @param inPath path of pattern file
+	 * @return APatternReader with read header
+	 * @throws IOException if the file can not be read
+	 */
+	public static APatternReader open(String inPath) throws IOException {
+		Reader reader = new BufferedReader(
+				new InputStreamReader(new FileInputStream(inPath), StandardCharsets.US_ASCII));
+		try {
+			if (inPath.toLowerCase().endsWith(".mc")) {
+				return new MacrocellReader(reader);
+			}
+			return new RLEReader(reader);
+		} catch (IOException | RuntimeException e) {
+			reader.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Reads all cells of the pattern into an engine. The pattern is centred in
+	 * the field, cells that do not fit into a bounded field are dropped.
+	 *
+	 * @param inGOL engine with an empty or cleared field
+	 * @throws IOException if the pattern can not be read or is malformed
+	 */
+	public abstract void readCells(AGameOfLife inGOL) throws IOException;
+
+	/**
+	 * Sets a cell of the engine if it lies inside of the int coordinates.
+	 *
+	 * @param inGOL engine
+	 * @param x column
+	 * @param y row
+	 */
+	protected static void setCell(AGameOfLife inGOL, long x, long y) {
+		if (x == (int) x && y == (int) y) {
+			inGOL.setCell((int) x, (int) y, true);
+		}
+	}
+
+	/**
+	 * Returns the next character and moves on.
+	 *
+	 * @return int character, -1 at the end
+	 * @throws IOException if reading fails
+	 */
+	protected int read() throws IOException {
+		int c = peek();
+		bufferPos++;
+		return c;
+	}
+
+	/**
+	 * Returns the next character without moving on.
+	 *
+	 * @return int character, -1 at the end
+	 * @throws IOException if reading fails
+	 */
+	protected int peek() throws IOException {
+		if (bufferPos >= bufferEnd) {
+			bufferEnd = input.read(Buffer, 0, Buffer.length);
+			bufferPos = 0;
+			if (bufferEnd <= 0) {
+				bufferEnd = 0;
+				return -1;
+			}
+		}
+		return Buffer[bufferPos];
+	}
+
+	/**
+	 * Reads the rest of the line without the line break.
+	 *
+	 * @return String line, null at the end
+	 * @throws IOException if reading fails
+	 */
+	protected String readLine() throws IOException {
+		if (peek() < 0) {
+			return null;
+		}
+		StringBuilder line = new StringBuilder();
+		int c = read();
+		while (c >= 0 && c != '\n') {
+			if (c != '\r') {
+				line.append((char) c);
+			}
+			c = read();
+		}
+		return line.toString();
+	}
+
+	/**
+	 * Reads a decimal number, leading spaces are skipped.
+	 *
+	 * @return long number
+	 * @throws IOException if there is no number
+	 */
+	protected long readNumber() throws IOException {
+		while (peek() == ' ' || peek() == '\t') {
+			read();
+		}
+		if (peek() < '0' || peek() > '9') {
+			throw new IOException("Number expected in pattern file.");
+		}
+		long number = 0;
+		while (peek() >= '0' && peek() <= '9') {
+			number = number * 10 + read() - '0';
+		}
+		return number;
+	}
+
+	/**
+	 * Rule of the pattern, e.g. B3/S23.
+	 *
+	 * @return String rule, null if the file does not name one
+	 */
+	public String getRule() {
+		return rule;
+	}
+
+	/**
+	 * Set rule named in the header.
+	 *
+	 * @param inRule rule text
+	 */
+	protected void setRule(String inRule) {
+		rule = inRule;
+	}
+
+	@Override
+	public void close() throws IOException {
+		input.close();
+	}
+
+}
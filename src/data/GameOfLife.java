@@ -1,400 +1,475 @@
 package data;
 
+import java.util.Arrays;
+
 /**
- * Creates Conway's Game of Life cellular automaton from user input as an array.
- * 
+ * Creates Conway's Game of Life or another life-like cellular automaton from
+ * user input as an array.
+ *
+ * <p>
+ * The field is stored row by row with one byte per cell and a halo, a ring of
+ * extra cells around it. Before every generation the halo is filled with the
+ * neighbours the boundary mode gives the outermost cells, so every cell is
+ * calculated the same way without edge cases.
+ *
+ * <p>
+ * Larger than Life rules count up to thousands of neighbours per cell. Prefix
+ * sums along columns and diagonals are built before every generation, then the
+ * count of a cell follows from the count of its left neighbour by adding the
+ * cells entering the neighbourhood and removing those leaving it. The cost per
+ * cell does not grow with the radius.
+ *
  * @author BenGe47
  *
  */
-public class GameOfLife {
+public class GameOfLife extends ABandedGameOfLife {
 
-	private boolean[][] GridWorld;
-	private boolean[][] CalcGridWorld;
-	private Boolean isWrapEdge;
-	private int cellWidth;
-	private int cellHeight;
-	private Double randomness;
+	// width of the halo, the radius of the neighbourhood plus one for the
+	// prefix sums
+	private final int halo;
+	// padded row length, cell x, y is at (y + halo) * paddedWidth + x + halo
+	private final int paddedWidth;
+	private byte[] Cells;
+	private byte[] CalcCells;
+	// next state for state * (maxCount + 1) + living neighbours
+	private final byte[] NextState;
+	private final int maxCount;
+	// prefix sums of Larger than Life rules along columns, down right and down
+	// left diagonals, each value adds the value one step back
+	private int[] ColumnSums;
+	private int[] DiagonalSums;
+	private int[] AntiDiagonalSums;
+	private final boolean[][] GridWorld;
+	private boolean isViewDirty = true;
+	private long stepNanos;
 
 	/**
 	 * Constructor.
-	 * 
+	 *
 	 * @param inWidth cell width
 	 * @param inHeight cell height
 	 * @param inRandomness spawn randomness
 	 * @param inIsWrap is wrap-around edge
+	 * @param inRule birth/survival rule
+	 */
+	public GameOfLife(int inWidth, int inHeight, Double inRandomness, Boolean inIsWrap, LifeRule inRule) {
+		this(inWidth, inHeight, inRandomness,
+				inIsWrap ? GlobalSettings.BoundaryMode.TORUS : GlobalSettings.BoundaryMode.DEAD, inRule);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param inWidth cell width
+	 * @param inHeight cell height
+	 * @param inRandomness spawn randomness
+	 * @param inBoundaryMode neighbours of the outermost cells
+	 * @param inRule birth/survival rule
 	 */
-	public GameOfLife(int inWidth, int inHeight, Double inRandomness, Boolean inIsWrap) {
-		cellWidth = inWidth;
-		cellHeight = inHeight;
-		randomness = inRandomness;
-		isWrapEdge = inIsWrap;
+	public GameOfLife(int inWidth, int inHeight, Double inRandomness, GlobalSettings.BoundaryMode inBoundaryMode,
+			LifeRule inRule) {
+		super(inWidth, inHeight, inRandomness, inBoundaryMode, inRule);
+
+		halo = inRule.isLargerThanLife() ? inRule.getRadius() + 1 : 1;
+		if (halo > Math.min(inWidth, inHeight)) {
+			throw new IllegalArgumentException("Radius " + inRule.getRadius() + " is too large for the field.");
+		}
+		paddedWidth = inWidth + 2 * halo;
+		Cells = new byte[paddedWidth * (inHeight + 2 * halo)];
+		CalcCells = new byte[Cells.length];
+		GridWorld = new boolean[inWidth][inHeight];
+		maxCount = inRule.isLargerThanLife() ? inRule.getMaxCount() : 8;
+		NextState = new byte[2 * (maxCount + 1)];
+		for (int counter = 0; counter <= maxCount; counter++) {
+			NextState[counter] = (byte) (inRule.isAliveNext(false, counter) ? 1 : 0);
+			NextState[maxCount + 1 + counter] = (byte) (inRule.isAliveNext(true, counter) ? 1 : 0);
+		}
+		if (inRule.isLargerThanLife()) {
+			ColumnSums = new int[Cells.length];
+			if (inRule.getNeighbourhood() != GlobalSettings.Neighbourhood.MOORE) {
+				DiagonalSums = new int[Cells.length];
+			}
+			if (inRule.getNeighbourhood() == GlobalSettings.Neighbourhood.VONNEUMANN) {
+				AntiDiagonalSums = new int[Cells.length];
+			}
+		}
 
 		init2DField();
 
+		countField();
+	}
+
+	@Override
+	protected void countField() {
+		long population = 0;
+		for (int y = 0; y < getCellHeight(); y++) {
+			int rowStart = (y + halo) * paddedWidth + halo;
+			for (int x = 0; x < getCellWidth(); x++) {
+				if (Cells[rowStart + x] != 0) {
+					xorFieldHash(mixHash(y * getCellWidth() + x, 1));
+					population++;
+				}
+			}
+		}
+		setPopulation(population);
+	}
+
+	@Override
+	public boolean isAlive(int x, int y) {
+		return x >= 0 && y >= 0 && x < getCellWidth() && y < getCellHeight()
+				&& Cells[(y + halo) * paddedWidth + x + halo] != 0;
+	}
+
+	@Override
+	public void setCell(int x, int y, boolean inIsAlive) {
+		if (isEditable(x, y)) {
+			Cells[(y + halo) * paddedWidth + x + halo] = (byte) (inIsAlive ? 1 : 0);
+			isViewDirty = true;
+		}
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(Cells, (byte) 0);
+		isViewDirty = true;
 	}
 
 	/**
-	 * Return GOL field Gridworld.
-	 * 
+	 * Return GOL field Gridworld, copied from the padded field when it
+	 * changed.
+	 *
 	 * @return boolean[][] of GridWorld
 	 */
+	@Override
 	public boolean[][] getGridWorld() {
+		if (isViewDirty) {
+			for (int y = 0; y < getCellHeight(); y++) {
+				int rowStart = (y + halo) * paddedWidth + halo;
+				for (int x = 0; x < getCellWidth(); x++) {
+					GridWorld[x][y] = Cells[rowStart + x] != 0;
+				}
+			}
+			isViewDirty = false;
+		}
 		return GridWorld;
 	}
 
 	/**
 	 * Init field with starting values.
-	 * 
+	 *
 	 */
 	private void init2DField() {
+		int border = getBoundaryMode() == GlobalSettings.BoundaryMode.DEAD ? 1 : 0;
+		double rand = getRandomness();
 
-		Double rand;
-		GridWorld = new boolean[cellWidth][cellHeight];
-
-		rand = randomness;
-
-		if (!isWrapEdge) {
-
-			for (int y = 1; y < GridWorld[0].length - 1; y++) {
-				for (int x = 1; x < GridWorld.length - 1; x++) {
-					GridWorld[x][y] = Math.random() <= rand;
-				}
-			}
-		} else {
-			for (int i = 0; i < GridWorld[0].length; i++) {
-				for (boolean[] GridWesen1 : GridWorld) {
-					GridWesen1[i] = Math.random() <= rand;
+		for (int y = border; y < getCellHeight() - border; y++) {
+			for (int x = border; x < getCellWidth() - border; x++) {
+				if (Math.random() <= rand) {
+					Cells[(y + halo) * paddedWidth + x + halo] = 1;
 				}
 			}
 		}
 	}
 
 	/**
-	 * Calculate next iteration of field with Game of Life rules.
-	 * 
+	 * Calculate next iteration of field with Game of Life rules. Results are
+	 * written into the second buffer CalcCells, afterwards both buffers swap,
+	 * so no new field is allocated per generation.
+	 *
 	 */
+	@Override
 	public void calcNextGenField() {
-		int counter;
-		CalcGridWorld = new boolean[GridWorld.length][GridWorld[0].length];
+		long start = System.nanoTime();
+		resetCellChanges();
+		fillHalo();
+		if (ColumnSums != null) {
+			buildPrefixSums();
+		}
 
-		if (isWrapEdge) {
+		// the outermost ring of a dead cells edge is never calculated
+		if (getBoundaryMode() == GlobalSettings.BoundaryMode.DEAD) {
+			calcBands(1, getCellHeight() - 1);
+		} else {
+			calcBands(0, getCellHeight());
+		}
 
-			// Calculate Edge Cases
-			// corners right top
-			counter = 0;
-			CalcGridWorld[GridWorld.length - 1][0] = false;
-			if (CalcGridWorld[0][GridWorld[0].length - 1]) {
-				counter++;
-			}
-			if (GridWorld[GridWorld.length - 1][GridWorld[0].length - 2]) {
-				counter++;
-			}
-			if (GridWorld[GridWorld.length - 2][GridWorld[0].length - 1]) {
-				counter++;
-			}
-			if (GridWorld[GridWorld.length - 2][GridWorld[0].length - 2]) {
-				counter++;
-			}
-			if (GridWorld[0][GridWorld[0].length - 1]) {
-				counter++;
-			}
-			if (GridWorld[0][GridWorld[0].length - 2]) {
-				counter++;
-			}
-			if (GridWorld[GridWorld.length - 1][0]) {
-				counter++;
-			}
-			if (GridWorld[GridWorld.length - 2][0]) {
-				counter++;
-			}
-			setNewCellStatus(counter, GridWorld.length - 1, 0);
+		byte[] tmp = Cells;
+		Cells = CalcCells;
+		CalcCells = tmp;
+		isViewDirty = true;
+		stepNanos = System.nanoTime() - start;
+	}
 
-			// corners right bottom
-			counter = 0;
-			CalcGridWorld[GridWorld.length - 1][GridWorld[0].length - 1] = false;
-			if (CalcGridWorld[0][0]) {
-				counter++;
-			}
-			if (GridWorld[GridWorld.length - 1][GridWorld[0].length - 2]) {
-				counter++;
-			}
-			if (GridWorld[GridWorld.length - 2][GridWorld[0].length - 1]) {
-				counter++;
-			}
-			if (GridWorld[GridWorld.length - 2][GridWorld[0].length - 2]) {
-				counter++;
-			}
-			if (GridWorld[0][GridWorld[0].length - 1]) {
-				counter++;
-			}
-			if (GridWorld[0][GridWorld[0].length - 2]) {
-				counter++;
-			}
-			if (GridWorld[GridWorld.length - 1][0]) {
-				counter++;
-			}
-			if (GridWorld[GridWorld.length - 2][0]) {
-				counter++;
-			}
-			setNewCellStatus(counter, GridWorld.length - 1, GridWorld[0].length - 1);
+	/**
+	 * Fills the halo of the current generation with the neighbours of the
+	 * outermost cells. Columns are filled first, so the corners are taken
+	 * along when the rows are copied.
+	 *
+	 */
+	private void fillHalo() {
+		int height = getCellHeight();
+		GlobalSettings.BoundaryMode mode = getBoundaryMode();
+		if (mode == GlobalSettings.BoundaryMode.DEAD) {
+			// the halo stays dead and only the inner cells are calculated
+			return;
+		}
 
-			// corners left bottom
-			counter = 0;
-			CalcGridWorld[0][GridWorld[0].length - 1] = false;
-			if (CalcGridWorld[GridWorld.length - 1][0]) {
-				counter++;
-			}
-			if (GridWorld[1][GridWorld[0].length - 1]) {
-				counter++;
-			}
-			if (GridWorld[0][GridWorld[0].length - 1]) {
-				counter++;
-			}
-			if (GridWorld[1][GridWorld[0].length - 2]) {
-				counter++;
+		fillHaloColumns(mode != GlobalSettings.BoundaryMode.REFLECT);
+		for (int j = 0; j < halo; j++) {
+			// padded rows above and below the field, row y is at y + halo
+			int above = halo - 1 - j;
+			int below = height + halo + j;
+			switch (mode) {
+			case TORUS:
+				copyRow(height + halo - 1 - j, above, false);
+				copyRow(halo + j, below, false);
+				break;
+			case REFLECT:
+				copyRow(halo + j, above, false);
+				copyRow(height + halo - 1 - j, below, false);
+				break;
+			default:
+				copyRow(height + halo - 1 - j, above, true);
+				copyRow(halo + j, below, true);
+				break;
 			}
-			if (GridWorld[0][1]) {
-				counter++;
-			}
-			if (GridWorld[0][2]) {
-				counter++;
-			}
-			if (GridWorld[GridWorld.length - 1][GridWorld[0].length - 1]) {
-				counter++;
-			}
-			if (GridWorld[GridWorld.length - 1][GridWorld[0].length - 1]) {
-				counter++;
-			}
-			setNewCellStatus(counter, 0, GridWorld[0].length - 1);
+		}
+	}
 
-			// corners left top
-			counter = 0;
-			CalcGridWorld[0][0] = false;
-			if (CalcGridWorld[GridWorld.length - 1][GridWorld[0].length - 1]) {
-				counter++;
-			}
-			if (GridWorld[1][1]) {
-				counter++;
-			}
-			if (GridWorld[0][1]) {
-				counter++;
-			}
-			if (GridWorld[1][0]) {
-				counter++;
-			}
-			if (GridWorld[0][GridWorld[0].length - 1]) {
-				counter++;
-			}
-			if (GridWorld[1][GridWorld[0].length - 1]) {
-				counter++;
+	/**
+	 * Copies a padded row, including its halo columns.
+	 *
+	 * @param from padded source row
+	 * @param to padded target row
+	 * @param isMirrored true to turn x into width - 1 - x
+	 */
+	private void copyRow(int from, int to, boolean isMirrored) {
+		if (isMirrored) {
+			// padded index p turns into paddedWidth - 1 - p
+			for (int p = 0; p < paddedWidth; p++) {
+				Cells[to * paddedWidth + p] = Cells[from * paddedWidth + paddedWidth - 1 - p];
 			}
-			if (GridWorld[GridWorld.length - 1][1]) {
-				counter++;
+		} else {
+			System.arraycopy(Cells, from * paddedWidth, Cells, to * paddedWidth, paddedWidth);
+		}
+	}
+
+	/**
+	 * Fills the left and right halo columns of all rows of the field.
+	 *
+	 * @param isWrap true to wrap around, false to mirror the outermost columns
+	 */
+	private void fillHaloColumns(boolean isWrap) {
+		int width = getCellWidth();
+		for (int y = 0; y < getCellHeight(); y++) {
+			int row = (y + halo) * paddedWidth + halo;
+			for (int j = 1; j <= halo; j++) {
+				// columns x = -j and x = width - 1 + j
+				Cells[row - j] = Cells[row + (isWrap ? width - j : j - 1)];
+				Cells[row + width - 1 + j] = Cells[row + (isWrap ? j - 1 : width - j)];
 			}
-			if (GridWorld[GridWorld.length - 1][0]) {
-				counter++;
+		}
+	}
+
+	/**
+	 * Builds the prefix sums of the current generation which the Larger than
+	 * Life neighbourhood needs. The first padded row and column only hold
+	 * their own cell.
+	 *
+	 */
+	private void buildPrefixSums() {
+		int up = paddedWidth;
+		for (int p = 0; p < paddedWidth; p++) {
+			ColumnSums[p] = Cells[p];
+		}
+		for (int i = paddedWidth; i < Cells.length; i++) {
+			ColumnSums[i] = ColumnSums[i - up] + Cells[i];
+		}
+		if (DiagonalSums != null) {
+			for (int i = 0; i < Cells.length; i++) {
+				boolean isFirst = i < paddedWidth || i % paddedWidth == 0;
+				DiagonalSums[i] = (isFirst ? 0 : DiagonalSums[i - up - 1]) + Cells[i];
 			}
-			setNewCellStatus(counter, 0, 0);
-
-			// top edge
-			for (int x = 1; x < GridWorld.length - 1; x++) {
-				counter = 0;
-				CalcGridWorld[x][0] = false;
-				if (GridWorld[x - 1][1]) {
-					counter++;
-				}
-				if (GridWorld[x][1]) {
-					counter++;
-				}
-				if (GridWorld[x + 1][1]) {
-					counter++;
-				}
-				if (GridWorld[x - 1][0]) {
-					counter++;
-				}
-				if (GridWorld[x + 1][0]) {
-					counter++;
-				}
-				if (GridWorld[x - 1][GridWorld[0].length - 1]) {
-					counter++;
-				}
-				if (GridWorld[x][GridWorld[0].length - 1]) {
-					counter++;
-				}
-				if (GridWorld[x + 1][GridWorld[0].length - 1]) {
-					counter++;
-				}
-				setNewCellStatus(counter, x, 0);
+		}
+		if (AntiDiagonalSums != null) {
+			for (int i = 0; i < Cells.length; i++) {
+				boolean isFirst = i < paddedWidth || i % paddedWidth == paddedWidth - 1;
+				AntiDiagonalSums[i] = (isFirst ? 0 : AntiDiagonalSums[i - up + 1]) + Cells[i];
 			}
+		}
+	}
 
-			// bottom edge
-			for (int x = 1; x < GridWorld.length - 1; x++) {
-				counter = 0;
-				CalcGridWorld[x][GridWorld[0].length - 1] = false;
-				if (GridWorld[x - 1][0]) {
-					counter++;
-				}
-				if (GridWorld[x][0]) {
-					counter++;
-				}
-				if (GridWorld[x + 1][0]) {
-					counter++;
-				}
-				if (GridWorld[x - 1][GridWorld[0].length - 1]) {
-					counter++;
-				}
-				if (GridWorld[x + 1][GridWorld[0].length - 1]) {
-					counter++;
-				}
-				if (GridWorld[x - 1][GridWorld[0].length - 2]) {
-					counter++;
-				}
-				if (GridWorld[x][GridWorld[0].length - 2]) {
-					counter++;
-				}
-				if (GridWorld[x + 1][GridWorld[0].length - 2]) {
-					counter++;
-				}
-				setNewCellStatus(counter, x, GridWorld[0].length - 1);
-			}
+	/**
+	 * Calculates rows fromY to toY(exclusive). All neighbours are inside of
+	 * the padded field, so the neighbour count needs no edge checks.
+	 *
+	 * @param fromY first row
+	 * @param toY row after the last row
+	 */
+	@Override
+	protected void calcRows(int fromY, int toY) {
+		if (ColumnSums != null) {
+			calcRangeRows(fromY, toY);
+			return;
+		}
+		int width = getCellWidth();
+		int border = getBoundaryMode() == GlobalSettings.BoundaryMode.DEAD ? 1 : 0;
+		int up = -paddedWidth;
+		int down = paddedWidth;
+		byte[] cells = Cells;
+		byte[] calcCells = CalcCells;
+		long hashDelta = 0;
+		long births = 0;
+		long deaths = 0;
 
-			// right side
-			for (int y = 1; y < GridWorld[0].length - 1; y++) {
-				counter = 0;
-				CalcGridWorld[GridWorld.length - 1][y] = false;
-				if (GridWorld[0][y - 1]) {
-					counter++;
-				}
-				if (GridWorld[0][y]) {
-					counter++;
-				}
-				if (GridWorld[0][y + 1]) {
-					counter++;
-				}
-				if (GridWorld[GridWorld.length - 1][y - 1]) {
-					counter++;
-				}
-				if (GridWorld[GridWorld.length - 1][y + 1]) {
-					counter++;
-				}
-				if (GridWorld[GridWorld.length - 2][y - 1]) {
-					counter++;
+		for (int y = fromY; y < toY; y++) {
+			int rowStart = (y + halo) * paddedWidth + halo;
+			for (int i = rowStart + border; i < rowStart + width - border; i++) {
+				int counter = cells[i + up - 1] + cells[i + up] + cells[i + up + 1] + cells[i - 1] + cells[i + 1]
+						+ cells[i + down - 1] + cells[i + down] + cells[i + down + 1];
+				byte state = cells[i];
+				byte next = NextState[state * 9 + counter];
+				calcCells[i] = next;
+				if (next != state) {
+					hashDelta ^= mixHash(y * width + i - rowStart, 1);
+					births += next;
+					deaths += state;
 				}
-				if (GridWorld[GridWorld.length - 2][y]) {
-					counter++;
-				}
-				if (GridWorld[GridWorld.length - 2][y + 1]) {
-					counter++;
-				}
-				setNewCellStatus(counter, GridWorld.length - 1, y);
 			}
+		}
+		xorFieldHash(hashDelta);
+		addCellChanges(births, deaths);
+	}
 
-			// left side
-			for (int y = 1; y < GridWorld[0].length - 1; y++) {
-				counter = 0;
-				CalcGridWorld[0][y] = false;
-				if (GridWorld[GridWorld.length - 1][y - 1]) {
-					counter++;
-				}
-				if (GridWorld[GridWorld.length - 1][y]) {
-					counter++;
-				}
-				if (GridWorld[GridWorld.length - 1][y + 1]) {
-					counter++;
-				}
-				if (GridWorld[0][y - 1]) {
-					counter++;
-				}
-				if (GridWorld[0][y + 1]) {
-					counter++;
-				}
-				if (GridWorld[0 + 1][y - 1]) {
-					counter++;
-				}
-				if (GridWorld[0 + 1][y]) {
-					counter++;
+	/**
+	 * Calculates rows fromY to toY(exclusive) of a Larger than Life rule. The
+	 * first cell of a row sums its neighbourhood column by column, every next
+	 * cell adds the cells entering on the right and removes those leaving on
+	 * the left, which are straight lines along a column or diagonal.
+	 *
+	 * @param fromY first row
+	 * @param toY row after the last row
+	 */
+	private void calcRangeRows(int fromY, int toY) {
+		int width = getCellWidth();
+		int border = getBoundaryMode() == GlobalSettings.BoundaryMode.DEAD ? 1 : 0;
+		int r = getRule().getRadius();
+		int pw = paddedWidth;
+		int self = getRule().isMiddleIncluded() ? 0 : 1;
+		GlobalSettings.Neighbourhood neighbourhood = getRule().getNeighbourhood();
+		byte[] cells = Cells;
+		byte[] calcCells = CalcCells;
+		long hashDelta = 0;
+		long births = 0;
+		long deaths = 0;
+
+		for (int y = fromY; y < toY; y++) {
+			int rowStart = (y + halo) * pw + halo;
+			int first = rowStart + border;
+			int counter = firstCount(first, r, neighbourhood);
+			for (int i = first; i < rowStart + width - border; i++) {
+				byte state = cells[i];
+				byte next = NextState[state * (maxCount + 1) + counter - self * state];
+				calcCells[i] = next;
+				if (next != state) {
+					hashDelta ^= mixHash(y * width + i - rowStart, 1);
+					births += next;
+					deaths += state;
 				}
-				if (GridWorld[0 + 1][y + 1]) {
-					counter++;
+
+				// move the neighbourhood from cell i to cell i + 1
+				switch (neighbourhood) {
+				case VONNEUMANN:
+					counter += diagonal(i + 1 - r * pw, r + 1) + antiDiagonal(i + r + pw, r)
+							- antiDiagonal(i - r * pw, r + 1) - diagonal(i - r + 1 + pw, r);
+					break;
+				case HEXAGONAL:
+					counter += diagonal(i + 1 - r * pw, r + 1) + column(i + r + 1, 1, r)
+							- column(i - r, -r, 0) - diagonal(i - r + 1 + pw, r);
+					break;
+				default:
+					counter += column(i + r + 1, -r, r) - column(i - r, -r, r);
+					break;
 				}
-				setNewCellStatus(counter, 0, y);
 			}
-
 		}
+		xorFieldHash(hashDelta);
+		addCellChanges(births, deaths);
+	}
 
-		// Calculate Inner Field
-		for (int y = 1; y < GridWorld[0].length - 1; y++) {
-			for (int x = 1; x < GridWorld.length - 1; x++) {
-				counter = 0;
-				CalcGridWorld[x][y] = false;
-				if (GridWorld[x - 1][y - 1]) {
-					counter++;
-				}
-				if (GridWorld[x - 1][y]) {
-					counter++;
-				}
-				if (GridWorld[x - 1][y + 1]) {
-					counter++;
-				}
-				if (GridWorld[x][y - 1]) {
-					counter++;
-				}
-				if (GridWorld[x][y + 1]) {
-					counter++;
-				}
-				if (GridWorld[x + 1][y - 1]) {
-					counter++;
-				}
-				if (GridWorld[x + 1][y]) {
-					counter++;
-				}
-				if (GridWorld[x + 1][y + 1]) {
-					counter++;
-				}
-
-				setNewCellStatus(counter, x, y);
+	/**
+	 * Counts the neighbourhood of the first cell of a row column by column,
+	 * including the cell itself.
+	 *
+	 * @param i padded index of the cell
+	 * @param r radius
+	 * @param inNeighbourhood shape
+	 * @return int living cells
+	 */
+	private int firstCount(int i, int r, GlobalSettings.Neighbourhood inNeighbourhood) {
+		int counter = 0;
+		for (int dx = -r; dx <= r; dx++) {
+			switch (inNeighbourhood) {
+			case VONNEUMANN:
+				counter += column(i + dx, Math.abs(dx) - r, r - Math.abs(dx));
+				break;
+			case HEXAGONAL:
+				// |dx - dy| <= r leaves out the top right and bottom left corner
+				counter += column(i + dx, Math.max(-r, dx - r), Math.min(r, dx + r));
+				break;
+			default:
+				counter += column(i + dx, -r, r);
+				break;
 			}
 		}
+		return counter;
+	}
 
-		copyGridworld();
+	/**
+	 * Living cells in a column from dy = fromDy to toDy below cell i.
+	 *
+	 * @param i padded index of the cell in the column
+	 * @param fromDy first row relative to i
+	 * @param toDy last row relative to i
+	 * @return int living cells
+	 */
+	private int column(int i, int fromDy, int toDy) {
+		return ColumnSums[i + toDy * paddedWidth] - ColumnSums[i + (fromDy - 1) * paddedWidth];
 	}
 
 	/**
-	 * Calculates dead/alive by comparing living neighbours with target cell
-	 * status.
+	 * Living cells on the down right diagonal starting at cell i.
 	 *
-	 * @param counter Number of living neighbours
-	 * @param inX inX coordinate pixel
-	 * @param inY inY coordinate pixel
+	 * @param i padded index of the first cell
+	 * @param length number of cells
+	 * @return int living cells
 	 */
-	private void setNewCellStatus(int counter, int inX, int inY) {
-		if (counter > 3 && (GridWorld[inX][inY])) {
-			CalcGridWorld[inX][inY] = false;
-		}
-		if (counter == 2 && (GridWorld[inX][inY])) {
-			CalcGridWorld[inX][inY] = true;
-		}
-		if (counter == 3 && (GridWorld[inX][inY])) {
-			CalcGridWorld[inX][inY] = true;
-		}
-		if (counter < 2 && (GridWorld[inX][inY])) {
-			CalcGridWorld[inX][inY] = false;
-		}
-		if (counter == 3 && !(GridWorld[inX][inY])) {
-			CalcGridWorld[inX][inY] = true;
-		}
+	private int diagonal(int i, int length) {
+		return DiagonalSums[i + (length - 1) * (paddedWidth + 1)] - DiagonalSums[i - paddedWidth - 1];
 	}
 
 	/**
-	 * Copies array CalcGridWorld with new results into old array Gridworld.
+	 * Living cells on the down left diagonal starting at cell i.
 	 *
+	 * @param i padded index of the first cell
+	 * @param length number of cells
+	 * @return int living cells
 	 */
-	private void copyGridworld() {
-		for (int y = 0; y < GridWorld[0].length; y++) {
-			for (int x = 0; x < GridWorld.length; x++) {
-				GridWorld[x][y] = CalcGridWorld[x][y];
-			}
+	private int antiDiagonal(int i, int length) {
+		return AntiDiagonalSums[i + (length - 1) * (paddedWidth - 1)] - AntiDiagonalSums[i - paddedWidth + 1];
+	}
+
+	/**
+	 * Cells per second of the last generation for Larger than Life rules.
+	 */
+	@Override
+	public String getEngineInfo() {
+		if (ColumnSums == null || stepNanos == 0) {
+			return "";
 		}
+		double cellsPerSecond = (double) getCellWidth() * getCellHeight() / (stepNanos / 1e9);
+		return String.format("R%d %s: %.1f Mcells/s", getRule().getRadius(), getRule().getNeighbourhood(),
+				cellsPerSecond / 1e6);
 	}
 
 }
@@ -0,0 +1,166 @@
+package data;
+
+import java.util.Arrays;
+
+/**
+ * Bit-packed Game of Life engine which only calculates tiles whose
+ * neighbourhood changed in the last generation. A tile is one word(64 cells)
+ * wide and TILEHEIGHT rows high.
+ *
+ * <p>
+ * A skipped tile did not change in the last generation, so the old generation
+ * in the second buffer already holds its next generation.
+ *
+ * @author BenGe47
+ *
+ */
+public class GameOfLifeActiveTiles extends GameOfLifeBitPacked {
+
+	private final static int TILEHEIGHT = 16;
+	private int tileRows;
+	private boolean[] ChangedTiles;
+	private boolean[] CalcChangedTiles;
+	private boolean[] ActiveTiles;
+	private int activeTileCount;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param inWidth cell width
+	 * @param inHeight cell height
+	 * @param inRandomness spawn randomness
+	 * @param inIsWrap is wrap-around edge
+	 * @param inRule birth/survival rule
+	 */
+	public GameOfLifeActiveTiles(int inWidth, int inHeight, Double inRandomness, Boolean inIsWrap, LifeRule inRule) {
+		super(inWidth, inHeight, inRandomness, inIsWrap, inRule);
+
+		tileRows = (inHeight + TILEHEIGHT - 1) / TILEHEIGHT;
+		int tiles = tileRows * getWordsPerRow();
+		ChangedTiles = new boolean[tiles];
+		CalcChangedTiles = new boolean[tiles];
+		ActiveTiles = new boolean[tiles];
+
+		// the random first generation counts as changed everywhere
+		Arrays.fill(ChangedTiles, true);
+	}
+
+	@Override
+	public void calcNextGenField() {
+		markActiveTiles();
+
+		super.calcNextGenField();
+
+		boolean[] tmp = ChangedTiles;
+		ChangedTiles = CalcChangedTiles;
+		CalcChangedTiles = tmp;
+	}
+
+	/**
+	 * Changed cells may lie in any tile, so all tiles count as changed.
+	 */
+	@Override
+	public void finishCells() {
+		super.finishCells();
+		Arrays.fill(ChangedTiles, true);
+	}
+
+	/**
+	 * A tile is active if it or one of its eight neighbour tiles changed.
+	 *
+	 */
+	private void markActiveTiles() {
+		int columns = getWordsPerRow();
+		boolean isWrap = isWrapEdge();
+		activeTileCount = 0;
+
+		for (int ty = 0; ty < tileRows; ty++) {
+			for (int tx = 0; tx < columns; tx++) {
+				boolean isActive = false;
+				for (int dy = -1; dy <= 1 && !isActive; dy++) {
+					int ny = ty + dy;
+					if (isWrap) {
+						ny = (ny + tileRows) % tileRows;
+					} else if (ny < 0 || ny >= tileRows) {
+						continue;
+					}
+					for (int dx = -1; dx <= 1; dx++) {
+						int nx = tx + dx;
+						if (isWrap) {
+							nx = (nx + columns) % columns;
+						} else if (nx < 0 || nx >= columns) {
+							continue;
+						}
+						if (ChangedTiles[ny * columns + nx]) {
+							isActive = true;
+							break;
+						}
+					}
+				}
+				ActiveTiles[ty * columns + tx] = isActive;
+				if (isActive) {
+					activeTileCount++;
+				}
+			}
+		}
+	}
+
+	@Override
+	protected void calcRows(int fromY, int toY) {
+		long[] words = getWords();
+		long[] calcWords = getCalcWords();
+		int columns = getWordsPerRow();
+		boolean hashing = isHashing();
+		long hashDelta = 0;
+		long births = 0;
+		long deaths = 0;
+
+		for (int ty = fromY / TILEHEIGHT; ty * TILEHEIGHT < toY; ty++) {
+			int lastY = Math.min(toY, (ty + 1) * TILEHEIGHT);
+			for (int tx = 0; tx < columns; tx++) {
+				int tile = ty * columns + tx;
+				boolean isChanged = false;
+				if (ActiveTiles[tile]) {
+					for (int y = ty * TILEHEIGHT; y < lastY; y++) {
+						long word = words[y * columns + tx];
+						long next = calcWord(y, tx);
+						long changed = next ^ word;
+						if (changed != 0) {
+							isChanged = true;
+							if (hashing) {
+								hashDelta ^= mixHash(y * columns + tx, word) ^ mixHash(y * columns + tx, next);
+							}
+							int born = Long.bitCount(changed & next);
+							births += born;
+							deaths += Long.bitCount(changed) - born;
+						}
+						calcWords[y * columns + tx] = next;
+					}
+				}
+				CalcChangedTiles[tile] = isChanged;
+			}
+		}
+		xorFieldHash(hashDelta);
+		addCellChanges(births, deaths);
+	}
+
+	@Override
+	protected int getBandAlignment() {
+		return TILEHEIGHT;
+	}
+
+	/**
+	 * Share of tiles calculated in the last generation.
+	 *
+	 * @return ratio between 0.0 and 1.0
+	 */
+	public double getActiveTileRatio() {
+		return (double) activeTileCount / ActiveTiles.length;
+	}
+
+	@Override
+	public String getEngineInfo() {
+		return String.format("Active tiles: %.1f%%", getActiveTileRatio() * 100);
+	}
+
+}
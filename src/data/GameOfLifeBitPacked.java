@@ -0,0 +1,450 @@
+package data;
+
+import java.util.Arrays;
+
+/**
+ * Game of Life engine which packs 64 cells into every long and calculates a
+ * whole word of cells per step with bitwise full-adder logic.
+ *
+ * <p>
+ * Cells are stored row by row, bit b of word i in a row is the cell at
+ * x = 64 * i + b. Unused bits of the last word in a row are always zero.
+ *
+ * @author BenGe47
+ *
+ */
+public class GameOfLifeBitPacked extends ABandedGameOfLife {
+
+	private long[] Words;
+	private long[] CalcWords;
+	private int wordsPerRow;
+	private boolean[][] GridView;
+	private boolean isViewDirty = true;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param inWidth cell width
+	 * @param inHeight cell height
+	 * @param inRandomness spawn randomness
+	 * @param inIsWrap is wrap-around edge
+	 * @param inRule birth/survival rule
+	 */
+	public GameOfLifeBitPacked(int inWidth, int inHeight, Double inRandomness, Boolean inIsWrap, LifeRule inRule) {
+		super(inWidth, inHeight, inRandomness, inIsWrap, inRule);
+
+		wordsPerRow = (inWidth + 63) >>> 6;
+		Words = new long[wordsPerRow * inHeight];
+		CalcWords = new long[wordsPerRow * inHeight];
+		GridView = new boolean[inWidth][inHeight];
+
+		init2DField();
+
+		countField();
+	}
+
+	@Override
+	protected void countField() {
+		xorFieldHash(hashWords(Words));
+		long population = 0;
+		for (long word : Words) {
+			population += Long.bitCount(word);
+		}
+		setPopulation(population);
+	}
+
+	@Override
+	public boolean isAlive(int x, int y) {
+		if (x < 0 || y < 0 || x >= getCellWidth() || y >= getCellHeight()) {
+			return false;
+		}
+		return ((Words[y * wordsPerRow + (x >>> 6)] >>> x) & 1L) != 0;
+	}
+
+	@Override
+	public void setCell(int x, int y, boolean inIsAlive) {
+		if (isEditable(x, y)) {
+			int i = y * wordsPerRow + (x >>> 6);
+			if (inIsAlive) {
+				Words[i] |= 1L << x;
+			} else {
+				Words[i] &= ~(1L << x);
+			}
+			isViewDirty = true;
+		}
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(Words, 0);
+		isViewDirty = true;
+	}
+
+	/**
+	 * Creates the Vector API engine GameOfLifeVector from the src-vector source
+	 * folder. It is loaded by name, so this project still compiles and runs
+	 * on Java 8; without the class or the jdk.incubator.vector module a
+	 * bit-packed engine without vectors is returned.
+	 *
+	 * @param inWidth cell width
+	 * @param inHeight cell height
+	 * @param inRandomness spawn randomness
+	 * @param inIsWrap is wrap-around edge
+	 * @param inRule birth/survival rule
+	 * @return GameOfLifeVector or GameOfLifeBitPacked
+	 */
+	public static GameOfLifeBitPacked createVectorEngine(int inWidth, int inHeight, Double inRandomness,
+			Boolean inIsWrap, LifeRule inRule) {
+		try {
+			Class<?> vectorClass = Class.forName("data.GameOfLifeVector");
+			return (GameOfLifeBitPacked) vectorClass
+					.getConstructor(int.class, int.class, Double.class, Boolean.class, LifeRule.class)
+					.newInstance(inWidth, inHeight, inRandomness, inIsWrap, inRule);
+		} catch (LinkageError | ReflectiveOperationException e) {
+			return new GameOfLifeBitPacked(inWidth, inHeight, inRandomness, inIsWrap, inRule);
+		}
+	}
+
+	/**
+	 * Init field with starting values.
+	 *
+	 */
+	private void init2DField() {
+		int border = isWrapEdge() ? 0 : 1;
+		double rand = getRandomness();
+
+		for (int y = border; y < getCellHeight() - border; y++) {
+			for (int x = border; x < getCellWidth() - border; x++) {
+				if (Math.random() <= rand) {
+					Words[y * wordsPerRow + (x >>> 6)] |= 1L << x;
+				}
+			}
+		}
+	}
+
+	@Override
+	public void calcNextGenField() {
+		resetCellChanges();
+		calcBands(0, getCellHeight());
+
+		// swap buffers, the old generation gets overwritten in the next step
+		long[] tmp = Words;
+		Words = CalcWords;
+		CalcWords = tmp;
+		isViewDirty = true;
+	}
+
+	@Override
+	protected void calcRows(int fromY, int toY) {
+		boolean hashing = isHashing();
+		long hashDelta = 0;
+		long births = 0;
+		long deaths = 0;
+		for (int y = fromY; y < toY; y++) {
+			int rowStart = y * wordsPerRow;
+			for (int i = 0; i < wordsPerRow; i++) {
+				long word = Words[rowStart + i];
+				long next = calcWord(y, i);
+				CalcWords[rowStart + i] = next;
+				long changed = next ^ word;
+				if (changed != 0) {
+					if (hashing) {
+						hashDelta ^= mixHash(rowStart + i, word) ^ mixHash(rowStart + i, next);
+					}
+					int born = Long.bitCount(changed & next);
+					births += born;
+					deaths += Long.bitCount(changed) - born;
+				}
+			}
+		}
+		xorFieldHash(hashDelta);
+		addCellChanges(births, deaths);
+	}
+
+	/**
+	 * Hashes a whole packed field, the XOR of mixHash over all words.
+	 *
+	 * @param inWords packed field
+	 * @return long field hash
+	 */
+	protected static long hashWords(long[] inWords) {
+		long hash = 0;
+		for (int i = 0; i < inWords.length; i++) {
+			hash ^= mixHash(i, inWords[i]);
+		}
+		return hash;
+	}
+
+	/**
+	 * Calculates the next generation of word i in row y from the current
+	 * generation. Cells outside of the field are dead or wrap around, with a
+	 * dead cells edge the outermost ring of cells always stays dead.
+	 *
+	 * @param y row
+	 * @param i word index in row
+	 * @return word of the next generation
+	 */
+	protected long calcWord(int y, int i) {
+		int height = getCellHeight();
+		int mid = y * wordsPerRow;
+		int up;
+		int down;
+
+		if (isWrapEdge()) {
+			up = (y == 0 ? height - 1 : y - 1) * wordsPerRow;
+			down = (y == height - 1 ? 0 : y + 1) * wordsPerRow;
+		} else {
+			if (y == 0 || y == height - 1) {
+				return 0;
+			}
+			up = mid - wordsPerRow;
+			down = mid + wordsPerRow;
+		}
+
+		int width = getCellWidth();
+		boolean isWrap = isWrapEdge();
+		long next = nextWord(getRule(), westWord(Words, up, i, width, isWrap), Words[up + i],
+				eastWord(Words, up, i, width, isWrap), westWord(Words, mid, i, width, isWrap), Words[mid + i],
+				eastWord(Words, mid, i, width, isWrap), westWord(Words, down, i, width, isWrap), Words[down + i],
+				eastWord(Words, down, i, width, isWrap));
+
+		return maskWord(y, i, next);
+	}
+
+	/**
+	 * Clears the unused bits of the last word in a row and, with a dead cells
+	 * edge, the cells of the outermost ring.
+	 *
+	 * @param y row
+	 * @param i word index in row
+	 * @param inWord calculated word
+	 * @return masked word
+	 */
+	protected long maskWord(int y, int i, long inWord) {
+		return maskWord(y, i, inWord, getCellWidth(), getCellHeight(), isWrapEdge());
+	}
+
+	/**
+	 * Clears the unused bits of the last word in a row and, with a dead cells
+	 * edge, the cells of the outermost ring. Shared with the engines which keep
+	 * their words in other places.
+	 *
+	 * @param y row
+	 * @param i word index in row
+	 * @param inWord calculated word
+	 * @param inWidth cell width
+	 * @param inHeight cell height
+	 * @param inIsWrap is wrap-around edge
+	 * @return masked word
+	 */
+	static long maskWord(int y, int i, long inWord, int inWidth, int inHeight, boolean inIsWrap) {
+		long next = inWord;
+		boolean isLast = i == (inWidth - 1) >>> 6;
+		if (!inIsWrap) {
+			if (y == 0 || y == inHeight - 1) {
+				return 0;
+			}
+			if (i == 0) {
+				next &= ~1L;
+			}
+			if (isLast) {
+				next &= ~(1L << (inWidth - 1));
+			}
+		}
+		if (isLast && (inWidth & 63) != 0) {
+			next &= (1L << inWidth) - 1;
+		}
+		return next;
+	}
+
+	/**
+	 * Calculates the next generation of 64 cells from the words of their eight
+	 * neighbours with any birth/survival rule. The neighbour count of every bit
+	 * position is summed into four bit-sliced count words with full adders.
+	 *
+	 * @param inRule birth/survival rule
+	 * @param ul word of upper left neighbours
+	 * @param uc word of upper neighbours
+	 * @param ur word of upper right neighbours
+	 * @param ml word of left neighbours
+	 * @param mc word of the cells themselves
+	 * @param mr word of right neighbours
+	 * @param dl word of lower left neighbours
+	 * @param dc word of lower neighbours
+	 * @param dr word of lower right neighbours
+	 * @return word of the next generation
+	 */
+	static long nextWord(LifeRule inRule, long ul, long uc, long ur, long ml, long mc, long mr, long dl, long dc,
+			long dr) {
+		if (inRule.isConway()) {
+			return nextWord(ul, uc, ur, ml, mc, mr, dl, dc, dr);
+		}
+
+		// 2 bit sums of the upper, middle and lower neighbour rows
+		long upXor = ul ^ uc;
+		long up0 = upXor ^ ur;
+		long up1 = (ul & uc) | (upXor & ur);
+		long mid0 = ml ^ mr;
+		long mid1 = ml & mr;
+		long downXor = dl ^ dc;
+		long down0 = downXor ^ dr;
+		long down1 = (dl & dc) | (downXor & dr);
+
+		// bit 0 of neighbour count and its carry into the twos
+		long sumXor = up0 ^ mid0;
+		long count0 = sumXor ^ down0;
+		long carry0 = (up0 & mid0) | (sumXor & down0);
+
+		// sum of the four twos, two of them set at most once each pair
+		long a = up1 ^ mid1;
+		long b = down1 ^ carry0;
+		long pairA = up1 & mid1;
+		long pairB = down1 & carry0;
+		long count1 = a ^ b;
+		long count2 = pairA ^ pairB ^ (a & b);
+		long count3 = pairA & pairB;
+
+		return inRule.apply(count0, count1, count2, count3, mc);
+	}
+
+	/**
+	 * Calculates the next generation of 64 cells from the words of their eight
+	 * neighbours with Conway's rule. Neighbour counts are summed with full
+	 * adders, every bit position is one independent cell.
+	 *
+	 * @param ul word of upper left neighbours
+	 * @param uc word of upper neighbours
+	 * @param ur word of upper right neighbours
+	 * @param ml word of left neighbours
+	 * @param mc word of the cells themselves
+	 * @param mr word of right neighbours
+	 * @param dl word of lower left neighbours
+	 * @param dc word of lower neighbours
+	 * @param dr word of lower right neighbours
+	 * @return word of the next generation
+	 */
+	static long nextWord(long ul, long uc, long ur, long ml, long mc, long mr, long dl, long dc, long dr) {
+		// 2 bit sums of the upper, middle and lower neighbour rows
+		long upXor = ul ^ uc;
+		long up0 = upXor ^ ur;
+		long up1 = (ul & uc) | (upXor & ur);
+		long mid0 = ml ^ mr;
+		long mid1 = ml & mr;
+		long downXor = dl ^ dc;
+		long down0 = downXor ^ dr;
+		long down1 = (dl & dc) | (downXor & dr);
+
+		// bit 0 of neighbour count and its carry into the twos
+		long sumXor = up0 ^ mid0;
+		long sum0 = sumXor ^ down0;
+		long carry0 = (up0 & mid0) | (sumXor & down0);
+
+		// exactly one of the four twos set means a count of 2 or 3
+		long a = up1 ^ mid1;
+		long b = down1 ^ carry0;
+		long exactlyOneTwo = (a ^ b) & ~((up1 & mid1) | (down1 & carry0));
+
+		// count 3 gives birth or survival, count 2 only survival
+		return exactlyOneTwo & (sum0 | mc);
+	}
+
+	/**
+	 * Word whose bit b is the left neighbour of cell b in word i of a row.
+	 *
+	 * @param inWords packed rows
+	 * @param rowStart index of first word in row
+	 * @param i word index in row
+	 * @param inWidth cell width
+	 * @param inIsWrap is wrap-around edge
+	 * @return shifted word
+	 */
+	static long westWord(long[] inWords, int rowStart, int i, int inWidth, boolean inIsWrap) {
+		long carry;
+		if (i > 0) {
+			carry = inWords[rowStart + i - 1] >>> 63;
+		} else if (inIsWrap) {
+			int x = inWidth - 1;
+			carry = (inWords[rowStart + (x >>> 6)] >>> x) & 1L;
+		} else {
+			carry = 0;
+		}
+		return (inWords[rowStart + i] << 1) | carry;
+	}
+
+	/**
+	 * Word whose bit b is the right neighbour of cell b in word i of a row.
+	 *
+	 * @param inWords packed rows
+	 * @param rowStart index of first word in row
+	 * @param i word index in row
+	 * @param inWidth cell width
+	 * @param inIsWrap is wrap-around edge
+	 * @return shifted word
+	 */
+	static long eastWord(long[] inWords, int rowStart, int i, int inWidth, boolean inIsWrap) {
+		long shifted = inWords[rowStart + i] >>> 1;
+		if (i < (inWidth - 1) >>> 6) {
+			shifted |= inWords[rowStart + i + 1] << 63;
+		} else if (inIsWrap) {
+			shifted |= (inWords[rowStart] & 1L) << (inWidth - 1);
+		}
+		return shifted;
+	}
+
+	@Override
+	public boolean copyPackedRows(long[] inWords) {
+		if (inWords.length != Words.length) {
+			return false;
+		}
+		System.arraycopy(Words, 0, inWords, 0, Words.length);
+		return true;
+	}
+
+	/**
+	 * Get field of the current generation, row by row.
+	 *
+	 * @return long[] packed field
+	 */
+	protected long[] getWords() {
+		return Words;
+	}
+
+	/**
+	 * Get field the next generation is written into.
+	 *
+	 * @return long[] packed field
+	 */
+	protected long[] getCalcWords() {
+		return CalcWords;
+	}
+
+	/**
+	 * Get number of longs per row.
+	 *
+	 * @return wordsPerRow
+	 */
+	protected int getWordsPerRow() {
+		return wordsPerRow;
+	}
+
+	/**
+	 * Return GOL field as compatibility view. The view is unpacked only when it
+	 * is requested after a new generation.
+	 *
+	 * @return boolean[][] of GridWorld
+	 */
+	@Override
+	public boolean[][] getGridWorld() {
+		if (isViewDirty) {
+			for (int y = 0; y < getCellHeight(); y++) {
+				int rowStart = y * wordsPerRow;
+				for (int x = 0; x < getCellWidth(); x++) {
+					GridView[x][y] = ((Words[rowStart + (x >>> 6)] >>> x) & 1L) != 0;
+				}
+			}
+			isViewDirty = false;
+		}
+		return GridView;
+	}
+
+}
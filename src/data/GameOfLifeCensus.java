@@ -0,0 +1,474 @@
+package data;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Counts the objects of a field while it runs. An object is a group of living
+ * cells connected through their 8 neighbours, it is named by a hash of its
+ * cells which does not change when the object moves, turns or is mirrored.
+ * Blocks, blinkers, gliders and other common objects of Conway's rule are
+ * found in a table of these hashes, every other object counts as other.
+ *
+ * <p>
+ * The field is packed into tiles of 64 cells of a row, the XOR with the tiles
+ * of the step before gives the changed cells. Only objects with a changed cell
+ * or a changed neighbour are labelled again, so the blinkers and blocks of a
+ * settled soup cost nothing while the tiles around them stay the same. The
+ * edges of the field are not joined, an object crossing a wrapped edge counts
+ * as its pieces.
+ *
+ * @author BenGe47
+ *
+ */
+public class GameOfLifeCensus {
+
+	// larger objects are never looked up
+	private final static int MAXHASHEDCELLS = 64;
+	private final static String[] KNOWNNAMES = { "block", "beehive", "loaf", "boat", "ship", "tub", "pond",
+			"long boat", "barge", "blinker", "glider", "LWSS", "MWSS", "HWSS" };
+	// RLE cells and period of the known objects
+	private final static String[] KNOWNPATTERNS = { "2o$2o!", "b2o$o2bo$b2o!", "b2o$o2bo$bobo$2bo!", "2o$obo$bo!",
+			"2o$obo$b2o!", "bo$obo$bo!", "b2o$o2bo$o2bo$b2o!", "2o$obo$bobo$2bo!", "bo$obo$bobo$2bo!", "3o!",
+			"bo$2bo$3o!", "bo2bo$o4b$o3bo$4o!", "3bo2b$bo3bo$o5b$o4bo$5o!", "3b2o2b$bo4bo$o6b$o5bo$6o!" };
+	private final static int[] KNOWNPERIODS = { 1, 1, 1, 1, 1, 1, 1, 1, 1, 2, 4, 4, 4, 4 };
+	private final static int OTHER = KNOWNNAMES.length;
+	// pairs of hash and index of KNOWNNAMES of all phases
+	private final static long[] KNOWN = createKnownObjects();
+	private final boolean isNamed;
+	private int width;
+	private int height;
+	private int wordsPerRow;
+	// packed rows of the field, bit x of word y * wordsPerRow + x / 64
+	private long[] Bits;
+	private long[] PreviousBits;
+	// changed cells spread over their row, and over their neighbours
+	private long[] Spread;
+	private long[] Near;
+	private long LastWordMask;
+	// living cells which are labelled in this update
+	private long[] Labelled;
+	// object of each living cell
+	private LifeObject[] Owners;
+	private final ArrayList<LifeObject> Removed = new ArrayList<>();
+	private int[] Stack = new int[1024];
+	private int[] CellBuffer = new int[1024];
+	private int[] XBuffer = new int[1024];
+	private int[] YBuffer = new int[1024];
+	private final int[] Counts = new int[KNOWNNAMES.length + 1];
+	private int objectCount;
+	private long updateNanos;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param inRule rule of the field, only Conway's rule names objects
+	 */
+	public GameOfLifeCensus(LifeRule inRule) {
+		isNamed = inRule.isConway();
+	}
+
+	/**
+	 * Builds the table of hashes of all phases of the known objects. Each
+	 * object is stepped with Conway's rule in a small field of its own.
+	 *
+	 * @return long[] pairs of hash and index of KNOWNNAMES
+	 */
+	private static long[] createKnownObjects() {
+		ArrayList<Long> known = new ArrayList<>();
+		for (int i = 0; i < KNOWNPATTERNS.length; i++) {
+			GameOfLife gol = new GameOfLife(24, 24, 0.0, GlobalSettings.BoundaryMode.DEAD, LifeRule.CONWAY);
+			try (RLEReader reader = new RLEReader(new StringReader(KNOWNPATTERNS[i]))) {
+				reader.readCells(gol);
+			} catch (IOException ioe) {
+				throw new IllegalStateException(ioe);
+			}
+			for (int phase = 0; phase < KNOWNPERIODS[i]; phase++) {
+				boolean[][] grid = gol.getGridWorld();
+				int[] xs = new int[24 * 24];
+				int[] ys = new int[24 * 24];
+				int n = 0;
+				for (int x = 0; x < 24; x++) {
+					for (int y = 0; y < 24; y++) {
+						if (grid[x][y]) {
+							xs[n] = x;
+							ys[n] = y;
+							n++;
+						}
+					}
+				}
+				known.add(canonicalHash(xs, ys, n));
+				known.add((long) i);
+				gol.calcNextGenField();
+			}
+		}
+		long[] pairs = new long[known.size()];
+		for (int i = 0; i < pairs.length; i++) {
+			pairs[i] = known.get(i);
+		}
+		return pairs;
+	}
+
+	/**
+	 * Hash of the cells of an object which is the same for all positions,
+	 * rotations and mirror images. The hash of each of the 8 orientations is
+	 * taken relative to the bounding box, the smallest one is used.
+	 *
+	 * @param inXs columns of the cells
+	 * @param inYs rows of the cells
+	 * @param n number of cells
+	 * @return long hash
+	 */
+	private static long canonicalHash(int[] inXs, int[] inYs, int n) {
+		int minX = Integer.MAX_VALUE;
+		int minY = Integer.MAX_VALUE;
+		int maxX = Integer.MIN_VALUE;
+		int maxY = Integer.MIN_VALUE;
+		for (int i = 0; i < n; i++) {
+			int x = inXs[i];
+			int y = inYs[i];
+			minX = Math.min(minX, x);
+			minY = Math.min(minY, y);
+			maxX = Math.max(maxX, x);
+			maxY = Math.max(maxY, y);
+		}
+		long best = Long.MAX_VALUE;
+		for (int orientation = 0; orientation < 8; orientation++) {
+			long hash = n;
+			for (int i = 0; i < n; i++) {
+				int x = inXs[i] - minX;
+				int y = inYs[i] - minY;
+				if ((orientation & 1) != 0) {
+					x = maxX - minX - x;
+				}
+				if ((orientation & 2) != 0) {
+					y = maxY - minY - y;
+				}
+				if ((orientation & 4) != 0) {
+					int tmp = x;
+					x = y;
+					y = tmp;
+				}
+				hash ^= AGameOfLife.mixHash(((long) y << 32) | x, 1);
+			}
+			best = Math.min(best, hash);
+		}
+		return best;
+	}
+
+	/**
+	 * Counts the objects of the next step. The first call and a field of
+	 * another size compare with an empty field, so all objects are labelled.
+	 *
+	 * @param inGrid field indexed [x][y]
+	 */
+	public void update(boolean[][] inGrid) {
+		update(null, inGrid);
+	}
+
+	/**
+	 * Counts the objects of the next step of an engine. The packed rows of a
+	 * bit-packed engine are copied, which costs far less than packing the
+	 * field, so the update grows with the changed cells and not with the field.
+	 *
+	 * @param inGOL engine of the field, null to pack inGrid
+	 * @param inGrid current field of the engine indexed [x][y]
+	 */
+	public void update(AGameOfLife inGOL, boolean[][] inGrid) {
+		long start = System.nanoTime();
+		if (Bits == null || inGrid.length != width || inGrid[0].length != height) {
+			init(inGrid.length, inGrid[0].length);
+		}
+		long[] tmp = PreviousBits;
+		PreviousBits = Bits;
+		Bits = tmp;
+		if (inGOL == null || !inGOL.copyPackedRows(Bits)) {
+			pack(inGrid);
+		}
+
+		markNearChanges();
+
+		// objects with a changed cell or a changed neighbour are removed first,
+		// so labelling never runs into an object which is still counted
+		for (int i = 0; i < Near.length; i++) {
+			long cells = Near[i] & PreviousBits[i];
+			while (cells != 0) {
+				int cell = (i / wordsPerRow) * width + ((i % wordsPerRow) << 6) + Long.numberOfTrailingZeros(cells);
+				cells &= cells - 1;
+				// dead cells may still name the object they belonged to
+				LifeObject object = Owners[cell];
+				if (object != null && object.isCounted) {
+					object.isCounted = false;
+					Counts[object.kind]--;
+					objectCount--;
+					Removed.add(object);
+				}
+			}
+		}
+
+		Arrays.fill(Labelled, 0);
+		for (int i = 0; i < Near.length; i++) {
+			long cells = Near[i] & Bits[i];
+			while (cells != 0) {
+				long bit = cells & -cells;
+				cells &= cells - 1;
+				if ((Labelled[i] & bit) == 0) {
+					label((i / wordsPerRow) * width + ((i % wordsPerRow) << 6) + Long.numberOfTrailingZeros(bit));
+				}
+			}
+		}
+		for (LifeObject object : Removed) {
+			for (int cell : object.Cells) {
+				if (isUnlabelled(cell)) {
+					label(cell);
+				}
+			}
+		}
+		Removed.clear();
+		updateNanos = System.nanoTime() - start;
+	}
+
+	/**
+	 * Allocates the buffers for a field size.
+	 *
+	 * @param inWidth field width
+	 * @param inHeight field height
+	 */
+	private void init(int inWidth, int inHeight) {
+		width = inWidth;
+		height = inHeight;
+		wordsPerRow = (width + 63) >>> 6;
+		Bits = new long[wordsPerRow * height];
+		PreviousBits = new long[Bits.length];
+		Spread = new long[Bits.length];
+		Near = new long[Bits.length];
+		LastWordMask = (width & 63) == 0 ? -1L : (1L << width) - 1;
+		Labelled = new long[Bits.length];
+		Owners = new LifeObject[width * height];
+		Arrays.fill(Counts, 0);
+		objectCount = 0;
+	}
+
+	/**
+	 * Packs the field into Bits.
+	 *
+	 * @param inGrid field indexed [x][y]
+	 */
+	private void pack(boolean[][] inGrid) {
+		Arrays.fill(Bits, 0);
+		for (int x = 0; x < width; x++) {
+			boolean[] column = inGrid[x];
+			int word = x >>> 6;
+			// no branch, the living cells of a soup are too random to predict
+			for (int y = 0; y < height; y++) {
+				Bits[y * wordsPerRow + word] |= (column[y] ? 1L : 0L) << x;
+			}
+		}
+	}
+
+	/**
+	 * Marks the changed cells and their neighbours in Near. Each word is
+	 * spread to its left and right neighbour cells first, then to the rows
+	 * above and below.
+	 *
+	 */
+	private void markNearChanges() {
+		for (int y = 0; y < height; y++) {
+			int row = y * wordsPerRow;
+			long carry = 0;
+			for (int word = 0; word < wordsPerRow; word++) {
+				long changed = Bits[row + word] ^ PreviousBits[row + word];
+				long next = word + 1 < wordsPerRow ? Bits[row + word + 1] ^ PreviousBits[row + word + 1] : 0;
+				Spread[row + word] = changed | (changed << 1) | (changed >>> 1) | carry | (next << 63);
+				carry = changed >>> 63;
+			}
+			// cells right of the field are never marked
+			Spread[row + wordsPerRow - 1] &= LastWordMask;
+		}
+		for (int y = 0; y < height; y++) {
+			int row = y * wordsPerRow;
+			for (int word = 0; word < wordsPerRow; word++) {
+				long near = Spread[row + word];
+				if (y > 0) {
+					near |= Spread[row - wordsPerRow + word];
+				}
+				if (y + 1 < height) {
+					near |= Spread[row + wordsPerRow + word];
+				}
+				Near[row + word] = near;
+			}
+		}
+	}
+
+	/**
+	 * True if a cell is alive in the current step and not labelled yet.
+	 *
+	 * @param inCell cell index y * width + x
+	 * @return boolean true if alive and unlabelled
+	 */
+	private boolean isUnlabelled(int inCell) {
+		int x = inCell % width;
+		int i = (inCell / width) * wordsPerRow + (x >>> 6);
+		return (((Bits[i] & ~Labelled[i]) >>> x) & 1L) != 0;
+	}
+
+	/**
+	 * Collects the object of a living cell, names and counts it.
+	 *
+	 * @param inCell cell index y * width + x of a living cell
+	 */
+	private void label(int inCell) {
+		int n = 0;
+		int top = 0;
+		Stack[top++] = inCell;
+		Labelled[(inCell / width) * wordsPerRow + ((inCell % width) >>> 6)] |= 1L << inCell % width;
+		while (top > 0) {
+			int cell = Stack[--top];
+			int x = cell % width;
+			int y = cell / width;
+			if (n == CellBuffer.length) {
+				CellBuffer = Arrays.copyOf(CellBuffer, 2 * n);
+				XBuffer = Arrays.copyOf(XBuffer, 2 * n);
+				YBuffer = Arrays.copyOf(YBuffer, 2 * n);
+			}
+			CellBuffer[n] = cell;
+			XBuffer[n] = x;
+			YBuffer[n] = y;
+			n++;
+			for (int ny = Math.max(0, y - 1); ny <= Math.min(height - 1, y + 1); ny++) {
+				for (int nx = Math.max(0, x - 1); nx <= Math.min(width - 1, x + 1); nx++) {
+					int i = ny * wordsPerRow + (nx >>> 6);
+					if ((((Bits[i] & ~Labelled[i]) >>> nx) & 1L) != 0) {
+						Labelled[i] |= 1L << nx;
+						if (top == Stack.length) {
+							Stack = Arrays.copyOf(Stack, 2 * top);
+						}
+						Stack[top++] = ny * width + nx;
+					}
+				}
+			}
+		}
+
+		int kind = OTHER;
+		if (isNamed && n <= MAXHASHEDCELLS) {
+			long hash = canonicalHash(XBuffer, YBuffer, n);
+			for (int i = 0; i < KNOWN.length; i += 2) {
+				if (KNOWN[i] == hash) {
+					kind = (int) KNOWN[i + 1];
+				}
+			}
+		}
+		LifeObject object = new LifeObject(kind, Arrays.copyOf(CellBuffer, n));
+		for (int i = 0; i < n; i++) {
+			Owners[CellBuffer[i]] = object;
+		}
+		Counts[kind]++;
+		objectCount++;
+	}
+
+	/**
+	 * Get number of objects of a kind.
+	 *
+	 * @param inName name of a known object or "other"
+	 * @return int number of objects, 0 for unknown names
+	 */
+	public int getCount(String inName) {
+		for (int i = 0; i < KNOWNNAMES.length; i++) {
+			if (KNOWNNAMES[i].equals(inName)) {
+				return Counts[i];
+			}
+		}
+		return inName.equals("other") ? Counts[OTHER] : 0;
+	}
+
+	/**
+	 * Get number of all objects.
+	 *
+	 * @return int number of objects
+	 */
+	public int getObjectCount() {
+		return objectCount;
+	}
+
+	/**
+	 * Get duration of the last update.
+	 *
+	 * @return long nanoseconds
+	 */
+	public long getUpdateNanos() {
+		return updateNanos;
+	}
+
+	/**
+	 * Short census text with the number of objects and the three most frequent
+	 * known objects.
+	 *
+	 * @return String census text
+	 */
+	public String getInfo() {
+		if (Labelled == null) {
+			return "";
+		}
+		StringBuilder sb = new StringBuilder();
+		sb.append(objectCount).append(" objects");
+		boolean[] isShown = new boolean[KNOWNNAMES.length];
+		for (int shown = 0; shown < 3; shown++) {
+			int most = -1;
+			for (int i = 0; i < KNOWNNAMES.length; i++) {
+				if (!isShown[i] && Counts[i] > 0 && (most < 0 || Counts[i] > Counts[most])) {
+					most = i;
+				}
+			}
+			if (most < 0) {
+				break;
+			}
+			isShown[most] = true;
+			sb.append(shown == 0 ? ": " : ", ").append(Counts[most]).append(' ').append(KNOWNNAMES[most]);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * HTML table of all counted objects and the update time.
+	 *
+	 * @return String html text, empty before the first update
+	 */
+	public String getDetails() {
+		if (Labelled == null) {
+			return "";
+		}
+		StringBuilder sb = new StringBuilder("<html><table>");
+		for (int i = 0; i <= KNOWNNAMES.length; i++) {
+			if (Counts[i] > 0) {
+				sb.append("<tr><td>").append(i == OTHER ? "other" : KNOWNNAMES[i]).append("</td><td align=right>")
+						.append(Counts[i]).append("</td></tr>");
+			}
+		}
+		sb.append(String.format("</table>Census update %.2f ms</html>", updateNanos / 1e6));
+		return sb.toString();
+	}
+
+	/**
+	 * Counted object with its cells.
+	 */
+	private static final class LifeObject {
+
+		private final int kind;
+		private final int[] Cells;
+		private boolean isCounted = true;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param inKind index of KNOWNNAMES or OTHER
+		 * @param inCells cell indices y * width + x
+		 */
+		LifeObject(int inKind, int[] inCells) {
+			kind = inKind;
+			Cells = inCells;
+		}
+	}
+
+}
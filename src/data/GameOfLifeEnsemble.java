@@ -0,0 +1,434 @@
+package data;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Runs 64 independent worlds at once for soup statistics. Every cell position
+ * holds one long and bit k of it is the cell of world k, so the bitwise
+ * neighbour sums of GameOfLifeBitPacked calculate all worlds in one go.
+ *
+ * <p>
+ * For every world the population is counted and the generations of extinction
+ * and of settling into a still life or oscillator are remembered. A world has
+ * settled when it equals itself of up to maxPeriod generations ago, the last
+ * generations are kept for this comparison. Every kept generation is a copy of
+ * the field, so maxPeriod is limited to MAXPERIOD.
+ *
+ * <p>
+ * The field is padded with a halo like the scalar engine, so all boundary
+ * modes work. The worlds are shown side by side in 8 rows of 8.
+ *
+ * @author BenGe47
+ *
+ */
+public class GameOfLifeEnsemble extends ABandedGameOfLife {
+
+	/**
+	 * Number of worlds, one per bit of a long.
+	 */
+	public final static int WORLDS = 64;
+	/**
+	 * Longest detected period, each period costs a copy of the field.
+	 */
+	public final static int MAXPERIOD = 64;
+	private final static int TILES = 8;
+	// bit planes of the population counters, enough for 2^40 cells
+	private final static int COUNTERPLANES = 40;
+	private final int paddedWidth;
+	// the last maxPeriod + 1 generations, Generations[current] is the newest
+	private final long[][] Generations;
+	private int current;
+	private long generation;
+	private final int maxPeriod;
+	// worlds which changed compared with p generations before, for p >= 1
+	private final long[] ChangedWorlds;
+	private final long[] WorldPopulation = new long[WORLDS];
+	private final long[] ExtinctGeneration = new long[WORLDS];
+	private final long[] SettledGeneration = new long[WORLDS];
+	private final int[] SettledPeriod = new int[WORLDS];
+	private final boolean[][] GridWorld;
+	private boolean isViewDirty = true;
+
+	/**
+	 * Constructor. The view is split into 8 x 8 worlds with a dead line
+	 * between them.
+	 *
+	 * @param inViewWidth cell width of all worlds side by side
+	 * @param inViewHeight cell height of all worlds side by side
+	 * @param inRandomness spawn randomness
+	 * @param inBoundaryMode neighbours of the outermost cells
+	 * @param inRule birth/survival rule
+	 * @param inMaxPeriod longest period of a settled world, at most MAXPERIOD
+	 */
+	public GameOfLifeEnsemble(int inViewWidth, int inViewHeight, Double inRandomness,
+			GlobalSettings.BoundaryMode inBoundaryMode, LifeRule inRule, int inMaxPeriod) {
+		super(Math.max(3, (inViewWidth - TILES + 1) / TILES), Math.max(3, (inViewHeight - TILES + 1) / TILES),
+				inRandomness, inBoundaryMode, inRule);
+
+		paddedWidth = getCellWidth() + 2;
+		maxPeriod = Math.max(1, Math.min(MAXPERIOD, inMaxPeriod));
+		Generations = new long[maxPeriod + 1][paddedWidth * (getCellHeight() + 2)];
+		ChangedWorlds = new long[maxPeriod + 1];
+		GridWorld = new boolean[TILES * (getCellWidth() + 1) - 1][TILES * (getCellHeight() + 1) - 1];
+
+		init2DField();
+
+		countField();
+	}
+
+	/**
+	 * Init every world with its own random field.
+	 *
+	 */
+	private void init2DField() {
+		SplittableRandom random = new SplittableRandom();
+		int level = randomLevel();
+		int border = getBoundaryMode() == GlobalSettings.BoundaryMode.DEAD ? 1 : 0;
+
+		for (int y = border; y < getCellHeight() - border; y++) {
+			for (int x = border; x < getCellWidth() - border; x++) {
+				Generations[current][index(x, y)] = randomWord(random, level);
+			}
+		}
+	}
+
+	/**
+	 * Position of a cell in the padded field.
+	 *
+	 * @param x column
+	 * @param y row
+	 * @return int index
+	 */
+	private int index(int x, int y) {
+		return (y + 1) * paddedWidth + x + 1;
+	}
+
+	@Override
+	protected void countField() {
+		long[] cells = Generations[current];
+		long[] planes = new long[COUNTERPLANES];
+		long hash = 0;
+		long population = 0;
+
+		for (int y = 0; y < getCellHeight(); y++) {
+			for (int i = index(0, y); i <= index(getCellWidth() - 1, y); i++) {
+				hash ^= mixHash(i, cells[i]);
+				population += Long.bitCount(cells[i]);
+				addToCounters(planes, cells[i]);
+			}
+		}
+		xorFieldHash(hash);
+		setPopulation(population);
+
+		// the edited field starts a new run
+		Arrays.fill(WorldPopulation, 0);
+		addCounters(planes);
+		generation = 0;
+		for (int k = 0; k < WORLDS; k++) {
+			ExtinctGeneration[k] = WorldPopulation[k] == 0 ? 0 : -1;
+			SettledGeneration[k] = WorldPopulation[k] == 0 ? 0 : -1;
+			SettledPeriod[k] = WorldPopulation[k] == 0 ? 1 : 0;
+		}
+		isViewDirty = true;
+	}
+
+	/**
+	 * Adds one bit per world to bit-sliced counters, plane p holds bit p of
+	 * the counter of every world.
+	 *
+	 * @param inPlanes counter planes
+	 * @param inWord one bit per world
+	 */
+	private static void addToCounters(long[] inPlanes, long inWord) {
+		long carry = inWord;
+		for (int p = 0; carry != 0; p++) {
+			long next = inPlanes[p] & carry;
+			inPlanes[p] ^= carry;
+			carry = next;
+		}
+	}
+
+	/**
+	 * Adds bit-sliced counters to the populations of the worlds.
+	 *
+	 * @param inPlanes counter planes
+	 */
+	private synchronized void addCounters(long[] inPlanes) {
+		for (int p = 0; p < COUNTERPLANES; p++) {
+			long plane = inPlanes[p];
+			while (plane != 0) {
+				int k = Long.numberOfTrailingZeros(plane);
+				plane &= plane - 1;
+				WorldPopulation[k] += 1L << p;
+			}
+		}
+	}
+
+	@Override
+	public void calcNextGenField() {
+		resetCellChanges();
+		Arrays.fill(WorldPopulation, 0);
+		Arrays.fill(ChangedWorlds, 0);
+		fillHalo(Generations[current]);
+
+		if (getBoundaryMode() == GlobalSettings.BoundaryMode.DEAD) {
+			calcBands(1, getCellHeight() - 1);
+		} else {
+			calcBands(0, getCellHeight());
+		}
+
+		current = (current + 1) % Generations.length;
+		generation++;
+		updateWorldStats();
+		isViewDirty = true;
+	}
+
+	/**
+	 * Remembers the generation of extinction and of settling of worlds that
+	 * died out or repeat for the first time.
+	 *
+	 */
+	private void updateWorldStats() {
+		for (int k = 0; k < WORLDS; k++) {
+			if (WorldPopulation[k] == 0 && ExtinctGeneration[k] < 0) {
+				ExtinctGeneration[k] = generation;
+			}
+		}
+		for (int p = 1; p <= Math.min(maxPeriod, generation); p++) {
+			long repeated = ~ChangedWorlds[p];
+			while (repeated != 0) {
+				int k = Long.numberOfTrailingZeros(repeated);
+				repeated &= repeated - 1;
+				if (SettledGeneration[k] < 0) {
+					SettledGeneration[k] = generation - p;
+					SettledPeriod[k] = p;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Fills the halo of a generation with the neighbours of the outermost
+	 * cells, see GameOfLife.
+	 *
+	 * @param inCells padded generation
+	 */
+	private void fillHalo(long[] inCells) {
+		int width = getCellWidth();
+		int height = getCellHeight();
+		GlobalSettings.BoundaryMode mode = getBoundaryMode();
+		if (mode == GlobalSettings.BoundaryMode.DEAD) {
+			return;
+		}
+
+		boolean isWrap = mode != GlobalSettings.BoundaryMode.REFLECT;
+		for (int y = 1; y <= height; y++) {
+			int row = y * paddedWidth;
+			inCells[row] = inCells[row + (isWrap ? width : 1)];
+			inCells[row + width + 1] = inCells[row + (isWrap ? 1 : width)];
+		}
+		switch (mode) {
+		case TORUS:
+			System.arraycopy(inCells, height * paddedWidth, inCells, 0, paddedWidth);
+			System.arraycopy(inCells, paddedWidth, inCells, (height + 1) * paddedWidth, paddedWidth);
+			break;
+		case REFLECT:
+			System.arraycopy(inCells, paddedWidth, inCells, 0, paddedWidth);
+			System.arraycopy(inCells, height * paddedWidth, inCells, (height + 1) * paddedWidth, paddedWidth);
+			break;
+		default:
+			for (int p = 0; p < paddedWidth; p++) {
+				inCells[p] = inCells[height * paddedWidth + width + 1 - p];
+				inCells[(height + 1) * paddedWidth + p] = inCells[paddedWidth + width + 1 - p];
+			}
+			break;
+		}
+	}
+
+	/**
+	 * Calculates rows fromY to toY(exclusive) of all worlds and compares the
+	 * new cells with the remembered generations.
+	 */
+	@Override
+	protected void calcRows(int fromY, int toY) {
+		int border = getBoundaryMode() == GlobalSettings.BoundaryMode.DEAD ? 1 : 0;
+		int width = getCellWidth();
+		int up = -paddedWidth;
+		int down = paddedWidth;
+		int history = (int) Math.min(maxPeriod, generation + 1);
+		long[] cells = Generations[current];
+		long[] next = Generations[(current + 1) % Generations.length];
+		// generation p steps before the new one, past[1] is the current one
+		long[][] past = new long[history + 1][];
+		for (int p = 1; p <= history; p++) {
+			past[p] = Generations[(current + 1 - p + Generations.length) % Generations.length];
+		}
+		long[] planes = new long[COUNTERPLANES];
+		long[] changed = new long[maxPeriod + 1];
+		boolean hashing = isHashing();
+		long hashDelta = 0;
+		long births = 0;
+		long deaths = 0;
+
+		for (int y = fromY; y < toY; y++) {
+			int rowStart = index(0, y);
+			// the outermost ring of a dead cells edge stays 0 in all generations
+			for (int i = rowStart + border; i < rowStart + width - border; i++) {
+				long word = GameOfLifeBitPacked.nextWord(getRule(), cells[i + up - 1], cells[i + up],
+						cells[i + up + 1], cells[i - 1], cells[i], cells[i + 1], cells[i + down - 1], cells[i + down],
+						cells[i + down + 1]);
+				next[i] = word;
+				long flipped = word ^ cells[i];
+				if (flipped != 0) {
+					if (hashing) {
+						hashDelta ^= mixHash(i, cells[i]) ^ mixHash(i, word);
+					}
+					int born = Long.bitCount(flipped & word);
+					births += born;
+					deaths += Long.bitCount(flipped) - born;
+				}
+				addToCounters(planes, word);
+				for (int p = 1; p <= history; p++) {
+					changed[p] |= word ^ past[p][i];
+				}
+			}
+		}
+		xorFieldHash(hashDelta);
+		addCellChanges(births, deaths);
+		addCounters(planes);
+		addChangedWorlds(changed);
+	}
+
+	/**
+	 * Adds the changed worlds of a band.
+	 *
+	 * @param inChanged changed worlds per period
+	 */
+	private synchronized void addChangedWorlds(long[] inChanged) {
+		for (int p = 1; p < ChangedWorlds.length; p++) {
+			ChangedWorlds[p] |= inChanged[p];
+		}
+	}
+
+	/**
+	 * True if the cell is alive in world 0.
+	 */
+	@Override
+	public boolean isAlive(int x, int y) {
+		return x >= 0 && y >= 0 && x < getCellWidth() && y < getCellHeight()
+				&& (Generations[current][index(x, y)] & 1L) != 0;
+	}
+
+	/**
+	 * Sets the cell in all worlds.
+	 */
+	@Override
+	public void setCell(int x, int y, boolean inIsAlive) {
+		if (isEditable(x, y)) {
+			Generations[current][index(x, y)] = inIsAlive ? -1L : 0;
+			isViewDirty = true;
+		}
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(Generations[current], 0);
+		isViewDirty = true;
+	}
+
+	/**
+	 * Get population of one world.
+	 *
+	 * @param inWorld world 0 to 63
+	 * @return long living cells
+	 */
+	public long getWorldPopulation(int inWorld) {
+		return WorldPopulation[inWorld];
+	}
+
+	/**
+	 * Get generation in which a world died out.
+	 *
+	 * @param inWorld world 0 to 63
+	 * @return long generation, -1 while it lives
+	 */
+	public long getExtinctGeneration(int inWorld) {
+		return ExtinctGeneration[inWorld];
+	}
+
+	/**
+	 * Get first generation of the still life or oscillator a world settled
+	 * into.
+	 *
+	 * @param inWorld world 0 to 63
+	 * @return long generation, -1 while it has not settled
+	 */
+	public long getSettledGeneration(int inWorld) {
+		return SettledGeneration[inWorld];
+	}
+
+	/**
+	 * Get period of a settled world.
+	 *
+	 * @param inWorld world 0 to 63
+	 * @return int period, 1 for a still life, 0 while it has not settled
+	 */
+	public int getSettledPeriod(int inWorld) {
+		return SettledPeriod[inWorld];
+	}
+
+	@Override
+	public String getEngineInfo() {
+		int extinct = 0;
+		int settled = 0;
+		for (int k = 0; k < WORLDS; k++) {
+			extinct += ExtinctGeneration[k] >= 0 ? 1 : 0;
+			settled += SettledGeneration[k] >= 0 ? 1 : 0;
+		}
+		return WORLDS + " worlds, " + settled + " settled, " + extinct + " extinct";
+	}
+
+	/**
+	 * Table of population, extinction and settling of every world.
+	 */
+	@Override
+	public String getEngineDetails() {
+		StringBuilder table = new StringBuilder("<html><table><tr><th>World</th><th>Population</th>"
+				+ "<th>Extinct</th><th>Settled</th><th>Period</th></tr>");
+		for (int k = 0; k < WORLDS; k++) {
+			table.append("<tr><td>").append(k).append("</td><td>").append(WorldPopulation[k]).append("</td><td>")
+					.append(ExtinctGeneration[k] >= 0 ? String.valueOf(ExtinctGeneration[k]) : "-")
+					.append("</td><td>")
+					.append(SettledGeneration[k] >= 0 ? String.valueOf(SettledGeneration[k]) : "-")
+					.append("</td><td>").append(SettledPeriod[k] > 0 ? String.valueOf(SettledPeriod[k]) : "-")
+					.append("</td></tr>");
+		}
+		return table.append("</table></html>").toString();
+	}
+
+	/**
+	 * Return all worlds side by side, world k is in row k / 8 and column
+	 * k % 8.
+	 *
+	 * @return boolean[][] of GridWorld
+	 */
+	@Override
+	public boolean[][] getGridWorld() {
+		if (isViewDirty) {
+			long[] cells = Generations[current];
+			for (int k = 0; k < WORLDS; k++) {
+				int left = (k % TILES) * (getCellWidth() + 1);
+				int top = (k / TILES) * (getCellHeight() + 1);
+				for (int y = 0; y < getCellHeight(); y++) {
+					for (int x = 0; x < getCellWidth(); x++) {
+						GridWorld[left + x][top + y] = ((cells[index(x, y)] >>> k) & 1L) != 0;
+					}
+				}
+			}
+			isViewDirty = false;
+		}
+		return GridWorld;
+	}
+
+}
@@ -0,0 +1,293 @@
+package data;
+
+import java.util.Arrays;
+
+/**
+ * Multi-state engine for rules of the Generations family like Brian's Brain
+ * or Star Wars. Every cell is one byte holding its state, 0 is dead, 1 alive
+ * and 2 to C - 1 are dying. Transitions are read from a table indexed by
+ * state and number of living neighbours.
+ *
+ * <p>
+ * Cells are stored row by row, the cell at x, y has the index y * width + x.
+ *
+ * @author BenGe47
+ *
+ */
+public class GameOfLifeGenerations extends ABandedGameOfLife {
+
+	private byte[] Cells;
+	private byte[] CalcCells;
+	// next state at index (state << 4) + living neighbours
+	private final byte[] Transitions;
+	private boolean[][] GridView;
+	private boolean isViewDirty = true;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param inWidth cell width
+	 * @param inHeight cell height
+	 * @param inRandomness spawn randomness
+	 * @param inIsWrap is wrap-around edge
+	 * @param inRule birth/survival rule with any number of states
+	 */
+	public GameOfLifeGenerations(int inWidth, int inHeight, Double inRandomness, Boolean inIsWrap,
+			LifeRule inRule) {
+		super(inWidth, inHeight, inRandomness, inIsWrap, inRule);
+
+		Cells = new byte[inWidth * inHeight];
+		CalcCells = new byte[inWidth * inHeight];
+		GridView = new boolean[inWidth][inHeight];
+		Transitions = createTransitions(inRule);
+
+		init2DField();
+
+		countField();
+	}
+
+	@Override
+	protected void countField() {
+		long hash = 0;
+		for (int i = 0; i < Cells.length; i++) {
+			hash ^= mixHash(i, Cells[i]);
+		}
+		xorFieldHash(hash);
+		long population = 0;
+		for (byte cell : Cells) {
+			population += cell == 1 ? 1 : 0;
+		}
+		setPopulation(population);
+	}
+
+	@Override
+	public boolean isAlive(int x, int y) {
+		if (x < 0 || y < 0 || x >= getCellWidth() || y >= getCellHeight()) {
+			return false;
+		}
+		return Cells[y * getCellWidth() + x] == 1;
+	}
+
+	/**
+	 * Sets a cell to state 1 or 0, dying states are not set.
+	 *
+	 * @param x column
+	 * @param y row
+	 * @param inIsAlive new state of the cell
+	 */
+	@Override
+	public void setCell(int x, int y, boolean inIsAlive) {
+		if (isEditable(x, y)) {
+			Cells[y * getCellWidth() + x] = (byte) (inIsAlive ? 1 : 0);
+			isViewDirty = true;
+		}
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(Cells, (byte) 0);
+		isViewDirty = true;
+	}
+
+	/**
+	 * Init field with living cells.
+	 *
+	 */
+	private void init2DField() {
+		int border = isWrapEdge() ? 0 : 1;
+		double rand = getRandomness();
+		int width = getCellWidth();
+
+		for (int y = border; y < getCellHeight() - border; y++) {
+			for (int x = border; x < width - border; x++) {
+				if (Math.random() <= rand) {
+					Cells[y * width + x] = 1;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Calculates the next state for every state and neighbour count.
+	 *
+	 * @param inRule birth/survival rule
+	 * @return byte[] transition table
+	 */
+	private static byte[] createTransitions(LifeRule inRule) {
+		byte[] table = new byte[inRule.getStates() << 4];
+		for (int state = 0; state < inRule.getStates(); state++) {
+			for (int counter = 0; counter <= 8; counter++) {
+				table[(state << 4) + counter] = (byte) inRule.nextState(state, counter);
+			}
+		}
+		return table;
+	}
+
+	@Override
+	public void calcNextGenField() {
+		resetCellChanges();
+		calcBands(0, getCellHeight());
+
+		// swap buffers, the old generation gets overwritten in the next step
+		byte[] tmp = Cells;
+		Cells = CalcCells;
+		CalcCells = tmp;
+		isViewDirty = true;
+	}
+
+	@Override
+	protected void calcRows(int fromY, int toY) {
+		int width = getCellWidth();
+		int height = getCellHeight();
+		boolean isWrap = isWrapEdge();
+		boolean hashing = isHashing();
+		long hashDelta = 0;
+		long births = 0;
+		long deaths = 0;
+
+		for (int y = fromY; y < toY; y++) {
+			int mid = y * width;
+			if (!isWrap && (y == 0 || y == height - 1)) {
+				// the dead cells edge never changes
+				Arrays.fill(CalcCells, mid, mid + width, (byte) 0);
+				continue;
+			}
+			int up = (y == 0 ? height - 1 : y - 1) * width;
+			int down = (y == height - 1 ? 0 : y + 1) * width;
+
+			if (width < 3) {
+				for (int x = 0; x < width; x++) {
+					CalcCells[mid + x] = calcEdgeCell(x, up, mid, down);
+					int isAlive = alive(mid + x);
+					int isAliveNext = CalcCells[mid + x] == 1 ? 1 : 0;
+					births += isAliveNext & ~isAlive;
+					deaths += isAlive & ~isAliveNext;
+					if (hashing) {
+						hashDelta ^= changeHash(mid + x);
+					}
+				}
+				continue;
+			}
+
+			// living cells of the three columns around x, shifted along the row
+			int columnWest = aliveColumn(0, up, mid, down);
+			int columnMid = aliveColumn(1, up, mid, down);
+			for (int x = 1; x < width - 1; x++) {
+				int columnEast = aliveColumn(x + 1, up, mid, down);
+				int isAlive = alive(mid + x);
+				int counter = columnWest + columnMid + columnEast - isAlive;
+				byte next = Transitions[((Cells[mid + x] & 0xFF) << 4) + counter];
+				CalcCells[mid + x] = next;
+				if (hashing && next != Cells[mid + x]) {
+					hashDelta ^= changeHash(mid + x);
+				}
+				// only state 1 is alive, dying states count as dead
+				int isAliveNext = next == 1 ? 1 : 0;
+				births += isAliveNext & ~isAlive;
+				deaths += isAlive & ~isAliveNext;
+				columnWest = columnMid;
+				columnMid = columnEast;
+			}
+			CalcCells[mid] = calcEdgeCell(0, up, mid, down);
+			CalcCells[mid + width - 1] = calcEdgeCell(width - 1, up, mid, down);
+			for (int x = 0; x < width; x += width - 1) {
+				int isAlive = alive(mid + x);
+				int isAliveNext = CalcCells[mid + x] == 1 ? 1 : 0;
+				births += isAliveNext & ~isAlive;
+				deaths += isAlive & ~isAliveNext;
+				if (hashing) {
+					hashDelta ^= changeHash(mid + x);
+				}
+			}
+		}
+		xorFieldHash(hashDelta);
+		addCellChanges(births, deaths);
+	}
+
+	/**
+	 * Change of the field hash by the new state of a cell, 0 if the state
+	 * stays the same.
+	 *
+	 * @param i cell index
+	 * @return long hash delta
+	 */
+	private long changeHash(int i) {
+		return mixHash(i, Cells[i]) ^ mixHash(i, CalcCells[i]);
+	}
+
+	/**
+	 * Next state of a cell in the first or last column, the neighbours wrap
+	 * around or the cell stays dead.
+	 *
+	 * @param x column
+	 * @param up index of upper row
+	 * @param mid index of the cell's row
+	 * @param down index of lower row
+	 * @return byte next state
+	 */
+	private byte calcEdgeCell(int x, int up, int mid, int down) {
+		int width = getCellWidth();
+		if (!isWrapEdge()) {
+			return 0;
+		}
+		int west = (x + width - 1) % width;
+		int east = (x + 1) % width;
+		int counter = aliveColumn(west, up, mid, down) + aliveColumn(x, up, mid, down)
+				+ aliveColumn(east, up, mid, down) - alive(mid + x);
+		return Transitions[((Cells[mid + x] & 0xFF) << 4) + counter];
+	}
+
+	/**
+	 * Number of living cells of a column in three rows.
+	 *
+	 * @param x column
+	 * @param up index of upper row
+	 * @param mid index of middle row
+	 * @param down index of lower row
+	 * @return int 0 to 3
+	 */
+	private int aliveColumn(int x, int up, int mid, int down) {
+		return alive(up + x) + alive(mid + x) + alive(down + x);
+	}
+
+	/**
+	 * Only state 1 counts as living neighbour, dying cells do not.
+	 *
+	 * @param index cell index
+	 * @return 1 if alive, 0 otherwise
+	 */
+	private int alive(int index) {
+		return Cells[index] == 1 ? 1 : 0;
+	}
+
+	/**
+	 * Get states of the current generation, row by row. The array is replaced
+	 * by every new generation and must not be changed.
+	 *
+	 * @return byte[] cell states
+	 */
+	public byte[] getCells() {
+		return Cells;
+	}
+
+	/**
+	 * Return living cells(state 1) as compatibility view. The view is unpacked
+	 * only when it is requested after a new generation.
+	 *
+	 * @return boolean[][] of GridWorld
+	 */
+	@Override
+	public boolean[][] getGridWorld() {
+		if (isViewDirty) {
+			int width = getCellWidth();
+			for (int y = 0; y < getCellHeight(); y++) {
+				for (int x = 0; x < width; x++) {
+					GridView[x][y] = Cells[y * width + x] == 1;
+				}
+			}
+			isViewDirty = false;
+		}
+		return GridView;
+	}
+
+}
@@ -0,0 +1,819 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Game of Life engine using Gosper's HashLife algorithm. The unbounded world
+ * is a quadtree of canonical nodes, every node remembers its calculated
+ * future, so repeated patterns in space and time are calculated only once and
+ * a generation step can jump 2^k generations at once.
+ *
+ * <p>
+ * Canonical nodes are held in a table with a budget of nodes. When the table
+ * grows over budget, also in the middle of a jump, all remembered futures are
+ * dropped and the table is built again from the nodes of the current world
+ * and the nodes the jump still works on, so every other node can be collected
+ * by the garbage collector.
+ *
+ * @author BenGe47
+ *
+ */
+public class GameOfLifeHashLife extends AGameOfLife {
+
+	// rough heap size of a node with its cache entry
+	private final static int NODEBYTES = 100;
+	private final static int MINLEVEL = 3;
+	// edited cells are collected in tiles of 2^TILELEVEL x 2^TILELEVEL cells
+	private final static int TILELEVEL = 6;
+	// odd bases of the polynomial cell hash, BASEPOWERS[d][l] = base^(2^l)
+	private final static long[] HASHBASES = { 0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL };
+	private final static long[][] BASEPOWERS = createBasePowers();
+	private final static Node DEAD = new Node(0);
+	private final static Node ALIVE = new Node(1);
+
+	private HashMap<Node, Node> NodeCache;
+	private long maxNodes;
+	// node count which starts the next collection, at least maxNodes
+	private long collectNodes;
+	private Node[] EmptyNodes = new Node[64];
+	// nodes the running successor calls still need, kept by a collection
+	private ArrayList<Node> WorkNodes = new ArrayList<>();
+	private Node root;
+	private long rootX;
+	private long rootY;
+	private int stepExponent;
+	private boolean[][] GridView;
+	private boolean isViewDirty = true;
+	// tiles with one long per row while cells are edited, null otherwise
+	private HashMap<Long, long[]> EditTiles;
+	// last edited tile, neighbouring cells mostly lie in the same tile
+	private long lastTileKey;
+	private long[] lastTile;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param inWidth cell width of visible window
+	 * @param inHeight cell height of visible window
+	 * @param inRandomness spawn randomness
+	 * @param inIsWrap is wrap-around edge, not supported by an unbounded world
+	 * @param inRule birth/survival rule, B0 rules are not supported
+	 * @param inStepExponent every step calculates 2^inStepExponent generations
+	 * @param inCacheMegaBytes memory budget of the node cache in MB
+	 * @throws IllegalArgumentException for B0 rules
+	 */
+	public GameOfLifeHashLife(int inWidth, int inHeight, Double inRandomness, Boolean inIsWrap, LifeRule inRule,
+			int inStepExponent, int inCacheMegaBytes) {
+		super(inWidth, inHeight, inRandomness, inIsWrap, inRule);
+		if (inRule.hasBirthOnZero()) {
+			throw new IllegalArgumentException("HashLife does not support B0 rules.");
+		}
+
+		stepExponent = inStepExponent;
+		maxNodes = Math.max(1024L, (long) inCacheMegaBytes * 1024 * 1024 / NODEBYTES);
+		collectNodes = maxNodes;
+		NodeCache = new HashMap<>(1 << 16);
+		GridView = new boolean[inWidth][inHeight];
+
+		init2DField();
+	}
+
+	/**
+	 * Init field with starting values inside the visible window.
+	 *
+	 */
+	private void init2DField() {
+		boolean[][] start = new boolean[getCellWidth()][getCellHeight()];
+		double rand = getRandomness();
+
+		for (int y = 0; y < getCellHeight(); y++) {
+			for (int x = 0; x < getCellWidth(); x++) {
+				start[x][y] = Math.random() <= rand;
+			}
+		}
+
+		int level = MINLEVEL;
+		while ((1L << level) < Math.max(getCellWidth(), getCellHeight())) {
+			level++;
+		}
+		rootX = 0;
+		rootY = 0;
+		root = buildNode(start, 0, 0, level);
+	}
+
+	/**
+	 * Builds the node of size 2^level with top left corner x0, y0 from a field.
+	 *
+	 * @param inField field indexed [x][y]
+	 * @param x0 left cell
+	 * @param y0 top cell
+	 * @param level level of node
+	 * @return canonical node
+	 */
+	private Node buildNode(boolean[][] inField, int x0, int y0, int level) {
+		if (x0 >= inField.length || y0 >= inField[0].length) {
+			return getEmptyNode(level);
+		}
+		if (level == 0) {
+			return inField[x0][y0] ? ALIVE : DEAD;
+		}
+		int half = 1 << (level - 1);
+		return join(buildNode(inField, x0, y0, level - 1), buildNode(inField, x0 + half, y0, level - 1),
+				buildNode(inField, x0, y0 + half, level - 1), buildNode(inField, x0 + half, y0 + half, level - 1));
+	}
+
+	@Override
+	public boolean isUnbounded() {
+		return true;
+	}
+
+	@Override
+	public boolean isAlive(int x, int y) {
+		if (EditTiles != null) {
+			long[] tile = EditTiles.get(toKey(x >> TILELEVEL, y >> TILELEVEL));
+			return tile != null && ((tile[y & ((1 << TILELEVEL) - 1)] >>> x) & 1L) != 0;
+		}
+		long cx = x - rootX;
+		long cy = y - rootY;
+		Node m = root;
+		if (cx < 0 || cy < 0 || cx >= (1L << m.level) || cy >= (1L << m.level)) {
+			return false;
+		}
+		while (m.level > 0 && m.population > 0) {
+			long half = 1L << (m.level - 1);
+			boolean isEast = cx >= half;
+			boolean isSouth = cy >= half;
+			m = isSouth ? (isEast ? m.se : m.sw) : (isEast ? m.ne : m.nw);
+			cx -= isEast ? half : 0;
+			cy -= isSouth ? half : 0;
+		}
+		return m.population > 0;
+	}
+
+	/**
+	 * Sets a cell anywhere in the unbounded world. Changing single nodes of
+	 * the quadtree costs a node per level, so cells are collected in tiles
+	 * and the tree is built again by finishCells.
+	 *
+	 * @param x column
+	 * @param y row
+	 * @param inIsAlive new state of the cell
+	 */
+	@Override
+	public void setCell(int x, int y, boolean inIsAlive) {
+		if (EditTiles == null) {
+			EditTiles = new HashMap<>();
+			lastTile = null;
+			paintTiles(root, rootX, rootY);
+		}
+		setTileCell(x, y, inIsAlive);
+	}
+
+	@Override
+	public void clear() {
+		EditTiles = new HashMap<>();
+		lastTile = null;
+	}
+
+	/**
+	 * Builds the quadtree from the edited tiles, the hash and population of
+	 * this engine are read from the root node.
+	 */
+	@Override
+	protected void countField() {
+		if (EditTiles == null) {
+			return;
+		}
+		List<Long> keys = new ArrayList<>(EditTiles.keySet());
+		if (keys.isEmpty()) {
+			rootX = 0;
+			rootY = 0;
+			root = getEmptyNode(MINLEVEL);
+		} else {
+			long minX = Long.MAX_VALUE;
+			long minY = Long.MAX_VALUE;
+			long maxX = Long.MIN_VALUE;
+			long maxY = Long.MIN_VALUE;
+			for (long key : keys) {
+				minX = Math.min(minX, key >> 32);
+				minY = Math.min(minY, (int) key);
+				maxX = Math.max(maxX, key >> 32);
+				maxY = Math.max(maxY, (int) key);
+			}
+			int tileLevels = 0;
+			while ((1L << tileLevels) <= Math.max(maxX - minX, maxY - minY)) {
+				tileLevels++;
+			}
+			rootX = minX << TILELEVEL;
+			rootY = minY << TILELEVEL;
+			root = buildTiles(keys, minX, minY, tileLevels);
+		}
+		EditTiles = null;
+		lastTile = null;
+		isViewDirty = true;
+	}
+
+	/**
+	 * Copies the living cells of a node into the edited tiles.
+	 *
+	 * @param m node
+	 * @param x0 left cell of node
+	 * @param y0 top cell of node
+	 */
+	private void paintTiles(Node m, long x0, long y0) {
+		if (m.population == 0) {
+			return;
+		}
+		if (m.level == 0) {
+			setTileCell(x0, y0, true);
+			return;
+		}
+		long half = 1L << (m.level - 1);
+		paintTiles(m.nw, x0, y0);
+		paintTiles(m.ne, x0 + half, y0);
+		paintTiles(m.sw, x0, y0 + half);
+		paintTiles(m.se, x0 + half, y0 + half);
+	}
+
+	/**
+	 * Sets a cell in the edited tiles.
+	 *
+	 * @param x column
+	 * @param y row
+	 * @param inIsAlive new state of the cell
+	 */
+	private void setTileCell(long x, long y, boolean inIsAlive) {
+		long key = toKey(x >> TILELEVEL, y >> TILELEVEL);
+		long[] tile = lastTile;
+		if (tile == null || key != lastTileKey) {
+			tile = EditTiles.get(key);
+			if (tile == null) {
+				if (!inIsAlive) {
+					return;
+				}
+				tile = new long[1 << TILELEVEL];
+				EditTiles.put(key, tile);
+			}
+			lastTileKey = key;
+			lastTile = tile;
+		}
+		int row = (int) (y & ((1 << TILELEVEL) - 1));
+		if (inIsAlive) {
+			tile[row] |= 1L << x;
+		} else {
+			tile[row] &= ~(1L << x);
+		}
+	}
+
+	/**
+	 * Builds the node of 2^tileLevels x 2^tileLevels tiles with top left tile
+	 * tileX, tileY. Only the given tiles lie inside of the node, so empty
+	 * quadrants are found without searching.
+	 *
+	 * @param inKeys keys of the tiles inside of the node
+	 * @param tileX left tile column
+	 * @param tileY top tile row
+	 * @param tileLevels level of the node above the tile level
+	 * @return canonical node
+	 */
+	private Node buildTiles(List<Long> inKeys, long tileX, long tileY, int tileLevels) {
+		if (inKeys.isEmpty()) {
+			return getEmptyNode(tileLevels + TILELEVEL);
+		}
+		if (tileLevels == 0) {
+			return buildTileNode(EditTiles.get(inKeys.get(0)), 0, 0, TILELEVEL);
+		}
+		long half = 1L << (tileLevels - 1);
+		List<List<Long>> quadrants = new ArrayList<>();
+		for (int q = 0; q < 4; q++) {
+			quadrants.add(new ArrayList<>());
+		}
+		for (long key : inKeys) {
+			int q = ((key >> 32) >= tileX + half ? 1 : 0) + ((int) key >= tileY + half ? 2 : 0);
+			quadrants.get(q).add(key);
+		}
+		return join(buildTiles(quadrants.get(0), tileX, tileY, tileLevels - 1),
+				buildTiles(quadrants.get(1), tileX + half, tileY, tileLevels - 1),
+				buildTiles(quadrants.get(2), tileX, tileY + half, tileLevels - 1),
+				buildTiles(quadrants.get(3), tileX + half, tileY + half, tileLevels - 1));
+	}
+
+	/**
+	 * Builds the node of size 2^level with top left corner x0, y0 inside of a
+	 * tile.
+	 *
+	 * @param inRows rows of the tile
+	 * @param x0 left cell
+	 * @param y0 top cell
+	 * @param level level of node
+	 * @return canonical node
+	 */
+	private Node buildTileNode(long[] inRows, int x0, int y0, int level) {
+		int size = 1 << level;
+		long mask = size == 64 ? -1L : ((1L << size) - 1) << x0;
+		boolean isEmpty = true;
+		for (int y = y0; y < y0 + size && isEmpty; y++) {
+			isEmpty = (inRows[y] & mask) == 0;
+		}
+		if (isEmpty) {
+			return getEmptyNode(level);
+		}
+		if (level == 0) {
+			return ALIVE;
+		}
+		int half = size >> 1;
+		return join(buildTileNode(inRows, x0, y0, level - 1), buildTileNode(inRows, x0 + half, y0, level - 1),
+				buildTileNode(inRows, x0, y0 + half, level - 1),
+				buildTileNode(inRows, x0 + half, y0 + half, level - 1));
+	}
+
+	/**
+	 * Combine tile coordinates into a map key.
+	 *
+	 * @param tileX tile column
+	 * @param tileY tile row
+	 * @return long key
+	 */
+	private static long toKey(long tileX, long tileY) {
+		return (tileX << 32) | (tileY & 0xFFFFFFFFL);
+	}
+
+	@Override
+	public void calcNextGenField() {
+		jump(stepExponent);
+	}
+
+	/**
+	 * Calculates any number of generations with one jump of 2^j generations
+	 * per set bit j of inGenerations, so no generation is calculated twice.
+	 *
+	 * @param inGenerations number of generations, at least 1
+	 * @return long inGenerations
+	 */
+	@Override
+	public long advanceGenerations(long inGenerations) {
+		for (int j = 62; j >= 0; j--) {
+			if (((inGenerations >>> j) & 1) != 0) {
+				jump(j);
+			}
+		}
+		return inGenerations;
+	}
+
+	/**
+	 * Calculates 2^inExponent generations.
+	 *
+	 * @param inExponent exponent of generations
+	 */
+	private void jump(int inExponent) {
+		// the world has to be big enough and the pattern has to stay inside the
+		// centre that is returned by the successor
+		while (root.level < inExponent + 2 || !isCentred(root)) {
+			expandRoot();
+		}
+		expandRoot();
+
+		long offset = 1L << (root.level - 2);
+		root = successor(root, inExponent);
+		rootX += offset;
+		rootY += offset;
+		isViewDirty = true;
+
+		if (NodeCache.size() > collectNodes) {
+			collectNodes();
+		}
+	}
+
+	/**
+	 * Drops the remembered futures and builds the node table again from the
+	 * nodes of the current world, the work nodes and the empty nodes. Evicting single nodes
+	 * would not free memory, because nodes stay reachable through the
+	 * children and results of other nodes. If the world itself needs more
+	 * than half of the budget, the next collection waits until the table has
+	 * doubled, so it does not run after every step.
+	 */
+	private void collectNodes() {
+		NodeCache = new HashMap<>(Math.max(1 << 16, NodeCache.size() / 2));
+		for (Node empty : EmptyNodes) {
+			keepNode(empty);
+		}
+		keepNode(root);
+		for (Node work : WorkNodes) {
+			keepNode(work);
+		}
+		collectNodes = Math.max(maxNodes, 2L * NodeCache.size());
+	}
+
+	/**
+	 * Puts a node and its descendants back into the node table and forgets
+	 * their futures.
+	 *
+	 * @param m node or null
+	 */
+	private void keepNode(Node m) {
+		if (m == null || m.level == 0 || NodeCache.containsKey(m)) {
+			return;
+		}
+		m.result = null;
+		m.resultStep = -1;
+		NodeCache.put(m, m);
+		keepNode(m.nw);
+		keepNode(m.ne);
+		keepNode(m.sw);
+		keepNode(m.se);
+	}
+
+	/**
+	 * Surrounds the root node with empty space, the centre stays in place.
+	 *
+	 */
+	private void expandRoot() {
+		Node empty = getEmptyNode(root.level - 1);
+		long half = 1L << (root.level - 1);
+		root = join(join(empty, empty, empty, root.nw), join(empty, empty, root.ne, empty),
+				join(empty, root.sw, empty, empty), join(root.se, empty, empty, empty));
+		rootX -= half;
+		rootY -= half;
+	}
+
+	/**
+	 * True if all living cells are inside the central quarter of the node.
+	 *
+	 * @param m node of level 2 or more
+	 * @return true if outer ring is empty
+	 */
+	private boolean isCentred(Node m) {
+		if (m.level < 2) {
+			return false;
+		}
+		long inner = m.nw.se.population + m.ne.sw.population + m.sw.ne.population + m.se.nw.population;
+		return inner == m.population;
+	}
+
+	/**
+	 * Calculates the central node of half size, 2^j generations later. Results
+	 * are remembered in the node. A big jump creates many nodes, so the node
+	 * table is checked before every inner calculation and the node with its
+	 * partial results is kept as work node until it is done.
+	 *
+	 * @param m node of level 2 or more
+	 * @param j exponent of generations, at most level - 2
+	 * @return node of level m.level - 1
+	 */
+	private Node successor(Node m, int j) {
+		j = Math.min(j, m.level - 2);
+		if (m.resultStep == j && m.result != null) {
+			return m.result;
+		}
+
+		Node s;
+		if (m.population == 0) {
+			s = m.nw;
+		} else if (m.level == 2) {
+			s = life4x4(m);
+		} else {
+			int work = WorkNodes.size();
+			WorkNodes.add(m);
+			if (NodeCache.size() > collectNodes) {
+				collectNodes();
+			}
+			Node c1 = keepWork(successor(m.nw, j));
+			Node c2 = keepWork(successor(join(m.nw.ne, m.ne.nw, m.nw.se, m.ne.sw), j));
+			Node c3 = keepWork(successor(m.ne, j));
+			Node c4 = keepWork(successor(join(m.nw.sw, m.nw.se, m.sw.nw, m.sw.ne), j));
+			Node c5 = keepWork(successor(join(m.nw.se, m.ne.sw, m.sw.ne, m.se.nw), j));
+			Node c6 = keepWork(successor(join(m.ne.sw, m.ne.se, m.se.nw, m.se.ne), j));
+			Node c7 = keepWork(successor(m.sw, j));
+			Node c8 = keepWork(successor(join(m.sw.ne, m.se.nw, m.sw.se, m.se.sw), j));
+			Node c9 = keepWork(successor(m.se, j));
+
+			if (j < m.level - 2) {
+				// step is smaller than the node allows, only combine the centres
+				s = join(join(c1.se, c2.sw, c4.ne, c5.nw), join(c2.se, c3.sw, c5.ne, c6.nw),
+						join(c4.se, c5.sw, c7.ne, c8.nw), join(c5.se, c6.sw, c8.ne, c9.nw));
+			} else {
+				Node s1 = keepWork(successor(join(c1, c2, c4, c5), j));
+				Node s2 = keepWork(successor(join(c2, c3, c5, c6), j));
+				Node s3 = keepWork(successor(join(c4, c5, c7, c8), j));
+				Node s4 = successor(join(c5, c6, c8, c9), j);
+				s = join(s1, s2, s3, s4);
+			}
+			while (WorkNodes.size() > work) {
+				WorkNodes.remove(WorkNodes.size() - 1);
+			}
+		}
+
+		m.result = s;
+		m.resultStep = j;
+		return s;
+	}
+
+	/**
+	 * Keeps a partial result of a successor call until the call is done.
+	 *
+	 * @param m partial result
+	 * @return m
+	 */
+	private Node keepWork(Node m) {
+		WorkNodes.add(m);
+		return m;
+	}
+
+	/**
+	 * Calculates the central 2x2 cells of a 4x4 node one generation later.
+	 *
+	 * @param m node of level 2
+	 * @return node of level 1
+	 */
+	private Node life4x4(Node m) {
+		// bit y * 4 + x is the cell at x, y
+		int cells = 0;
+		Node[] quads = { m.nw, m.ne, m.sw, m.se };
+		for (int q = 0; q < 4; q++) {
+			int qx = (q & 1) * 2;
+			int qy = (q >> 1) * 2;
+			Node quad = quads[q];
+			cells |= (int) quad.nw.population << (qy * 4 + qx);
+			cells |= (int) quad.ne.population << (qy * 4 + qx + 1);
+			cells |= (int) quad.sw.population << ((qy + 1) * 4 + qx);
+			cells |= (int) quad.se.population << ((qy + 1) * 4 + qx + 1);
+		}
+		return join(lifeCell(cells, 1, 1), lifeCell(cells, 2, 1), lifeCell(cells, 1, 2), lifeCell(cells, 2, 2));
+	}
+
+	/**
+	 * Birth/survival rule for one cell of a 4x4 block.
+	 *
+	 * @param cells 16 bit block, bit y * 4 + x is the cell at x, y
+	 * @param x inner x coordinate
+	 * @param y inner y coordinate
+	 * @return leaf node for the next generation
+	 */
+	private Node lifeCell(int cells, int x, int y) {
+		int counter = 0;
+		for (int dy = -1; dy <= 1; dy++) {
+			for (int dx = -1; dx <= 1; dx++) {
+				if (dx != 0 || dy != 0) {
+					counter += (cells >>> ((y + dy) * 4 + x + dx)) & 1;
+				}
+			}
+		}
+		boolean isAlive = ((cells >>> (y * 4 + x)) & 1) != 0;
+		return getRule().isAliveNext(isAlive, counter) ? ALIVE : DEAD;
+	}
+
+	/**
+	 * Returns the canonical node with the four children.
+	 *
+	 * @param nw north west child
+	 * @param ne north east child
+	 * @param sw south west child
+	 * @param se south east child
+	 * @return canonical node one level above the children
+	 */
+	private Node join(Node nw, Node ne, Node sw, Node se) {
+		Node probe = new Node(nw, ne, sw, se);
+		Node canonical = NodeCache.get(probe);
+		if (canonical == null) {
+			NodeCache.put(probe, probe);
+			canonical = probe;
+		}
+		return canonical;
+	}
+
+	/**
+	 * Returns an empty node.
+	 *
+	 * @param level level of node
+	 * @return empty node of size 2^level
+	 */
+	private Node getEmptyNode(int level) {
+		if (EmptyNodes[level] == null) {
+			if (level == 0) {
+				EmptyNodes[level] = DEAD;
+			} else {
+				Node child = getEmptyNode(level - 1);
+				EmptyNodes[level] = join(child, child, child, child);
+			}
+		}
+		return EmptyNodes[level];
+	}
+
+	/**
+	 * Powers base^(2^l) of both hash bases for all levels.
+	 *
+	 * @return long[][] powers by direction and level
+	 */
+	private static long[][] createBasePowers() {
+		long[][] powers = new long[2][64];
+		for (int d = 0; d < 2; d++) {
+			powers[d][0] = HASHBASES[d];
+			for (int l = 1; l < 64; l++) {
+				powers[d][l] = powers[d][l - 1] * powers[d][l - 1];
+			}
+		}
+		return powers;
+	}
+
+	/**
+	 * base^exponent modulo 2^64, negative exponents use the inverse of the odd
+	 * base.
+	 *
+	 * @param base odd base
+	 * @param exponent any exponent
+	 * @return long power
+	 */
+	private static long power(long base, long exponent) {
+		if (exponent < 0) {
+			// Newton iteration doubles the correct low bits of the inverse
+			long inverse = base;
+			for (int i = 0; i < 5; i++) {
+				inverse *= 2 - base * inverse;
+			}
+			base = inverse;
+			exponent = -exponent;
+		}
+		long result = 1;
+		while (exponent != 0) {
+			if ((exponent & 1) != 0) {
+				result *= base;
+			}
+			base *= base;
+			exponent >>>= 1;
+		}
+		return result;
+	}
+
+	/**
+	 * Canonical hash of the world. Every living cell at x, y adds
+	 * HASHBASES[0]^x * HASHBASES[1]^y, so the hash only depends on the
+	 * pattern and its position and not on the size and position of the root
+	 * node. Nodes combine the hashes of their quadrants when they are built.
+	 *
+	 * @return long field hash
+	 */
+	@Override
+	public long getFieldHash() {
+		return mixHash(0, power(HASHBASES[0], rootX) * power(HASHBASES[1], rootY) * root.cellHash);
+	}
+
+	@Override
+	public long getPopulation() {
+		return root.population;
+	}
+
+	/**
+	 * Births are not counted, one step may span many generations.
+	 *
+	 * @return -1
+	 */
+	@Override
+	public long getBirths() {
+		return -1;
+	}
+
+	/**
+	 * Deaths are not counted, one step may span many generations.
+	 *
+	 * @return -1
+	 */
+	@Override
+	public long getDeaths() {
+		return -1;
+	}
+
+	@Override
+	public String getEngineInfo() {
+		return "Cached nodes: " + NodeCache.size();
+	}
+
+	/**
+	 * Every step calculates this many generations.
+	 *
+	 * @return 2^stepExponent
+	 */
+	@Override
+	public long getGenerationsPerStep() {
+		return 1L << stepExponent;
+	}
+
+	/**
+	 * Return the visible window of the unbounded world.
+	 *
+	 * @return boolean[][] of GridWorld
+	 */
+	@Override
+	public boolean[][] getGridWorld() {
+		if (isViewDirty) {
+			for (boolean[] column : GridView) {
+				Arrays.fill(column, false);
+			}
+			paintNode(root, rootX, rootY);
+			isViewDirty = false;
+		}
+		return GridView;
+	}
+
+	/**
+	 * Copies the living cells of a node inside the visible window into the view.
+	 *
+	 * @param m node
+	 * @param x0 left cell of node
+	 * @param y0 top cell of node
+	 */
+	private void paintNode(Node m, long x0, long y0) {
+		long size = 1L << m.level;
+		if (m.population == 0 || x0 >= getCellWidth() || y0 >= getCellHeight() || x0 + size <= 0
+				|| y0 + size <= 0) {
+			return;
+		}
+		if (m.level == 0) {
+			GridView[(int) x0][(int) y0] = true;
+			return;
+		}
+		long half = size >> 1;
+		paintNode(m.nw, x0, y0);
+		paintNode(m.ne, x0 + half, y0);
+		paintNode(m.sw, x0, y0 + half);
+		paintNode(m.se, x0 + half, y0 + half);
+	}
+
+	/**
+	 * Quadtree node, a square of 2^level cells. Level 0 nodes are single cells.
+	 * Equality compares the identity of the children, which are canonical.
+	 */
+	private static final class Node {
+
+		private final Node nw;
+		private final Node ne;
+		private final Node sw;
+		private final Node se;
+		private final int level;
+		private final long population;
+		private final int hash;
+		private final long cellHash;
+		private Node result;
+		private int resultStep = -1;
+
+		/**
+		 * Constructor of a single cell.
+		 *
+		 * @param inPopulation 1 for alive, 0 for dead
+		 */
+		Node(long inPopulation) {
+			nw = null;
+			ne = null;
+			sw = null;
+			se = null;
+			level = 0;
+			population = inPopulation;
+			hash = (int) inPopulation;
+			cellHash = inPopulation;
+		}
+
+		/**
+		 * Constructor of an inner node.
+		 *
+		 * @param inNw north west child
+		 * @param inNe north east child
+		 * @param inSw south west child
+		 * @param inSe south east child
+		 */
+		Node(Node inNw, Node inNe, Node inSw, Node inSe) {
+			nw = inNw;
+			ne = inNe;
+			sw = inSw;
+			se = inSe;
+			level = inNw.level + 1;
+			population = inNw.population + inNe.population + inSw.population + inSe.population;
+			int h = System.identityHashCode(inNw);
+			h = h * 31 + System.identityHashCode(inNe);
+			h = h * 31 + System.identityHashCode(inSw);
+			h = h * 31 + System.identityHashCode(inSe);
+			hash = h;
+			long[] powX = BASEPOWERS[0];
+			long[] powY = BASEPOWERS[1];
+			int l = inNw.level;
+			cellHash = inNw.cellHash + powX[l] * inNe.cellHash + powY[l] * inSw.cellHash
+					+ powX[l] * powY[l] * inSe.cellHash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Node)) {
+				return false;
+			}
+			Node other = (Node) o;
+			return level > 0 && nw == other.nw && ne == other.ne && sw == other.sw && se == other.se;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+}
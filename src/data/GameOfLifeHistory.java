@@ -0,0 +1,353 @@
+package data;
+
+import java.util.Arrays;
+
+/**
+ * Remembers the visible field of the last steps so a run can be scrubbed
+ * backwards without calculating it again. Fields are packed into bits and
+ * stored in a ring of frames: a keyframe holds a whole field, the frames after
+ * it only the words that changed since the step before(XOR delta). Only the
+ * non-zero words of a frame are stored with their index.
+ *
+ * <p>
+ * A new keyframe starts after KEYFRAMEINTERVAL deltas or when the deltas since
+ * the last keyframe became larger than it, so seeking never replays more than
+ * that. When the memory limit is reached the oldest keyframe and its deltas
+ * are dropped.
+ *
+ * @author BenGe47
+ *
+ */
+public class GameOfLifeHistory {
+
+	private final static int KEYFRAMEINTERVAL = 32;
+	// array and object headers of a frame
+	private final static int FRAMEBYTES = 64;
+	private final long maxBytes;
+	private Frame[] Ring = new Frame[64];
+	private int head;
+	private int frameCount;
+	// step number of the frame at head
+	private int firstStep;
+	private long memoryBytes;
+	private long keyframeBytes;
+	private long deltaBytes;
+	private int deltaCount;
+	private int width;
+	private int height;
+	private long[] Previous;
+	private long[] Current;
+	private long[] SeekWords;
+	private boolean[][] SeekGrid;
+	private long seekNanos;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param inMaxBytes memory limit of the stored frames, 0 records nothing
+	 */
+	public GameOfLifeHistory(long inMaxBytes) {
+		maxBytes = inMaxBytes;
+	}
+
+	/**
+	 * Stores the field of the next step. All fields of one history have the
+	 * same size.
+	 *
+	 * @param inGeneration generation number of the field
+	 * @param inGrid field indexed [x][y]
+	 */
+	public void record(long inGeneration, boolean[][] inGrid) {
+		if (maxBytes <= 0) {
+			return;
+		}
+		if (Current == null) {
+			width = inGrid.length;
+			height = inGrid[0].length;
+			int words = (int) (((long) width * height + 63) >>> 6);
+			Previous = new long[words];
+			Current = new long[words];
+			SeekWords = new long[words];
+			SeekGrid = new boolean[width][height];
+		}
+		pack(inGrid, Current);
+
+		Frame frame = encode(frameCount == 0 ? null : Previous, Current);
+		if (frameCount == 0 || deltaCount >= KEYFRAMEINTERVAL || deltaBytes + frame.getBytes() > keyframeBytes) {
+			frame = encode(null, Current);
+			keyframeBytes = frame.getBytes();
+			deltaBytes = 0;
+			deltaCount = 0;
+		} else {
+			deltaBytes += frame.getBytes();
+			deltaCount++;
+		}
+		frame.generation = inGeneration;
+		add(frame);
+
+		long[] tmp = Previous;
+		Previous = Current;
+		Current = tmp;
+
+		while (memoryBytes > maxBytes && dropOldestSegment()) {
+			// drops until the frames fit or only the newest keyframe is left
+		}
+	}
+
+	/**
+	 * Packs a field column by column into bits, bit x * height + y is the
+	 * cell x, y.
+	 *
+	 * @param inGrid field indexed [x][y]
+	 * @param inWords packed field, overwritten
+	 */
+	private void pack(boolean[][] inGrid, long[] inWords) {
+		Arrays.fill(inWords, 0);
+		long bit = 0;
+		for (boolean[] column : inGrid) {
+			for (boolean isAlive : column) {
+				if (isAlive) {
+					inWords[(int) (bit >>> 6)] |= 1L << bit;
+				}
+				bit++;
+			}
+		}
+	}
+
+	/**
+	 * Stores the non-zero words of inWords XOR inBase.
+	 *
+	 * @param inBase packed field before, null for a keyframe
+	 * @param inWords packed field
+	 * @return new frame
+	 */
+	private static Frame encode(long[] inBase, long[] inWords) {
+		int count = 0;
+		for (int i = 0; i < inWords.length; i++) {
+			if ((inBase == null ? inWords[i] : inWords[i] ^ inBase[i]) != 0) {
+				count++;
+			}
+		}
+		int[] indices = new int[count];
+		long[] words = new long[count];
+		int n = 0;
+		for (int i = 0; i < inWords.length && n < count; i++) {
+			long word = inBase == null ? inWords[i] : inWords[i] ^ inBase[i];
+			if (word != 0) {
+				indices[n] = i;
+				words[n] = word;
+				n++;
+			}
+		}
+		return new Frame(inBase == null, indices, words);
+	}
+
+	/**
+	 * Appends a frame to the ring, the ring grows when it is full.
+	 *
+	 * @param inFrame new frame
+	 */
+	private void add(Frame inFrame) {
+		if (frameCount == Ring.length) {
+			Frame[] ring = new Frame[2 * Ring.length];
+			for (int i = 0; i < frameCount; i++) {
+				ring[i] = Ring[(head + i) % Ring.length];
+			}
+			Ring = ring;
+			head = 0;
+		}
+		Ring[(head + frameCount) % Ring.length] = inFrame;
+		frameCount++;
+		memoryBytes += inFrame.getBytes();
+	}
+
+	/**
+	 * Drops the oldest keyframe and the deltas after it, the newest keyframe
+	 * with its deltas always stays.
+	 *
+	 * @return true if frames were dropped
+	 */
+	private boolean dropOldestSegment() {
+		int count = 1;
+		while (count < frameCount && !frame(count).isKeyframe()) {
+			count++;
+		}
+		if (count == frameCount) {
+			return false;
+		}
+		for (int i = 0; i < count; i++) {
+			memoryBytes -= Ring[head].getBytes();
+			Ring[head] = null;
+			head = (head + 1) % Ring.length;
+		}
+		frameCount -= count;
+		firstStep += count;
+		return true;
+	}
+
+	/**
+	 * Restores the field of a step from its keyframe and the deltas after it.
+	 * The returned array is reused by the next seek.
+	 *
+	 * @param inStep step number, getFirstStep to getLastStep
+	 * @return boolean[][] field indexed [x][y]
+	 * @throws IllegalArgumentException if the step is not stored
+	 */
+	public boolean[][] seek(int inStep) {
+		if (inStep < firstStep || inStep > getLastStep()) {
+			throw new IllegalArgumentException("Step " + inStep + " is not in the history.");
+		}
+		long start = System.nanoTime();
+		int index = inStep - firstStep;
+		int key = index;
+		while (!frame(key).isKeyframe()) {
+			key--;
+		}
+		Arrays.fill(SeekWords, 0);
+		for (int i = key; i <= index; i++) {
+			frame(i).applyTo(SeekWords);
+		}
+
+		long bit = 0;
+		for (boolean[] column : SeekGrid) {
+			for (int y = 0; y < height; y++) {
+				column[y] = ((SeekWords[(int) (bit >>> 6)] >>> bit) & 1L) != 0;
+				bit++;
+			}
+		}
+		seekNanos = System.nanoTime() - start;
+		return SeekGrid;
+	}
+
+	/**
+	 * Frame at a position after the oldest frame.
+	 *
+	 * @param index position in ring
+	 * @return Frame at position
+	 */
+	private Frame frame(int index) {
+		return Ring[(head + index) % Ring.length];
+	}
+
+	/**
+	 * True if no step is stored.
+	 *
+	 * @return boolean true if empty
+	 */
+	public boolean isEmpty() {
+		return frameCount == 0;
+	}
+
+	/**
+	 * Get number of the oldest stored step.
+	 *
+	 * @return int step number
+	 */
+	public int getFirstStep() {
+		return firstStep;
+	}
+
+	/**
+	 * Get number of the newest stored step.
+	 *
+	 * @return int step number, getFirstStep - 1 if empty
+	 */
+	public int getLastStep() {
+		return firstStep + frameCount - 1;
+	}
+
+	/**
+	 * Get generation of a stored step.
+	 *
+	 * @param inStep step number
+	 * @return long generation number
+	 */
+	public long getGeneration(int inStep) {
+		return frame(inStep - firstStep).generation;
+	}
+
+	/**
+	 * Get memory of the stored frames.
+	 *
+	 * @return long bytes
+	 */
+	public long getMemoryBytes() {
+		return memoryBytes;
+	}
+
+	/**
+	 * Get duration of the last seek.
+	 *
+	 * @return long nanoseconds
+	 */
+	public long getSeekNanos() {
+		return seekNanos;
+	}
+
+	/**
+	 * Short status text with stored steps, memory and seek time.
+	 *
+	 * @return String status text
+	 */
+	public String getInfo() {
+		if (isEmpty()) {
+			return "";
+		}
+		return String.format("History: %d steps, %.1f MB, seek %.2f ms", frameCount, memoryBytes / 1048576.0,
+				seekNanos / 1e6);
+	}
+
+	/**
+	 * Stored non-zero words of a keyframe or delta.
+	 */
+	private static final class Frame {
+
+		private final boolean isKeyframe;
+		private final int[] Indices;
+		private final long[] Words;
+		private long generation;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param inIsKeyframe true if the words are a whole field
+		 * @param inIndices word indices
+		 * @param inWords words at the indices
+		 */
+		Frame(boolean inIsKeyframe, int[] inIndices, long[] inWords) {
+			isKeyframe = inIsKeyframe;
+			Indices = inIndices;
+			Words = inWords;
+		}
+
+		/**
+		 * XORs the stored words into a packed field.
+		 *
+		 * @param inWords packed field
+		 */
+		void applyTo(long[] inWords) {
+			for (int n = 0; n < Indices.length; n++) {
+				inWords[Indices[n]] ^= Words[n];
+			}
+		}
+
+		/**
+		 * Memory of the frame.
+		 *
+		 * @return long bytes
+		 */
+		long getBytes() {
+			return FRAMEBYTES + 12L * Indices.length;
+		}
+
+		/**
+		 * True if the frame holds a whole field.
+		 *
+		 * @return boolean true for keyframes
+		 */
+		boolean isKeyframe() {
+			return isKeyframe;
+		}
+	}
+
+}
@@ -0,0 +1,234 @@
+package data;
+
+/**
+ * Bit-packed Game of Life engine driven by a lookup table. The table maps
+ * every 4x4 block of cells to the next generation of its central 2x2 cells,
+ * so four cells advance with one lookup and without any branches.
+ *
+ * @author BenGe47
+ *
+ */
+public class GameOfLifeLookup extends GameOfLifeBitPacked {
+
+	// bit 4 * row + column of the index is a cell of the 4x4 block, bits 0, 1
+	// of the entry are the upper and bits 2, 3 the lower central cells
+	private final byte[] BlockTable;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param inWidth cell width
+	 * @param inHeight cell height
+	 * @param inRandomness spawn randomness
+	 * @param inIsWrap is wrap-around edge
+	 * @param inRule birth/survival rule
+	 */
+	public GameOfLifeLookup(int inWidth, int inHeight, Double inRandomness, Boolean inIsWrap, LifeRule inRule) {
+		super(inWidth, inHeight, inRandomness, inIsWrap, inRule);
+
+		BlockTable = createBlockTable(inRule);
+	}
+
+	/**
+	 * Calculates the next generation of all 65536 4x4 blocks.
+	 *
+	 * @param inRule birth/survival rule
+	 * @return byte[] table of central 2x2 cells
+	 */
+	private static byte[] createBlockTable(LifeRule inRule) {
+		byte[] table = new byte[1 << 16];
+		for (int block = 0; block < table.length; block++) {
+			int entry = 0;
+			for (int cy = 1; cy <= 2; cy++) {
+				for (int cx = 1; cx <= 2; cx++) {
+					int counter = 0;
+					for (int dy = -1; dy <= 1; dy++) {
+						for (int dx = -1; dx <= 1; dx++) {
+							if (dx != 0 || dy != 0) {
+								counter += (block >>> (4 * (cy + dy) + cx + dx)) & 1;
+							}
+						}
+					}
+					boolean isAlive = ((block >>> (4 * cy + cx)) & 1) != 0;
+					if (inRule.isAliveNext(isAlive, counter)) {
+						entry |= 1 << (2 * (cy - 1) + cx - 1);
+					}
+				}
+			}
+			table[block] = (byte) entry;
+		}
+		return table;
+	}
+
+	/**
+	 * Calculates pairs of rows, the last pair of an odd height has one row.
+	 */
+	@Override
+	protected void calcRows(int fromY, int toY) {
+		long[] words = getWords();
+		long[] calcWords = getCalcWords();
+		int columns = getWordsPerRow();
+		int height = getCellHeight();
+		boolean hashing = isHashing();
+		long hashDelta = 0;
+		long births = 0;
+		long deaths = 0;
+
+		for (int y = fromY; y < toY; y += 2) {
+			int up = rowStart(y - 1);
+			int top = rowStart(y);
+			int bottom = rowStart(y + 1);
+			int down = rowStart(y + 2);
+			boolean hasBottom = y + 1 < height;
+
+			for (int i = 0; i < columns; i++) {
+				// cells x - 1 to x + 62 of the four rows, x is the first cell of word i
+				long row0 = extendWest(words, up, i);
+				long row1 = extendWest(words, top, i);
+				long row2 = extendWest(words, bottom, i);
+				long row3 = extendWest(words, down, i);
+				long nextTop = 0;
+				long nextBottom = 0;
+
+				for (int b = 0; b < 31; b++) {
+					int shift = 2 * b;
+					int block = (int) ((row0 >>> shift) & 0xF) | (int) ((row1 >>> shift) & 0xF) << 4
+							| (int) ((row2 >>> shift) & 0xF) << 8 | (int) ((row3 >>> shift) & 0xF) << 12;
+					long cells = BlockTable[block];
+					nextTop |= (cells & 3L) << shift;
+					nextBottom |= ((cells >>> 2) & 3L) << shift;
+				}
+
+				// last block needs cells x + 61 to x + 64
+				int block = lastBlockBits(words, up, i) | lastBlockBits(words, top, i) << 4
+						| lastBlockBits(words, bottom, i) << 8 | lastBlockBits(words, down, i) << 12;
+				long cells = BlockTable[block];
+				nextTop |= (cells & 3L) << 62;
+				nextBottom |= ((cells >>> 2) & 3L) << 62;
+
+				nextTop = maskWord(y, i, nextTop);
+				long word = words[y * columns + i];
+				calcWords[y * columns + i] = nextTop;
+				long changed = nextTop ^ word;
+				if (changed != 0) {
+					if (hashing) {
+						hashDelta ^= mixHash(y * columns + i, word) ^ mixHash(y * columns + i, nextTop);
+					}
+					int born = Long.bitCount(changed & nextTop);
+					births += born;
+					deaths += Long.bitCount(changed) - born;
+				}
+				if (hasBottom) {
+					nextBottom = maskWord(y + 1, i, nextBottom);
+					word = words[(y + 1) * columns + i];
+					calcWords[(y + 1) * columns + i] = nextBottom;
+					changed = nextBottom ^ word;
+					if (changed != 0) {
+						if (hashing) {
+							hashDelta ^= mixHash((y + 1) * columns + i, word)
+									^ mixHash((y + 1) * columns + i, nextBottom);
+						}
+						int born = Long.bitCount(changed & nextBottom);
+						births += born;
+						deaths += Long.bitCount(changed) - born;
+					}
+				}
+			}
+		}
+		xorFieldHash(hashDelta);
+		addCellChanges(births, deaths);
+	}
+
+	@Override
+	protected int getBandAlignment() {
+		return 2;
+	}
+
+	/**
+	 * Index of the first word of a row, rows outside of the field wrap around or
+	 * are marked with -1 for dead cells.
+	 *
+	 * @param y row, may be outside of the field
+	 * @return index of first word or -1
+	 */
+	private int rowStart(int y) {
+		int height = getCellHeight();
+		if (y < 0 || y >= height) {
+			if (!isWrapEdge()) {
+				return -1;
+			}
+			y = (y + height) % height;
+		}
+		return y * getWordsPerRow();
+	}
+
+	/**
+	 * Word i of a row shifted by one cell, bit 0 is the left neighbour of the
+	 * first cell.
+	 *
+	 * @param inWords packed field
+	 * @param rowStart index of first word or -1 for a dead row
+	 * @param i word index in row
+	 * @return shifted word
+	 */
+	private long extendWest(long[] inWords, int rowStart, int i) {
+		if (rowStart < 0) {
+			return 0;
+		}
+		return (wordAt(inWords, rowStart, i) << 1) | cellAt(inWords, rowStart, 64 * i - 1);
+	}
+
+	/**
+	 * Cells x + 61 to x + 64 of word i in a row as 4 bits.
+	 *
+	 * @param inWords packed field
+	 * @param rowStart index of first word or -1 for a dead row
+	 * @param i word index in row
+	 * @return int with 4 cells
+	 */
+	private int lastBlockBits(long[] inWords, int rowStart, int i) {
+		if (rowStart < 0) {
+			return 0;
+		}
+		return (int) (wordAt(inWords, rowStart, i) >>> 61) | (int) cellAt(inWords, rowStart, 64 * i + 64) << 3;
+	}
+
+	/**
+	 * Word i of a row. With a wrap-around edge the first cell of the row is
+	 * copied behind the last cell if the last word has unused bits.
+	 *
+	 * @param inWords packed field
+	 * @param rowStart index of first word
+	 * @param i word index in row
+	 * @return word
+	 */
+	private long wordAt(long[] inWords, int rowStart, int i) {
+		long word = inWords[rowStart + i];
+		int width = getCellWidth();
+		if (isWrapEdge() && i == getWordsPerRow() - 1 && (width & 63) != 0) {
+			word |= (inWords[rowStart] & 1L) << width;
+		}
+		return word;
+	}
+
+	/**
+	 * Cell of a row, x outside of the field wraps around or is dead. Cells
+	 * between the field width and the end of the last word are dead.
+	 *
+	 * @param inWords packed field
+	 * @param rowStart index of first word
+	 * @param x column
+	 * @return 1 if alive, 0 if dead
+	 */
+	private long cellAt(long[] inWords, int rowStart, int x) {
+		int width = getCellWidth();
+		if (x < 0 || x >= width) {
+			if (!isWrapEdge() || (x > width && x >= 0)) {
+				return 0;
+			}
+			x = x < 0 ? width - 1 : 0;
+		}
+		return (inWords[rowStart + (x >>> 6)] >>> x) & 1L;
+	}
+
+}
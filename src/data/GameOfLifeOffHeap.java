@@ -0,0 +1,439 @@
+package data;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Bit-packed Game of Life engine for worlds larger than the heap. Both
+ * generations are stored outside of the heap in direct buffers or, with a
+ * world file, in memory-mapped buffers, so the world survives a restart. A
+ * buffer is split into chunks of whole rows, because one buffer holds at most
+ * 2^31 bytes.
+ *
+ * <p>
+ * The packing is the one of GameOfLifeBitPacked, bit b of word i in a row is
+ * the cell at x = 64 * i + b. Only a window of the world is shown.
+ *
+ * <p>
+ * A world file starts with a header of HEADERBYTES bytes, followed by both
+ * generation buffers. The header holds the world size and which buffer is the
+ * current generation, it is updated after every step.
+ *
+ * @author BenGe47
+ *
+ */
+public class GameOfLifeOffHeap extends ABandedGameOfLife implements Closeable {
+
+	private final static int HEADERBYTES = 4096;
+	// "GOLWORLD" in ASCII
+	private final static long MAGIC = 0x474F4C574F524C44L;
+	private final static int VERSION = 1;
+	// long slots of the header
+	private final static int HEADERMAGIC = 0;
+	private final static int HEADERVERSION = 1;
+	private final static int HEADERWIDTH = 2;
+	private final static int HEADERHEIGHT = 3;
+	private final static int HEADERCURRENT = 4;
+	private final static int HEADERGENERATION = 5;
+	private final static int MAXCHUNKBYTES = 1 << 30;
+
+	private final int wordsPerRow;
+	private final int rowsPerChunk;
+	// generation buffers [buffer][chunk]
+	private final LongBuffer[][] Buffers;
+	private final ArrayList<MappedByteBuffer> MappedBuffers = new ArrayList<>();
+	private FileChannel channel;
+	private LongBuffer header;
+	private int current;
+	private long generation;
+	private final int viewX;
+	private final int viewY;
+	private boolean[][] GridView;
+	private boolean isViewDirty = true;
+
+	/**
+	 * Constructor. An existing world file of the same size is continued, its
+	 * randomness is ignored.
+	 *
+	 * @param inWidth cell width of the world
+	 * @param inHeight cell height of the world
+	 * @param inViewWidth cell width of the visible window
+	 * @param inViewHeight cell height of the visible window
+	 * @param inRandomness spawn randomness
+	 * @param inIsWrap is wrap-around edge
+	 * @param inRule birth/survival rule
+	 * @param inFilePath world file, empty for direct buffers without file
+	 * @throws IOException if the world file can not be used
+	 */
+	public GameOfLifeOffHeap(int inWidth, int inHeight, int inViewWidth, int inViewHeight, Double inRandomness,
+			Boolean inIsWrap, LifeRule inRule, String inFilePath) throws IOException {
+		super(inWidth, inHeight, inRandomness, inIsWrap, inRule);
+
+		wordsPerRow = (inWidth + 63) >>> 6;
+		rowsPerChunk = Math.max(1, MAXCHUNKBYTES / (wordsPerRow * 8));
+		int chunks = (inHeight + rowsPerChunk - 1) / rowsPerChunk;
+		Buffers = new LongBuffer[2][chunks];
+
+		int viewWidth = Math.min(inViewWidth, inWidth);
+		int viewHeight = Math.min(inViewHeight, inHeight);
+		viewX = (inWidth - viewWidth) / 2;
+		viewY = (inHeight - viewHeight) / 2;
+		GridView = new boolean[viewWidth][viewHeight];
+
+		boolean isContinued = false;
+		if (inFilePath.isEmpty()) {
+			allocateBuffers();
+		} else {
+			isContinued = mapFile(inFilePath);
+		}
+
+		if (isContinued) {
+			countField();
+		} else {
+			init2DField();
+		}
+	}
+
+	/**
+	 * Allocates both generations in direct buffers.
+	 *
+	 * @throws IOException if the direct memory limit is too small
+	 */
+	private void allocateBuffers() throws IOException {
+		try {
+			for (int b = 0; b < 2; b++) {
+				for (int c = 0; c < Buffers[b].length; c++) {
+					Buffers[b][c] = ByteBuffer.allocateDirect(chunkBytes(c)).order(ByteOrder.LITTLE_ENDIAN)
+							.asLongBuffer();
+				}
+			}
+		} catch (OutOfMemoryError e) {
+			throw new IOException("Not enough direct memory, raise -XX:MaxDirectMemorySize or use a world file.");
+		}
+	}
+
+	/**
+	 * Maps header and both generations of a world file into memory.
+	 *
+	 * @param inFilePath world file, created if missing
+	 * @return true if the file already held this world
+	 * @throws IOException if the file belongs to another world or can not be
+	 *         mapped
+	 */
+	private boolean mapFile(String inFilePath) throws IOException {
+		channel = FileChannel.open(Paths.get(inFilePath), StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		boolean isContinued = channel.size() > 0;
+		header = map(0, HEADERBYTES).asLongBuffer();
+
+		if (isContinued) {
+			if (header.get(HEADERMAGIC) != MAGIC || header.get(HEADERVERSION) != VERSION) {
+				channel.close();
+				throw new IOException(inFilePath + " is not a Game of Life world file.");
+			}
+			if (header.get(HEADERWIDTH) != getCellWidth() || header.get(HEADERHEIGHT) != getCellHeight()) {
+				channel.close();
+				throw new IOException(inFilePath + " holds a world of " + header.get(HEADERWIDTH) + " x "
+						+ header.get(HEADERHEIGHT) + " cells.");
+			}
+			current = (int) header.get(HEADERCURRENT);
+			generation = header.get(HEADERGENERATION);
+		} else {
+			header.put(HEADERMAGIC, MAGIC);
+			header.put(HEADERVERSION, VERSION);
+			header.put(HEADERWIDTH, getCellWidth());
+			header.put(HEADERHEIGHT, getCellHeight());
+		}
+
+		long bufferBytes = (long) getCellHeight() * wordsPerRow * 8;
+		for (int b = 0; b < 2; b++) {
+			long offset = HEADERBYTES + b * bufferBytes;
+			for (int c = 0; c < Buffers[b].length; c++) {
+				Buffers[b][c] = map(offset, chunkBytes(c)).asLongBuffer();
+				offset += chunkBytes(c);
+			}
+		}
+		return isContinued;
+	}
+
+	/**
+	 * Maps a region of the world file.
+	 *
+	 * @param offset first byte
+	 * @param bytes number of bytes
+	 * @return ByteBuffer of the region
+	 * @throws IOException if mapping fails
+	 */
+	private ByteBuffer map(long offset, int bytes) throws IOException {
+		MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, offset, bytes);
+		MappedBuffers.add(buffer);
+		return buffer.order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Number of bytes of a chunk, the last chunk may have fewer rows.
+	 *
+	 * @param c chunk
+	 * @return int bytes
+	 */
+	private int chunkBytes(int c) {
+		int rows = Math.min(rowsPerChunk, getCellHeight() - c * rowsPerChunk);
+		return rows * wordsPerRow * 8;
+	}
+
+	/**
+	 * Init field with random words, so a giant world does not need a random
+	 * number per cell.
+	 *
+	 */
+	private void init2DField() {
+		SplittableRandom random = new SplittableRandom();
+		int level = randomLevel();
+		int height = getCellHeight();
+		long[] row = new long[wordsPerRow];
+		long hash = 0;
+		long population = 0;
+
+		for (int y = 0; y < height; y++) {
+			for (int i = 0; i < wordsPerRow; i++) {
+				row[i] = GameOfLifeBitPacked.maskWord(y, i, randomWord(random, level), getCellWidth(),
+						getCellHeight(), isWrapEdge());
+				hash ^= mixHash((long) y * wordsPerRow + i, row[i]);
+				population += Long.bitCount(row[i]);
+			}
+			writeRow(current, y, row);
+		}
+		xorFieldHash(hash);
+		setPopulation(population);
+	}
+
+	@Override
+	protected void countField() {
+		int height = getCellHeight();
+		long[] row = new long[wordsPerRow];
+		long hash = 0;
+		long population = 0;
+
+		for (int y = 0; y < height; y++) {
+			readRow(current, y, row);
+			for (int i = 0; i < wordsPerRow; i++) {
+				hash ^= mixHash((long) y * wordsPerRow + i, row[i]);
+				population += Long.bitCount(row[i]);
+			}
+		}
+		xorFieldHash(hash);
+		setPopulation(population);
+		isViewDirty = true;
+	}
+
+	@Override
+	public void calcNextGenField() {
+		resetCellChanges();
+		calcBands(0, getCellHeight());
+
+		// the old generation gets overwritten in the next step
+		current ^= 1;
+		generation++;
+		if (header != null) {
+			header.put(HEADERCURRENT, current);
+			header.put(HEADERGENERATION, generation);
+		}
+		isViewDirty = true;
+	}
+
+	/**
+	 * Calculates rows fromY to toY(exclusive). Three rows of the current
+	 * generation are copied to the heap and moved on row by row, so every row
+	 * is read once per band.
+	 */
+	@Override
+	protected void calcRows(int fromY, int toY) {
+		int width = getCellWidth();
+		int height = getCellHeight();
+		boolean isWrap = isWrapEdge();
+		long[] up = new long[wordsPerRow];
+		long[] mid = new long[wordsPerRow];
+		long[] down = new long[wordsPerRow];
+		long[] next = new long[wordsPerRow];
+		boolean hashing = isHashing();
+		long hashDelta = 0;
+		long births = 0;
+		long deaths = 0;
+
+		readNeighbourRow(fromY - 1, up);
+		readRow(current, fromY, mid);
+		for (int y = fromY; y < toY; y++) {
+			readNeighbourRow(y + 1, down);
+			for (int i = 0; i < wordsPerRow; i++) {
+				long word = 0;
+				if (isWrap || (y > 0 && y < height - 1)) {
+					word = GameOfLifeBitPacked.nextWord(getRule(), GameOfLifeBitPacked.westWord(up, 0, i, width,
+							isWrap), up[i], GameOfLifeBitPacked.eastWord(up, 0, i, width, isWrap),
+							GameOfLifeBitPacked.westWord(mid, 0, i, width, isWrap), mid[i],
+							GameOfLifeBitPacked.eastWord(mid, 0, i, width, isWrap),
+							GameOfLifeBitPacked.westWord(down, 0, i, width, isWrap), down[i],
+							GameOfLifeBitPacked.eastWord(down, 0, i, width, isWrap));
+					word = GameOfLifeBitPacked.maskWord(y, i, word, width, height, isWrap);
+				}
+				next[i] = word;
+				long changed = word ^ mid[i];
+				if (changed != 0) {
+					if (hashing) {
+						long index = (long) y * wordsPerRow + i;
+						hashDelta ^= mixHash(index, mid[i]) ^ mixHash(index, word);
+					}
+					int born = Long.bitCount(changed & word);
+					births += born;
+					deaths += Long.bitCount(changed) - born;
+				}
+			}
+			writeRow(current ^ 1, y, next);
+
+			long[] tmp = up;
+			up = mid;
+			mid = down;
+			down = tmp;
+		}
+		xorFieldHash(hashDelta);
+		addCellChanges(births, deaths);
+	}
+
+	/**
+	 * Reads a neighbour row of the current generation, rows outside of the
+	 * world wrap around or are dead.
+	 *
+	 * @param y row, may be outside of the world
+	 * @param inRow words of the row, overwritten
+	 */
+	private void readNeighbourRow(int y, long[] inRow) {
+		int height = getCellHeight();
+		if (y < 0 || y >= height) {
+			if (!isWrapEdge()) {
+				Arrays.fill(inRow, 0);
+				return;
+			}
+			y = (y + height) % height;
+		}
+		readRow(current, y, inRow);
+	}
+
+	/**
+	 * Copies a row of a generation buffer into an array.
+	 *
+	 * @param b buffer
+	 * @param y row
+	 * @param inRow words of the row, overwritten
+	 */
+	private void readRow(int b, int y, long[] inRow) {
+		LongBuffer chunk = Buffers[b][y / rowsPerChunk].duplicate();
+		chunk.position((y % rowsPerChunk) * wordsPerRow);
+		chunk.get(inRow);
+	}
+
+	/**
+	 * Copies an array into a row of a generation buffer.
+	 *
+	 * @param b buffer
+	 * @param y row
+	 * @param inRow words of the row
+	 */
+	private void writeRow(int b, int y, long[] inRow) {
+		LongBuffer chunk = Buffers[b][y / rowsPerChunk].duplicate();
+		chunk.position((y % rowsPerChunk) * wordsPerRow);
+		chunk.put(inRow);
+	}
+
+	@Override
+	public boolean isAlive(int x, int y) {
+		if (x < 0 || y < 0 || x >= getCellWidth() || y >= getCellHeight()) {
+			return false;
+		}
+		long word = Buffers[current][y / rowsPerChunk].get((y % rowsPerChunk) * wordsPerRow + (x >>> 6));
+		return ((word >>> x) & 1L) != 0;
+	}
+
+	@Override
+	public void setCell(int x, int y, boolean inIsAlive) {
+		if (isEditable(x, y)) {
+			LongBuffer chunk = Buffers[current][y / rowsPerChunk];
+			int index = (y % rowsPerChunk) * wordsPerRow + (x >>> 6);
+			long word = chunk.get(index);
+			chunk.put(index, inIsAlive ? word | (1L << x) : word & ~(1L << x));
+			isViewDirty = true;
+		}
+	}
+
+	@Override
+	public void clear() {
+		long[] row = new long[wordsPerRow];
+		for (int y = 0; y < getCellHeight(); y++) {
+			writeRow(current, y, row);
+		}
+		isViewDirty = true;
+	}
+
+	/**
+	 * Writes all changes of a world file to the disk and closes it. The
+	 * buffers stay readable until they are garbage collected.
+	 *
+	 * @throws IOException if closing fails
+	 */
+	@Override
+	public void close() throws IOException {
+		if (channel != null) {
+			for (MappedByteBuffer buffer : MappedBuffers) {
+				buffer.force();
+			}
+			channel.close();
+			channel = null;
+		}
+	}
+
+	/**
+	 * Get number of generations of the world, including those calculated
+	 * before a world file was continued.
+	 *
+	 * @return long generation
+	 */
+	public long getGeneration() {
+		return generation;
+	}
+
+	@Override
+	public String getEngineInfo() {
+		long megaBytes = 2L * getCellHeight() * wordsPerRow * 8 / (1024 * 1024);
+		return (header != null ? "World file " : "Off-heap ") + megaBytes + " MB, gen " + generation;
+	}
+
+	/**
+	 * Return the visible window in the centre of the world.
+	 *
+	 * @return boolean[][] of GridWorld
+	 */
+	@Override
+	public boolean[][] getGridWorld() {
+		if (isViewDirty) {
+			long[] row = new long[wordsPerRow];
+			for (int y = 0; y < GridView[0].length; y++) {
+				readRow(current, viewY + y, row);
+				for (int x = 0; x < GridView.length; x++) {
+					int cx = viewX + x;
+					GridView[x][y] = ((row[cx >>> 6] >>> cx) & 1L) != 0;
+				}
+			}
+			isViewDirty = false;
+		}
+		return GridView;
+	}
+
+}
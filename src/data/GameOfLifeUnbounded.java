@@ -0,0 +1,372 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+
+/**
+ * Game of Life engine with an unbounded world, stored as a hash map of
+ * bit-packed tiles with TILESIZE x TILESIZE cells. Tiles are allocated when
+ * living cells reach their border and freed when they are empty, so memory
+ * grows with the living population instead of the world size.
+ *
+ * @author BenGe47
+ *
+ */
+public class GameOfLifeUnbounded extends AGameOfLife {
+
+	// one long per tile row
+	private final static int TILESIZE = 64;
+	private HashMap<Long, Tile> Tiles = new HashMap<>();
+	private boolean[][] GridView;
+	private boolean isViewDirty = true;
+	// rows -1 to TILESIZE of a tile column and the neighbour bits left and right
+	private long[] ColumnWords = new long[TILESIZE + 2];
+	private long[] WestBits = new long[TILESIZE + 2];
+	private long[] EastBits = new long[TILESIZE + 2];
+	private long hashDelta;
+	private long births;
+	private long deaths;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param inWidth cell width of visible window
+	 * @param inHeight cell height of visible window
+	 * @param inRandomness spawn randomness
+	 * @param inIsWrap is wrap-around edge, not supported by an unbounded world
+	 * @param inRule birth/survival rule, B0 rules are not supported
+	 * @throws IllegalArgumentException for B0 rules
+	 */
+	public GameOfLifeUnbounded(int inWidth, int inHeight, Double inRandomness, Boolean inIsWrap, LifeRule inRule) {
+		super(inWidth, inHeight, inRandomness, inIsWrap, inRule);
+		if (inRule.hasBirthOnZero()) {
+			throw new IllegalArgumentException("The unbounded world does not support B0 rules.");
+		}
+
+		GridView = new boolean[inWidth][inHeight];
+
+		init2DField();
+
+		countField();
+	}
+
+	@Override
+	protected void countField() {
+		long hash = 0;
+		for (Tile tile : Tiles.values()) {
+			for (int r = 0; r < TILESIZE; r++) {
+				hash ^= mixHash(rowIndex(tile, r), tile.Rows[r]);
+			}
+		}
+		xorFieldHash(hash);
+		long population = 0;
+		for (Tile tile : Tiles.values()) {
+			for (long row : tile.Rows) {
+				population += Long.bitCount(row);
+			}
+		}
+		setPopulation(population);
+	}
+
+	@Override
+	public boolean isUnbounded() {
+		return true;
+	}
+
+	@Override
+	public boolean isAlive(int x, int y) {
+		Tile tile = Tiles.get(toKey(Math.floorDiv(x, TILESIZE), Math.floorDiv(y, TILESIZE)));
+		return tile != null && ((tile.Rows[Math.floorMod(y, TILESIZE)] >>> Math.floorMod(x, TILESIZE)) & 1L) != 0;
+	}
+
+	/**
+	 * Sets a cell anywhere in the unbounded world.
+	 *
+	 * @param x column
+	 * @param y row
+	 * @param inIsAlive new state of the cell
+	 */
+	@Override
+	public void setCell(int x, int y, boolean inIsAlive) {
+		int tileX = Math.floorDiv(x, TILESIZE);
+		int tileY = Math.floorDiv(y, TILESIZE);
+		long bit = 1L << Math.floorMod(x, TILESIZE);
+		if (inIsAlive) {
+			getOrCreateTile(tileX, tileY).Rows[Math.floorMod(y, TILESIZE)] |= bit;
+		} else {
+			Tile tile = Tiles.get(toKey(tileX, tileY));
+			if (tile != null) {
+				tile.Rows[Math.floorMod(y, TILESIZE)] &= ~bit;
+			}
+		}
+		isViewDirty = true;
+	}
+
+	@Override
+	public void clear() {
+		Tiles.clear();
+		isViewDirty = true;
+	}
+
+	/**
+	 * Init field with starting values inside the visible window.
+	 *
+	 */
+	private void init2DField() {
+		double rand = getRandomness();
+
+		for (int y = 0; y < getCellHeight(); y++) {
+			for (int x = 0; x < getCellWidth(); x++) {
+				if (Math.random() <= rand) {
+					Tile tile = getOrCreateTile(Math.floorDiv(x, TILESIZE), Math.floorDiv(y, TILESIZE));
+					tile.Rows[Math.floorMod(y, TILESIZE)] |= 1L << Math.floorMod(x, TILESIZE);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void calcNextGenField() {
+		allocateBorderTiles();
+
+		hashDelta = 0;
+		births = 0;
+		deaths = 0;
+		for (Tile tile : Tiles.values()) {
+			calcTile(tile);
+		}
+		xorFieldHash(hashDelta);
+		resetCellChanges();
+		addCellChanges(births, deaths);
+
+		// swap tile buffers and free empty tiles
+		Iterator<Tile> it = Tiles.values().iterator();
+		while (it.hasNext()) {
+			Tile tile = it.next();
+			long[] tmp = tile.Rows;
+			tile.Rows = tile.CalcRows;
+			tile.CalcRows = tmp;
+			if (tile.isEmpty()) {
+				it.remove();
+			}
+		}
+		isViewDirty = true;
+	}
+
+	/**
+	 * Creates empty neighbour tiles next to living cells at a tile border, so
+	 * births outside of the existing tiles are calculated.
+	 *
+	 */
+	private void allocateBorderTiles() {
+		ArrayList<long[]> missing = new ArrayList<>();
+
+		for (Tile tile : Tiles.values()) {
+			long top = tile.Rows[0];
+			long bottom = tile.Rows[TILESIZE - 1];
+			long left = 0;
+			long right = 0;
+			for (long row : tile.Rows) {
+				left |= row & 1L;
+				right |= row >>> (TILESIZE - 1);
+			}
+
+			for (int dy = -1; dy <= 1; dy++) {
+				for (int dx = -1; dx <= 1; dx++) {
+					boolean isNeeded = (dy != -1 || top != 0) && (dy != 1 || bottom != 0)
+							&& (dx != -1 || left != 0) && (dx != 1 || right != 0) && (dx != 0 || dy != 0);
+					// corner tiles only need the corner cell
+					if (isNeeded && dx != 0 && dy != 0) {
+						long row = dy < 0 ? top : bottom;
+						isNeeded = ((dx < 0 ? row & 1L : row >>> (TILESIZE - 1))) != 0;
+					}
+					if (isNeeded && !Tiles.containsKey(toKey(tile.tileX + dx, tile.tileY + dy))) {
+						missing.add(new long[] { tile.tileX + dx, tile.tileY + dy });
+					}
+				}
+			}
+		}
+
+		for (long[] coords : missing) {
+			getOrCreateTile((int) coords[0], (int) coords[1]);
+		}
+	}
+
+	/**
+	 * Calculates the next generation of a tile into its CalcRows.
+	 *
+	 * @param tile tile to calculate
+	 */
+	private void calcTile(Tile tile) {
+		Tile north = Tiles.get(toKey(tile.tileX, tile.tileY - 1));
+		Tile south = Tiles.get(toKey(tile.tileX, tile.tileY + 1));
+		Tile west = Tiles.get(toKey(tile.tileX - 1, tile.tileY));
+		Tile east = Tiles.get(toKey(tile.tileX + 1, tile.tileY));
+		Tile northWest = Tiles.get(toKey(tile.tileX - 1, tile.tileY - 1));
+		Tile northEast = Tiles.get(toKey(tile.tileX + 1, tile.tileY - 1));
+		Tile southWest = Tiles.get(toKey(tile.tileX - 1, tile.tileY + 1));
+		Tile southEast = Tiles.get(toKey(tile.tileX + 1, tile.tileY + 1));
+
+		ColumnWords[0] = north == null ? 0 : north.Rows[TILESIZE - 1];
+		WestBits[0] = northWest == null ? 0 : northWest.Rows[TILESIZE - 1] >>> (TILESIZE - 1);
+		EastBits[0] = northEast == null ? 0 : northEast.Rows[TILESIZE - 1] & 1L;
+		for (int r = 0; r < TILESIZE; r++) {
+			ColumnWords[r + 1] = tile.Rows[r];
+			WestBits[r + 1] = west == null ? 0 : west.Rows[r] >>> (TILESIZE - 1);
+			EastBits[r + 1] = east == null ? 0 : east.Rows[r] & 1L;
+		}
+		ColumnWords[TILESIZE + 1] = south == null ? 0 : south.Rows[0];
+		WestBits[TILESIZE + 1] = southWest == null ? 0 : southWest.Rows[0] >>> (TILESIZE - 1);
+		EastBits[TILESIZE + 1] = southEast == null ? 0 : southEast.Rows[0] & 1L;
+
+		for (int r = 1; r <= TILESIZE; r++) {
+			tile.CalcRows[r - 1] = GameOfLifeBitPacked.nextWord(getRule(), westOf(r - 1), ColumnWords[r - 1],
+					eastOf(r - 1), westOf(r), ColumnWords[r], eastOf(r), westOf(r + 1), ColumnWords[r + 1],
+					eastOf(r + 1));
+			long row = tile.Rows[r - 1];
+			long next = tile.CalcRows[r - 1];
+			if (next != row) {
+				long index = rowIndex(tile, r - 1);
+				hashDelta ^= mixHash(index, row) ^ mixHash(index, next);
+				births += Long.bitCount(next & ~row);
+				deaths += Long.bitCount(row & ~next);
+			}
+		}
+	}
+
+	/**
+	 * Position of a tile row for the field hash.
+	 *
+	 * @param tile tile of the row
+	 * @param r row in tile
+	 * @return long row index
+	 */
+	private static long rowIndex(Tile tile, int r) {
+		return toKey(tile.tileX, tile.tileY) * TILESIZE + r;
+	}
+
+	/**
+	 * Word of left neighbours of an extended tile row.
+	 *
+	 * @param r row index in ColumnWords
+	 * @return shifted word
+	 */
+	private long westOf(int r) {
+		return (ColumnWords[r] << 1) | WestBits[r];
+	}
+
+	/**
+	 * Word of right neighbours of an extended tile row.
+	 *
+	 * @param r row index in ColumnWords
+	 * @return shifted word
+	 */
+	private long eastOf(int r) {
+		return (ColumnWords[r] >>> 1) | (EastBits[r] << (TILESIZE - 1));
+	}
+
+	/**
+	 * Returns tile at tile coordinates, a new empty tile is created if missing.
+	 *
+	 * @param tileX tile column
+	 * @param tileY tile row
+	 * @return Tile at coordinates
+	 */
+	private Tile getOrCreateTile(int tileX, int tileY) {
+		Long key = toKey(tileX, tileY);
+		Tile tile = Tiles.get(key);
+		if (tile == null) {
+			tile = new Tile(tileX, tileY);
+			Tiles.put(key, tile);
+		}
+		return tile;
+	}
+
+	/**
+	 * Combine tile coordinates into a map key.
+	 *
+	 * @param tileX tile column
+	 * @param tileY tile row
+	 * @return long key
+	 */
+	private static long toKey(int tileX, int tileY) {
+		return ((long) tileX << 32) | (tileY & 0xFFFFFFFFL);
+	}
+
+	@Override
+	public String getEngineInfo() {
+		return "Tiles: " + Tiles.size();
+	}
+
+	/**
+	 * Return the visible window of the unbounded world.
+	 *
+	 * @return boolean[][] of GridWorld
+	 */
+	@Override
+	public boolean[][] getGridWorld() {
+		if (isViewDirty) {
+			for (boolean[] column : GridView) {
+				Arrays.fill(column, false);
+			}
+			for (Tile tile : Tiles.values()) {
+				int x0 = tile.tileX * TILESIZE;
+				int y0 = tile.tileY * TILESIZE;
+				if (x0 >= getCellWidth() || y0 >= getCellHeight() || x0 + TILESIZE <= 0 || y0 + TILESIZE <= 0) {
+					continue;
+				}
+				for (int r = Math.max(0, -y0); r < TILESIZE && y0 + r < getCellHeight(); r++) {
+					long row = tile.Rows[r];
+					while (row != 0) {
+						int b = Long.numberOfTrailingZeros(row);
+						row &= row - 1;
+						if (x0 + b >= 0 && x0 + b < getCellWidth()) {
+							GridView[x0 + b][y0 + r] = true;
+						}
+					}
+				}
+			}
+			isViewDirty = false;
+		}
+		return GridView;
+	}
+
+	/**
+	 * Square block of TILESIZE x TILESIZE cells, one long per row.
+	 */
+	private static final class Tile {
+
+		private final int tileX;
+		private final int tileY;
+		private long[] Rows = new long[TILESIZE];
+		private long[] CalcRows = new long[TILESIZE];
+
+		/**
+		 * Constructor.
+		 *
+		 * @param inTileX tile column
+		 * @param inTileY tile row
+		 */
+		Tile(int inTileX, int inTileY) {
+			tileX = inTileX;
+			tileY = inTileY;
+		}
+
+		/**
+		 * True if no cell of the current generation is alive.
+		 *
+		 * @return true if empty
+		 */
+		boolean isEmpty() {
+			for (long row : Rows) {
+				if (row != 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+}
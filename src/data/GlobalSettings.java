@@ -69,4 +69,94 @@ public class GlobalSettings {
 		RTREE
 	}
 
+	/**
+	 * What the neighbours of the outermost cells of a Game of Life field are.
+	 */
+	public enum BoundaryMode {
+
+		/**
+		 * Outermost ring of cells always stays dead
+		 */
+		DEAD,
+		/**
+		 * Edges wrap around to the opposite edge
+		 */
+		TORUS,
+		/**
+		 * Edges mirror the cells next to them
+		 */
+		REFLECT,
+		/**
+		 * Left and right wrap around, top and bottom wrap around mirrored
+		 */
+		KLEIN
+	}
+
+	/**
+	 * Shapes of Larger than Life neighbourhoods.
+	 */
+	public enum Neighbourhood {
+
+		/**
+		 * Square of all cells within the radius
+		 */
+		MOORE,
+		/**
+		 * Diamond of cells whose distances in x and y add up to the radius
+		 */
+		VONNEUMANN,
+		/**
+		 * Hexagon, the square without its top right and bottom left corner
+		 */
+		HEXAGONAL
+	}
+
+	/**
+	 * Calculation engines which can be chosen for Game of Life.
+	 */
+	public enum GOLEngine {
+
+		/**
+		 * One byte per cell with a halo for every boundary mode, prefix sums
+		 * for Larger than Life rules
+		 */
+		SCALAR,
+		/**
+		 * 64 cells per long, bitwise neighbour sums
+		 */
+		BITPACKED,
+		/**
+		 * Bit-packed, only tiles near changes of the last generation
+		 */
+		ACTIVETILES,
+		/**
+		 * Bit-packed, 4x4 to 2x2 lookup table instead of neighbour counting
+		 */
+		LOOKUP,
+		/**
+		 * Bit-packed with Vector API lanes, bit-packed without on Java 8
+		 */
+		VECTOR,
+		/**
+		 * Unbounded memoised quadtree, jumps 2^k generations per step
+		 */
+		HASHLIFE,
+		/**
+		 * Unbounded hash map of bit-packed tiles, memory grows with population
+		 */
+		UNBOUNDED,
+		/**
+		 * One byte per cell, multi-state Generations rules with dying cells
+		 */
+		GENERATIONS,
+		/**
+		 * Bit-packed outside of the heap, optionally in a world file
+		 */
+		OFFHEAP,
+		/**
+		 * 64 independent small worlds, one per bit of a long
+		 */
+		ENSEMBLE
+	}
+
 }
@@ -0,0 +1,436 @@
+package data;
+
+/**
+ * Birth/survival rule of a life-like cellular automaton, e.g. B3/S23 for
+ * Conway's Game of Life. A rule is compiled into lookup arrays for cell by
+ * cell engines and into a list of neighbour counts for bitwise engines.
+ *
+ * <p>
+ * Rules of the Generations family like B2/S/C3(Brian's Brain) have more than
+ * two states: a living cell which does not survive passes through the dying
+ * states 2 to C - 1 before it is dead, only state 1 counts as a living
+ * neighbour.
+ *
+ * <p>
+ * Larger than Life rules like R5,C0,M1,S34..58,B34..45,NM(Bosco's Rule) count
+ * the living cells within radius R of a Moore(NM), von Neumann(NN) or
+ * hexagonal(NH) neighbourhood, M1 counts the cell itself. A cell survives or
+ * is born if the count is within the S or B interval.
+ *
+ * @author BenGe47
+ *
+ */
+public class LifeRule {
+
+	/**
+	 * Conway's Game of Life.
+	 */
+	public final static LifeRule CONWAY = parse("B3/S23");
+
+	/**
+	 * Largest radius of Larger than Life rules.
+	 */
+	public final static int MAXRADIUS = 100;
+
+	private final boolean[] Birth;
+	private final boolean[] Survival;
+	private final int[] BirthCounts;
+	private final int[] SurvivalCounts;
+	private final int states;
+	private final String name;
+	private final boolean isConway;
+	private final int radius;
+	private final GlobalSettings.Neighbourhood neighbourhood;
+	private final boolean isMiddleIncluded;
+	private final boolean isLargerThanLife;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param inBirth neighbour counts 0 to 8 which give birth
+	 * @param inSurvival neighbour counts 0 to 8 which let a cell survive
+	 * @param inStates number of states including dead and alive
+	 */
+	private LifeRule(String inBirth, String inSurvival, int inStates) {
+		states = inStates;
+		radius = 1;
+		neighbourhood = GlobalSettings.Neighbourhood.MOORE;
+		isMiddleIncluded = false;
+		isLargerThanLife = false;
+		Birth = new boolean[9];
+		Survival = new boolean[9];
+		BirthCounts = toCounts(inBirth, Birth);
+		SurvivalCounts = toCounts(inSurvival, Survival);
+
+		StringBuilder sb = new StringBuilder("B");
+		for (int n : BirthCounts) {
+			sb.append(n);
+		}
+		sb.append("/S");
+		for (int n : SurvivalCounts) {
+			sb.append(n);
+		}
+		if (states > 2) {
+			sb.append("/C").append(states);
+		}
+		name = sb.toString();
+		isConway = name.equals("B3/S23");
+	}
+
+	/**
+	 * Constructor of a Larger than Life rule.
+	 *
+	 * @param inRadius neighbourhood radius
+	 * @param inNeighbourhood shape of the neighbourhood
+	 * @param inIsMiddleIncluded true if the cell counts itself
+	 * @param inSurvival lowest and highest count which lets a cell survive
+	 * @param inBirth lowest and highest count which gives birth
+	 */
+	private LifeRule(int inRadius, GlobalSettings.Neighbourhood inNeighbourhood, boolean inIsMiddleIncluded,
+			int[] inSurvival, int[] inBirth) {
+		states = 2;
+		radius = inRadius;
+		neighbourhood = inNeighbourhood;
+		isMiddleIncluded = inIsMiddleIncluded;
+		isLargerThanLife = true;
+		int maxCount = getMaxCount();
+		Birth = new boolean[maxCount + 1];
+		Survival = new boolean[maxCount + 1];
+		for (int n = Math.max(0, inBirth[0]); n <= Math.min(maxCount, inBirth[1]); n++) {
+			Birth[n] = true;
+		}
+		for (int n = Math.max(0, inSurvival[0]); n <= Math.min(maxCount, inSurvival[1]); n++) {
+			Survival[n] = true;
+		}
+		// the bitwise engines only use these for range 1 Moore rules
+		BirthCounts = new int[0];
+		SurvivalCounts = new int[0];
+
+		name = "R" + radius + ",C0,M" + (isMiddleIncluded ? 1 : 0) + ",S" + inSurvival[0] + ".." + inSurvival[1]
+				+ ",B" + inBirth[0] + ".." + inBirth[1] + ",N"
+				+ "MNH".charAt(neighbourhood.ordinal());
+		isConway = false;
+	}
+
+	/**
+	 * Parses a rule in B/S notation like "B36/S23" or in S/B notation like
+	 * "23/36". Generations rules add the number of states, e.g. "B2/S/C3" or
+	 * "/2/3" in S/B/C notation. Larger than Life rules look like
+	 * "R5,C0,M1,S34..58,B34..45,NM".
+	 *
+	 * @param inRule rule string
+	 * @return LifeRule
+	 * @throws IllegalArgumentException if the rule can not be parsed
+	 */
+	public static LifeRule parse(String inRule) {
+		String rule = inRule.trim().toUpperCase();
+		if (rule.startsWith("R")) {
+			return parseLargerThanLife(rule);
+		}
+		String[] parts = rule.split("/", -1);
+		if (parts.length != 2 && parts.length != 3) {
+			throw new IllegalArgumentException("Rule has to look like B3/S23 or B2/S/C3.");
+		}
+
+		String birth = null;
+		String survival = null;
+		String states = parts.length == 3 ? null : "2";
+		for (String part : parts) {
+			if (part.startsWith("B") && birth == null) {
+				birth = part.substring(1);
+			} else if (part.startsWith("S") && survival == null) {
+				survival = part.substring(1);
+			} else if ((part.startsWith("C") || part.startsWith("G")) && states == null) {
+				states = part.substring(1);
+			}
+		}
+		if (birth == null && survival == null) {
+			// S/B or S/B/C notation
+			survival = parts[0];
+			birth = parts[1];
+			if (parts.length == 3) {
+				states = parts[2];
+			}
+		}
+		if (birth == null || survival == null || !birth.matches("[0-8]*") || !survival.matches("[0-8]*")) {
+			throw new IllegalArgumentException("Rule has to look like B3/S23 with neighbour counts 0 to 8.");
+		}
+		if (states == null || !states.matches("[0-9]{1,3}") || Integer.parseInt(states) < 2
+				|| Integer.parseInt(states) > 256) {
+			throw new IllegalArgumentException("Number of states has to be in 2 to 256 range, e.g. B2/S/C3.");
+		}
+		return new LifeRule(birth, survival, Integer.parseInt(states));
+	}
+
+	/**
+	 * Parses a Larger than Life rule, C and N may be left out.
+	 *
+	 * @param inRule upper case rule string
+	 * @return LifeRule
+	 * @throws IllegalArgumentException if the rule can not be parsed
+	 */
+	private static LifeRule parseLargerThanLife(String inRule) {
+		int radius = -1;
+		int middle = -1;
+		int[] survival = null;
+		int[] birth = null;
+		GlobalSettings.Neighbourhood neighbourhood = GlobalSettings.Neighbourhood.MOORE;
+		try {
+			for (String part : inRule.split(",")) {
+				String value = part.trim().substring(1);
+				switch (part.trim().charAt(0)) {
+				case 'R':
+					radius = Integer.parseInt(value);
+					break;
+				case 'C':
+					if (Integer.parseInt(value) > 2) {
+						throw new IllegalArgumentException("Larger than Life rules can only have 2 states.");
+					}
+					break;
+				case 'M':
+					middle = Integer.parseInt(value);
+					break;
+				case 'S':
+					survival = parseInterval(value);
+					break;
+				case 'B':
+					birth = parseInterval(value);
+					break;
+				case 'N':
+					neighbourhood = parseNeighbourhood(value);
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown part of Larger than Life rule: " + part);
+				}
+			}
+		} catch (NumberFormatException | IndexOutOfBoundsException e) {
+			throw new IllegalArgumentException("Rule has to look like R5,C0,M1,S34..58,B34..45,NM.");
+		}
+		if (radius < 1 || radius > MAXRADIUS || (middle != 0 && middle != 1) || survival == null
+				|| birth == null) {
+			throw new IllegalArgumentException(
+					"Rule has to look like R5,C0,M1,S34..58,B34..45,NM with radius 1 to " + MAXRADIUS + ".");
+		}
+		return new LifeRule(radius, neighbourhood, middle == 1, survival, birth);
+	}
+
+	/**
+	 * Parses the letter of a neighbourhood.
+	 *
+	 * @param inLetter M, N or H
+	 * @return Neighbourhood shape
+	 */
+	private static GlobalSettings.Neighbourhood parseNeighbourhood(String inLetter) {
+		switch (inLetter) {
+		case "M":
+			return GlobalSettings.Neighbourhood.MOORE;
+		case "N":
+			return GlobalSettings.Neighbourhood.VONNEUMANN;
+		case "H":
+			return GlobalSettings.Neighbourhood.HEXAGONAL;
+		default:
+			throw new IllegalArgumentException("Neighbourhood has to be NM, NN or NH.");
+		}
+	}
+
+	/**
+	 * Parses an interval like "34..58" or a single count like "3".
+	 *
+	 * @param inInterval interval text
+	 * @return int[] lowest and highest count
+	 */
+	private static int[] parseInterval(String inInterval) {
+		int dots = inInterval.indexOf("..");
+		if (dots < 0) {
+			int count = Integer.parseInt(inInterval);
+			return new int[] { count, count };
+		}
+		return new int[] { Integer.parseInt(inInterval.substring(0, dots)),
+				Integer.parseInt(inInterval.substring(dots + 2)) };
+	}
+
+	/**
+	 * Marks the digits of inDigits in inFlags and returns them sorted.
+	 *
+	 * @param inDigits neighbour counts as digits
+	 * @param inFlags flags indexed by neighbour count
+	 * @return int[] sorted neighbour counts without duplicates
+	 */
+	private static int[] toCounts(String inDigits, boolean[] inFlags) {
+		int number = 0;
+		for (char c : inDigits.toCharArray()) {
+			if (!inFlags[c - '0']) {
+				inFlags[c - '0'] = true;
+				number++;
+			}
+		}
+		int[] counts = new int[number];
+		int i = 0;
+		for (int n = 0; n < inFlags.length; n++) {
+			if (inFlags[n]) {
+				counts[i++] = n;
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * Next generation of 64 cells from their bit-sliced neighbour counts, bit b
+	 * of the count words is the count of cell b.
+	 *
+	 * @param count0 bit 0 of neighbour counts
+	 * @param count1 bit 1 of neighbour counts
+	 * @param count2 bit 2 of neighbour counts
+	 * @param count3 bit 3 of neighbour counts
+	 * @param alive word of the cells themselves
+	 * @return word of the next generation
+	 */
+	public long apply(long count0, long count1, long count2, long count3, long alive) {
+		long born = 0;
+		for (int n : BirthCounts) {
+			born |= equalsCount(n, count0, count1, count2, count3);
+		}
+		long survived = 0;
+		for (int n : SurvivalCounts) {
+			survived |= equalsCount(n, count0, count1, count2, count3);
+		}
+		return (born & ~alive) | (survived & alive);
+	}
+
+	/**
+	 * Word with all bits set where the bit-sliced count equals n.
+	 *
+	 * @param n neighbour count
+	 * @param count0 bit 0 of neighbour counts
+	 * @param count1 bit 1 of neighbour counts
+	 * @param count2 bit 2 of neighbour counts
+	 * @param count3 bit 3 of neighbour counts
+	 * @return long mask
+	 */
+	private static long equalsCount(int n, long count0, long count1, long count2, long count3) {
+		return ((n & 1) != 0 ? count0 : ~count0) & ((n & 2) != 0 ? count1 : ~count1)
+				& ((n & 4) != 0 ? count2 : ~count2) & ((n & 8) != 0 ? count3 : ~count3);
+	}
+
+	/**
+	 * Next state of a single cell.
+	 *
+	 * @param isAlive current state
+	 * @param counter number of living neighbours
+	 * @return true if alive in next generation
+	 */
+	public boolean isAliveNext(boolean isAlive, int counter) {
+		return isAlive ? Survival[counter] : Birth[counter];
+	}
+
+	/**
+	 * Next state of a single cell of a Generations rule. Dying cells count
+	 * their state up until they are dead.
+	 *
+	 * @param inState current state 0 to getStates() - 1
+	 * @param counter number of living neighbours in state 1
+	 * @return int next state
+	 */
+	public int nextState(int inState, int counter) {
+		if (inState == 0) {
+			return Birth[counter] ? 1 : 0;
+		}
+		if (inState == 1 && Survival[counter]) {
+			return 1;
+		}
+		return inState + 1 < states ? inState + 1 : 0;
+	}
+
+	/**
+	 * Number of cell states, 2 for life-like rules and more for Generations
+	 * rules.
+	 *
+	 * @return int number of states
+	 */
+	public int getStates() {
+		return states;
+	}
+
+	/**
+	 * True if dead cells without living neighbours are born, which lets empty
+	 * space change.
+	 *
+	 * @return true for B0 rules
+	 */
+	public boolean hasBirthOnZero() {
+		return Birth[0];
+	}
+
+	/**
+	 * True for Larger than Life rules, only the scalar engine counts their
+	 * neighbourhoods.
+	 *
+	 * @return true if the rule is not a B/S rule
+	 */
+	public boolean isLargerThanLife() {
+		return isLargerThanLife;
+	}
+
+	/**
+	 * Get radius of the neighbourhood.
+	 *
+	 * @return int radius, 1 for B/S rules
+	 */
+	public int getRadius() {
+		return radius;
+	}
+
+	/**
+	 * Get shape of the neighbourhood.
+	 *
+	 * @return Neighbourhood shape
+	 */
+	public GlobalSettings.Neighbourhood getNeighbourhood() {
+		return neighbourhood;
+	}
+
+	/**
+	 * True if a cell counts itself as neighbour.
+	 *
+	 * @return true for M1 rules
+	 */
+	public boolean isMiddleIncluded() {
+		return isMiddleIncluded;
+	}
+
+	/**
+	 * Highest possible neighbour count.
+	 *
+	 * @return int number of cells in the neighbourhood
+	 */
+	public int getMaxCount() {
+		int cells;
+		switch (neighbourhood) {
+		case VONNEUMANN:
+			cells = 2 * radius * (radius + 1) + 1;
+			break;
+		case HEXAGONAL:
+			cells = 3 * radius * (radius + 1) + 1;
+			break;
+		default:
+			cells = (2 * radius + 1) * (2 * radius + 1);
+			break;
+		}
+		return isMiddleIncluded ? cells : cells - 1;
+	}
+
+	/**
+	 * True if this is B3/S23, engines may use a faster special case then.
+	 *
+	 * @return true for Conway's rule
+	 */
+	public boolean isConway() {
+		return isConway;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+
+}
@@ -0,0 +1,274 @@
+package data;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Streaming reader of Macrocell(.mc) pattern files, the quadtree format of
+ * HashLife. Every line after the header is one node and nodes refer to the
+ * nodes before them by their line number, 0 is an empty node. A line like
+ * "..*$.*$" is an 8x8 leaf with . for dead and * for living cells, a line
+ * "k nw ne sw se" is a node of size 2^k with its four quadrants. The last node
+ * is the root.
+ *
+ * <p>
+ * Only the node table is held in memory, which is much smaller than the
+ * pattern for the large repetitive patterns this format is used for.
+ *
+ * @author BenGe47
+ *
+ */
+public class MacrocellReader extends APatternReader {
+
+	private final static int LEAFLEVEL = 3;
+	// node n has level Levels[n], quadrants Children[4n..4n+3] or, for leaves,
+	// Children[4n] = -1 and the cells in Leaves[n] with bit 8 * y + x for x, y
+	private int[] Levels = new int[1024];
+	private int[] Children = new int[4 * 1024];
+	private long[] Leaves = new long[1024];
+	private int nodeCount = 1;
+
+	/**
+	 * Constructor, reads the header and the rule line #R.
+	 *
+	 * @param inReader pattern text
+	 * @throws IOException if the header can not be read
+	 */
+	public MacrocellReader(Reader inReader) throws IOException {
+		super(inReader);
+
+		while (peek() == '[' || peek() == '#') {
+			String line = readLine();
+			if (line.startsWith("#R")) {
+				setRule(line.substring(2).trim());
+			}
+		}
+	}
+
+	/**
+	 * Reads the node table and sets the living cells of the root node, which
+	 * is centred in the field.
+	 */
+	@Override
+	public void readCells(AGameOfLife inGOL) throws IOException {
+		int c = peek();
+		while (c >= 0) {
+			if (c == '.' || c == '*' || c == '$') {
+				addNode(LEAFLEVEL, -1, 0, 0, 0, readLeaf());
+			} else if (c >= '0' && c <= '9') {
+				readNode();
+			} else if (c == '#' || Character.isWhitespace(c)) {
+				readLine();
+			} else {
+				throw new IOException("Unexpected character in Macrocell pattern: " + (char) c);
+			}
+			c = peek();
+		}
+
+		int root = nodeCount - 1;
+		if (root > 0) {
+			// the living cells are centred, not the root node
+			long[] box = new long[4 * nodeCount];
+			boundingBox(root, box);
+			long x0 = (inGOL.getCellWidth() - box[4 * root + 2] - box[4 * root]) / 2;
+			long y0 = (inGOL.getCellHeight() - box[4 * root + 3] - box[4 * root + 1]) / 2;
+			paintNode(inGOL, root, x0, y0);
+		}
+		inGOL.finishCells();
+	}
+
+	/**
+	 * Calculates the smallest rectangle around the living cells of a node
+	 * relative to its top left corner. Every node is calculated once.
+	 *
+	 * @param node node number
+	 * @param inBox left, top, right and bottom(exclusive) for every node, the
+	 *        right border is 0 until the node is calculated
+	 */
+	private void boundingBox(int node, long[] inBox) {
+		int b = 4 * node;
+		if (node == 0 || inBox[b + 2] != 0) {
+			return;
+		}
+		inBox[b] = Long.MAX_VALUE;
+		inBox[b + 1] = Long.MAX_VALUE;
+		inBox[b + 2] = Long.MIN_VALUE;
+		inBox[b + 3] = Long.MIN_VALUE;
+		if (Children[b] < 0) {
+			for (int i = 0; i < 64; i++) {
+				if (((Leaves[node] >>> i) & 1L) != 0) {
+					extendBox(inBox, b, i & 7, i >>> 3, i & 7, i >>> 3);
+				}
+			}
+			return;
+		}
+		long half = 1L << (Levels[node] - 1);
+		for (int q = 0; q < 4; q++) {
+			int child = Children[b + q];
+			if (child != 0) {
+				boundingBox(child, inBox);
+			}
+			// empty quadrants keep their right border at Long.MIN_VALUE
+			if (child != 0 && inBox[4 * child + 2] > Long.MIN_VALUE) {
+				long dx = (q & 1) * half;
+				long dy = (q >> 1) * half;
+				extendBox(inBox, b, inBox[4 * child] + dx, inBox[4 * child + 1] + dy,
+						inBox[4 * child + 2] - 1 + dx, inBox[4 * child + 3] - 1 + dy);
+			}
+		}
+	}
+
+	/**
+	 * Extends the rectangle of a node by a rectangle of cells.
+	 *
+	 * @param inBox rectangles of all nodes
+	 * @param b index of the node's rectangle
+	 * @param left left cell
+	 * @param top top cell
+	 * @param right right cell
+	 * @param bottom bottom cell
+	 */
+	private static void extendBox(long[] inBox, int b, long left, long top, long right, long bottom) {
+		inBox[b] = Math.min(inBox[b], left);
+		inBox[b + 1] = Math.min(inBox[b + 1], top);
+		inBox[b + 2] = Math.max(inBox[b + 2], right + 1);
+		inBox[b + 3] = Math.max(inBox[b + 3], bottom + 1);
+	}
+
+	/**
+	 * Reads an 8x8 leaf line.
+	 *
+	 * @return long cells with bit 8 * y + x for the cell x, y
+	 * @throws IOException if the leaf is larger than 8x8
+	 */
+	private long readLeaf() throws IOException {
+		long cells = 0;
+		int x = 0;
+		int y = 0;
+		int c = read();
+		while (c >= 0 && c != '\n') {
+			if (c == '$') {
+				x = 0;
+				y++;
+			} else if (c == '.' || c == '*') {
+				if (x > 7 || y > 7) {
+					throw new IOException("Macrocell leaf is larger than 8x8.");
+				}
+				cells |= (c == '*' ? 1L : 0L) << (8 * y + x);
+				x++;
+			}
+			c = read();
+		}
+		return cells;
+	}
+
+	/**
+	 * Reads a line "k nw ne sw se". Nodes of level 1 hold the states of their
+	 * four cells, as written for multi-state rules, state 1 is alive.
+	 *
+	 * @throws IOException if the line is malformed
+	 */
+	private void readNode() throws IOException {
+		int level = (int) readNumber();
+		long[] quadrants = new long[4];
+		for (int q = 0; q < 4; q++) {
+			quadrants[q] = readNumber();
+			if (level > 1 && quadrants[q] >= nodeCount) {
+				throw new IOException("Macrocell node refers to a later node.");
+			}
+		}
+		readLine();
+		if (level < 1 || level > 62) {
+			throw new IOException("Macrocell node level out of range: " + level);
+		}
+		for (int q = 0; level > 1 && q < 4; q++) {
+			// leaves have level 3 or, as a node "1 a b c d", level 1
+			if (quadrants[q] != 0 && Levels[(int) quadrants[q]] != level - 1) {
+				throw new IOException("Macrocell node of level " + level + " has a quadrant of level "
+						+ Levels[(int) quadrants[q]] + ".");
+			}
+		}
+		if (level == 1) {
+			long cells = 0;
+			for (int q = 0; q < 4; q++) {
+				cells |= (quadrants[q] == 1 ? 1L : 0L) << (8 * (q >> 1) + (q & 1));
+			}
+			addNode(1, -1, 0, 0, 0, cells);
+		} else {
+			addNode(level, (int) quadrants[0], (int) quadrants[1], (int) quadrants[2], (int) quadrants[3], 0);
+		}
+	}
+
+	/**
+	 * Appends a node to the node table.
+	 *
+	 * @param level level of node
+	 * @param nw north west node, -1 for a leaf
+	 * @param ne north east node
+	 * @param sw south west node
+	 * @param se south east node
+	 * @param cells cells of a leaf
+	 */
+	private void addNode(int level, int nw, int ne, int sw, int se, long cells) {
+		if (nodeCount == Levels.length) {
+			Levels = Arrays.copyOf(Levels, 2 * nodeCount);
+			Children = Arrays.copyOf(Children, 8 * nodeCount);
+			Leaves = Arrays.copyOf(Leaves, 2 * nodeCount);
+		}
+		Levels[nodeCount] = level;
+		Children[4 * nodeCount] = nw;
+		Children[4 * nodeCount + 1] = ne;
+		Children[4 * nodeCount + 2] = sw;
+		Children[4 * nodeCount + 3] = se;
+		Leaves[nodeCount] = cells;
+		nodeCount++;
+	}
+
+	/**
+	 * Sets the living cells of a node, empty quadrants and quadrants outside of
+	 * the cells the engine can hold are skipped.
+	 *
+	 * @param inGOL engine
+	 * @param node node number
+	 * @param x0 left cell of node
+	 * @param y0 top cell of node
+	 */
+	private void paintNode(AGameOfLife inGOL, int node, long x0, long y0) {
+		if (node == 0 || !isInside(inGOL, x0, y0, 1L << Levels[node])) {
+			return;
+		}
+		if (Children[4 * node] < 0) {
+			long cells = Leaves[node];
+			while (cells != 0) {
+				int b = Long.numberOfTrailingZeros(cells);
+				cells &= cells - 1;
+				setCell(inGOL, x0 + (b & 7), y0 + (b >>> 3));
+			}
+			return;
+		}
+		long half = 1L << (Levels[node] - 1);
+		paintNode(inGOL, Children[4 * node], x0, y0);
+		paintNode(inGOL, Children[4 * node + 1], x0 + half, y0);
+		paintNode(inGOL, Children[4 * node + 2], x0, y0 + half);
+		paintNode(inGOL, Children[4 * node + 3], x0 + half, y0 + half);
+	}
+
+	/**
+	 * True if a square of cells overlaps the field of a bounded engine or the
+	 * int coordinates of an unbounded engine.
+	 *
+	 * @param inGOL engine
+	 * @param x0 left cell of square
+	 * @param y0 top cell of square
+	 * @param size width and height of square
+	 * @return true if a cell of the square can be set
+	 */
+	private static boolean isInside(AGameOfLife inGOL, long x0, long y0, long size) {
+		long min = inGOL.isUnbounded() ? Integer.MIN_VALUE : 0;
+		long right = inGOL.isUnbounded() ? Integer.MAX_VALUE + 1L : inGOL.getCellWidth();
+		long bottom = inGOL.isUnbounded() ? Integer.MAX_VALUE + 1L : inGOL.getCellHeight();
+		return x0 < right && x0 + size > min && y0 < bottom && y0 + size > min;
+	}
+
+}
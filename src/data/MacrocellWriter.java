@@ -0,0 +1,168 @@
+package data;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+
+/**
+ * Streaming writer of Macrocell(.mc) pattern files. The field is split into a
+ * quadtree with 8x8 leaves, equal leaves and nodes are written only once and
+ * every node line is written as soon as its quadrants are known.
+ *
+ * @author BenGe47
+ *
+ */
+public class MacrocellWriter {
+
+	private final static int LEAFLEVEL = 3;
+	private final Writer output;
+	private final HashMap<Long, Integer> LeafNumbers = new HashMap<>();
+	private final HashMap<NodeKey, Integer> NodeNumbers = new HashMap<>();
+	private int nodeCount;
+	private boolean[][] grid;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param inWriter target of the pattern text
+	 */
+	public MacrocellWriter(Writer inWriter) {
+		output = inWriter;
+	}
+
+	/**
+	 * Writes the living cells of the field, cropped to the smallest square
+	 * node around them. Unbounded engines write their visible window.
+	 *
+	 * @param inGOL engine
+	 * @throws IOException if writing fails
+	 */
+	public void write(AGameOfLife inGOL) throws IOException {
+		grid = inGOL.getGridWorld();
+		int[] box = RLEWriter.boundingBox(grid);
+		int level = LEAFLEVEL;
+		while ((1L << level) < Math.max(box[2] - box[0], box[3] - box[1])) {
+			level++;
+		}
+
+		output.write("[M2] (Ben's Portfolio)\n");
+		output.write("#R " + inGOL.getRule() + "\n");
+		writeNode(box[0], box[1], level);
+		output.flush();
+		grid = null;
+	}
+
+	/**
+	 * Writes the quadrants and then the node of size 2^level with top left
+	 * corner x0, y0.
+	 *
+	 * @param x0 left cell
+	 * @param y0 top cell
+	 * @param level level of node
+	 * @return int node number, 0 for an empty node
+	 * @throws IOException if writing fails
+	 */
+	private int writeNode(int x0, int y0, int level) throws IOException {
+		if (x0 >= grid.length || y0 >= grid[0].length) {
+			return 0;
+		}
+		if (level == LEAFLEVEL) {
+			return writeLeaf(x0, y0);
+		}
+		int half = 1 << (level - 1);
+		NodeKey key = new NodeKey(level, writeNode(x0, y0, level - 1), writeNode(x0 + half, y0, level - 1),
+				writeNode(x0, y0 + half, level - 1), writeNode(x0 + half, y0 + half, level - 1));
+		if (key.nw == 0 && key.ne == 0 && key.sw == 0 && key.se == 0) {
+			return 0;
+		}
+		Integer number = NodeNumbers.get(key);
+		if (number == null) {
+			number = ++nodeCount;
+			NodeNumbers.put(key, number);
+			output.write(level + " " + key.nw + " " + key.ne + " " + key.sw + " " + key.se + "\n");
+		}
+		return number;
+	}
+
+	/**
+	 * Writes an 8x8 leaf line like "..*$.*$", dead cells at the end of a row
+	 * and empty rows at the end are left out.
+	 *
+	 * @param x0 left cell
+	 * @param y0 top cell
+	 * @return int node number, 0 for an empty leaf
+	 * @throws IOException if writing fails
+	 */
+	private int writeLeaf(int x0, int y0) throws IOException {
+		long cells = 0;
+		for (int y = 0; y < 8 && y0 + y < grid[0].length; y++) {
+			for (int x = 0; x < 8 && x0 + x < grid.length; x++) {
+				if (grid[x0 + x][y0 + y]) {
+					cells |= 1L << (8 * y + x);
+				}
+			}
+		}
+		if (cells == 0) {
+			return 0;
+		}
+		Integer number = LeafNumbers.get(cells);
+		if (number == null) {
+			number = ++nodeCount;
+			LeafNumbers.put(cells, number);
+			StringBuilder line = new StringBuilder();
+			for (int y = 0; y < 8 && (cells >>> (8 * y)) != 0; y++) {
+				int row = (int) (cells >>> (8 * y)) & 0xFF;
+				for (int x = 0; row >>> x != 0; x++) {
+					line.append(((row >>> x) & 1) != 0 ? '*' : '.');
+				}
+				line.append('$');
+			}
+			output.write(line.append('\n').toString());
+		}
+		return number;
+	}
+
+	/**
+	 * Level and quadrant numbers of a written node.
+	 */
+	private static final class NodeKey {
+
+		private final int level;
+		private final int nw;
+		private final int ne;
+		private final int sw;
+		private final int se;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param inLevel level of node
+		 * @param inNw north west node number
+		 * @param inNe north east node number
+		 * @param inSw south west node number
+		 * @param inSe south east node number
+		 */
+		NodeKey(int inLevel, int inNw, int inNe, int inSw, int inSe) {
+			level = inLevel;
+			nw = inNw;
+			ne = inNe;
+			sw = inSw;
+			se = inSe;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof NodeKey)) {
+				return false;
+			}
+			NodeKey other = (NodeKey) o;
+			return level == other.level && nw == other.nw && ne == other.ne && sw == other.sw && se == other.se;
+		}
+
+		@Override
+		public int hashCode() {
+			return (((level * 31 + nw) * 31 + ne) * 31 + sw) * 31 + se;
+		}
+	}
+
+}
@@ -1,16 +1,28 @@
 package data;
 
+import java.util.Arrays;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Creates a Nagel-Schreckenberg model from user input as an array.
  * 
+ * <p>
+ * The field is stored row by row, one byte per cell, so a step only reads the
+ * row above and writes the new row. Rendering reads the same rows with
+ * {@link #getRow(int)}.
+ * 
  * @author BenGe47
  *
  */
 public class NaSch {
 
-	private int[][] GridWorld;
+	/** Cell value of a street without car, values below are car speeds. */
+	public static final byte EMPTY = 6;
+	/** Highest car speed. */
+	public static final int MAXSPEED = 5;
+
+	// Rows[y][x], one row per time step
+	private byte[][] Rows;
 	private int currentRow;
 	private int cellWidth;
 	private int cellHeight;
@@ -42,35 +54,32 @@ public class NaSch {
 	private void init2DField() {
 
 		currentRow = 1;
-		GridWorld = new int[cellWidth][cellHeight];
+		Rows = new byte[cellHeight][cellWidth];
+		byte[] first = Rows[0];
 
 		// because ThreadLocalRandom does not return 1.0 make line all cars
 		if (spawnRand == 1.0) {
 
-			for (int x = 0; x < GridWorld.length; x++) {
-				int randomNum = ThreadLocalRandom.current().nextInt(0, 5 + 1);
-				GridWorld[x][0] = randomNum;
+			for (int x = 0; x < cellWidth; x++) {
+				first[x] = (byte) ThreadLocalRandom.current().nextInt(0, MAXSPEED + 1);
 			}
 			// init first row with random number of cars and speed
 		} else {
-			for (int x = 0; x < GridWorld.length; x++) {
+			for (int x = 0; x < cellWidth; x++) {
 
-				int randomNum = ThreadLocalRandom.current().nextInt(0, 5 + 1);
+				int randomNum = ThreadLocalRandom.current().nextInt(0, MAXSPEED + 1);
 
 				if (Math.random() <= spawnRand) {
-					GridWorld[x][0] = randomNum;
+					first[x] = (byte) randomNum;
 				} else {
-					GridWorld[x][0] = 6;
+					first[x] = EMPTY;
 				}
 			}
 		}
 
 		// init rest of field with street
-		for (int y = 1; y < GridWorld[0].length; y++) {
-			for (int x = 0; x < GridWorld.length; x++) {
-
-				GridWorld[x][y] = 6;
-			}
+		for (int y = 1; y < cellHeight; y++) {
+			Arrays.fill(Rows[y], EMPTY);
 		}
 
 	}
@@ -80,26 +89,27 @@ public class NaSch {
 	 * 
 	 */
 	public void calcNextGenField() {
+		byte[] above = Rows[currentRow - 1];
+		byte[] row = Rows[currentRow];
+		double brake = brakeRand;
 		int newSpeed;
 		int nextCarDistance;
 
-		for (int x = 0; x < GridWorld.length; x++) {
+		for (int x = 0; x < cellWidth; x++) {
 			// for all cars
-			if (GridWorld[x][currentRow - 1] <= 5) {
-				newSpeed = GridWorld[x][currentRow - 1];
+			if (above[x] != EMPTY) {
+				newSpeed = above[x];
 				// add 1 to speed if not already at speed 5
-				if (GridWorld[x][currentRow - 1] < 5) {
-					newSpeed = GridWorld[x][currentRow - 1] + 1;
+				if (newSpeed < MAXSPEED) {
+					newSpeed += 1;
 				}
 
-				nextCarDistance = 6;
+				nextCarDistance = EMPTY;
 
 				// calculate distance to next car for next 5 fields
-				for (int i = 1; i < 6; i++) {
+				for (int i = 1; i <= MAXSPEED; i++) {
 					// consider world wrap around
-					int newX = ((x + i) % (GridWorld.length));
-
-					if (GridWorld[newX][currentRow - 1] < 6) {
+					if (above[(x + i) % cellWidth] != EMPTY) {
 						nextCarDistance = i - 1;
 						break;
 					}
@@ -110,27 +120,29 @@ public class NaSch {
 				newSpeed = (newSpeed >= nextCarDistance) ? nextCarDistance : newSpeed;
 
 				// randomly brake or not brake each car
-				if ((Math.random() <= brakeRand) && (newSpeed > 0)) {
+				if ((Math.random() <= brake) && (newSpeed > 0)) {
 					newSpeed -= 1;
 				}
 				// set speed of car in new row
-				GridWorld[Math.abs((x + newSpeed) % (GridWorld.length))][currentRow] = newSpeed;
+				row[(x + newSpeed) % cellWidth] = (byte) newSpeed;
 
 			}
 		}
 
 		currentRow += 1;
 	}
-	
+
 	/**
-	 * Return NaSch field Gridworld.
+	 * Return one row of the field. The array is the stored row itself and must
+	 * not be changed.
 	 * 
-	 * @return boolean[][] of GridWorld
+	 * @param y row number, below getCurrentRow()
+	 * @return byte[] cell values of the row, EMPTY or a car speed
 	 */
-	public int[][] getGridWorld() {
-		return GridWorld;
+	public byte[] getRow(int y) {
+		return Rows[y];
 	}
-	
+
 	/**
 	 * Get current row number.
 	 * 
@@ -140,4 +152,22 @@ public class NaSch {
 		return currentRow;
 	}
 
+	/**
+	 * Get cell width.
+	 * 
+	 * @return cellWidth
+	 */
+	public int getCellWidth() {
+		return cellWidth;
+	}
+
+	/**
+	 * Get cell height.
+	 * 
+	 * @return cellHeight
+	 */
+	public int getCellHeight() {
+		return cellHeight;
+	}
+
 }
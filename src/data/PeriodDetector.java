@@ -0,0 +1,56 @@
+package data;
+
+/**
+ * Finds still lifes and oscillators by remembering the field hashes of the
+ * last generations in a ring. A field that repeats the field of p steps ago
+ * repeats forever with period p, because every engine is deterministic.
+ *
+ * @author BenGe47
+ *
+ */
+public class PeriodDetector {
+
+	private final long[] History;
+	private long hashCount;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param inMaxPeriod longest period which is detected
+	 */
+	public PeriodDetector(int inMaxPeriod) {
+		History = new long[Math.max(1, inMaxPeriod)];
+	}
+
+	/**
+	 * Adds the hash of the next step and compares it with the remembered
+	 * steps.
+	 *
+	 * @param inHash field hash of the new step
+	 * @return int smallest period in steps, 1 for a still life, 0 if no
+	 *         repetition was found
+	 */
+	public int addHash(long inHash) {
+		int period = 0;
+		long known = Math.min(hashCount, History.length);
+		for (int p = 1; p <= known; p++) {
+			if (History[(int) ((hashCount - p) % History.length)] == inHash) {
+				period = p;
+				break;
+			}
+		}
+		History[(int) (hashCount % History.length)] = inHash;
+		hashCount++;
+		return period;
+	}
+
+	/**
+	 * Get longest period which is detected.
+	 *
+	 * @return int number of remembered steps
+	 */
+	public int getMaxPeriod() {
+		return History.length;
+	}
+
+}
@@ -0,0 +1,142 @@
+package data;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Streaming reader of run length encoded(RLE) pattern files. After comment
+ * lines starting with # the header "x = 3, y = 3, rule = B3/S23" gives size
+ * and rule, the cells follow as runs like 2o for two living cells, 3b for
+ * three dead cells and $ for the end of a row, ! ends the pattern.
+ *
+ * @author BenGe47
+ *
+ */
+public class RLEReader extends APatternReader {
+
+	private long patternWidth;
+	private long patternHeight;
+
+	/**
+	 * Constructor, reads comments and header.
+	 *
+	 * @param inReader pattern text
+	 * @throws IOException if the header can not be read
+	 */
+	public RLEReader(Reader inReader) throws IOException {
+		super(inReader);
+
+		skipSpace();
+		while (peek() == '#') {
+			readLine();
+			skipSpace();
+		}
+		if (peek() == 'x') {
+			String header = readLine();
+			// Larger than Life rules contain commas, the rule takes the rest of the line
+			int ruleStart = header.indexOf("rule");
+			if (ruleStart >= 0) {
+				int equals = header.indexOf('=', ruleStart);
+				if (equals < 0) {
+					throw new IOException("Malformed RLE header: " + header.substring(ruleStart).trim());
+				}
+				setRule(header.substring(equals + 1).trim());
+				header = header.substring(0, ruleStart);
+			}
+			for (String entry : header.split(",")) {
+				if (entry.trim().isEmpty()) {
+					continue;
+				}
+				String[] pair = entry.split("=");
+				if (pair.length != 2) {
+					throw new IOException("Malformed RLE header: " + entry.trim());
+				}
+				String key = pair[0].trim();
+				String value = pair[1].trim();
+				try {
+					if (key.equals("x")) {
+						patternWidth = Long.parseLong(value);
+					} else if (key.equals("y")) {
+						patternHeight = Long.parseLong(value);
+					}
+				} catch (NumberFormatException ne) {
+					throw new IOException("Malformed RLE header: " + entry.trim());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads the runs of cells. Letters b and . are dead cells, o and A living
+	 * cells and the dying states B to X of multi-state rules are read as dead.
+	 * Any other letter is a living cell, as in two state RLE files.
+	 */
+	@Override
+	public void readCells(AGameOfLife inGOL) throws IOException {
+		long x0 = (inGOL.getCellWidth() - patternWidth) / 2;
+		long y0 = (inGOL.getCellHeight() - patternHeight) / 2;
+		long x = 0;
+		long y = 0;
+		long count = 0;
+
+		int c = read();
+		while (c >= 0 && c != '!') {
+			if (c >= '0' && c <= '9') {
+				count = count * 10 + c - '0';
+				c = read();
+				continue;
+			}
+			long run = Math.max(1, count);
+			count = 0;
+			if (c == '$') {
+				x = 0;
+				y += run;
+			} else if (c == 'b' || c == '.' || (c >= 'B' && c <= 'X')) {
+				x += run;
+			} else if (c >= 'p' && c <= 'y' && peek() >= 'A' && peek() <= 'X') {
+				// two letter state above 24, never alive
+				read();
+				x += run;
+			} else if (Character.isLetter(c)) {
+				for (long i = 0; i < run; i++) {
+					setCell(inGOL, x0 + x + i, y0 + y);
+				}
+				x += run;
+			} else if (!Character.isWhitespace(c)) {
+				throw new IOException("Unexpected character in RLE pattern: " + (char) c);
+			}
+			c = read();
+		}
+		inGOL.finishCells();
+	}
+
+	/**
+	 * Skips spaces and empty lines.
+	 *
+	 * @throws IOException if reading fails
+	 */
+	private void skipSpace() throws IOException {
+		while (peek() >= 0 && Character.isWhitespace(peek())) {
+			read();
+		}
+	}
+
+	/**
+	 * Get width of the pattern from the header.
+	 *
+	 * @return long width, 0 without header
+	 */
+	public long getPatternWidth() {
+		return patternWidth;
+	}
+
+	/**
+	 * Get height of the pattern from the header.
+	 *
+	 * @return long height, 0 without header
+	 */
+	public long getPatternHeight() {
+		return patternHeight;
+	}
+
+}
@@ -0,0 +1,154 @@
+package data;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Streaming writer of run length encoded(RLE) pattern files. Runs are written
+ * row by row while the field is scanned, lines are wrapped at 70 characters.
+ *
+ * @author BenGe47
+ *
+ */
+public class RLEWriter {
+
+	private final static int MAXLINE = 70;
+	// rows packed at once, the field is stored column by column
+	private final static int BANDROWS = 64;
+	private final Writer output;
+	private int lineLength;
+	private final char[] Digits = new char[12];
+
+	/**
+	 * Constructor.
+	 *
+	 * @param inWriter target of the pattern text
+	 */
+	public RLEWriter(Writer inWriter) {
+		output = inWriter;
+	}
+
+	/**
+	 * Writes the living cells of the field, cropped to the smallest rectangle
+	 * around them. Unbounded engines write their visible window.
+	 *
+	 * @param inGOL engine
+	 * @throws IOException if writing fails
+	 */
+	public void write(AGameOfLife inGOL) throws IOException {
+		boolean[][] grid = inGOL.getGridWorld();
+		int[] box = boundingBox(grid);
+		int width = box[2] - box[0];
+		int height = box[3] - box[1];
+
+		output.write("#C Exported by Ben's Portfolio\n");
+		output.write("x = " + width + ", y = " + height + ", rule = " + inGOL.getRule() + "\n");
+
+		// row ends are written just before the next living cell, so empty rows
+		// are merged into one run and the last rows need none
+		int pendingRows = 0;
+		long[][] band = new long[BANDROWS][(width + 63) >>> 6];
+		for (int bandY = box[1]; bandY < box[3]; bandY += BANDROWS) {
+			int rows = Math.min(BANDROWS, box[3] - bandY);
+			packBand(grid, box[0], width, bandY, rows, band);
+			for (int r = 0; r < rows; r++) {
+				long[] row = band[r];
+				int x = 0;
+				while (x < width) {
+					boolean isAlive = ((row[x >>> 6] >>> x) & 1L) != 0;
+					int run = 0;
+					while (x < width && (((row[x >>> 6] >>> x) & 1L) != 0) == isAlive) {
+						run++;
+						x++;
+					}
+					// dead cells at the end of a row are left out
+					if (isAlive || x < width) {
+						if (pendingRows > 0) {
+							writeRun(pendingRows, '$');
+							pendingRows = 0;
+						}
+						writeRun(run, isAlive ? 'o' : 'b');
+					}
+				}
+				pendingRows++;
+			}
+		}
+		writeRun(1, '!');
+		output.write("\n");
+		output.flush();
+	}
+
+	/**
+	 * Writes one run, e.g. 3o for three living cells.
+	 *
+	 * @param run number of equal cells or rows
+	 * @param tag cell or row character
+	 * @throws IOException if writing fails
+	 */
+	private void writeRun(int run, char tag) throws IOException {
+		int start = Digits.length - 1;
+		Digits[start] = tag;
+		for (int n = run; run > 1 && n > 0; n /= 10) {
+			Digits[--start] = (char) ('0' + n % 10);
+		}
+		int length = Digits.length - start;
+		if (lineLength + length > MAXLINE) {
+			output.write('\n');
+			lineLength = 0;
+		}
+		output.write(Digits, start, length);
+		lineLength += length;
+	}
+
+	/**
+	 * Packs rows of the field into bits, bit x of a row is the cell left + x.
+	 * The cells of a column lie next to each other in the field, so it is
+	 * read column by column.
+	 *
+	 * @param inGrid field indexed [x][y]
+	 * @param left first column
+	 * @param width number of columns
+	 * @param top first row
+	 * @param rows number of rows
+	 * @param inBand packed rows, overwritten
+	 */
+	private static void packBand(boolean[][] inGrid, int left, int width, int top, int rows, long[][] inBand) {
+		for (long[] row : inBand) {
+			Arrays.fill(row, 0);
+		}
+		for (int x = 0; x < width; x++) {
+			boolean[] column = inGrid[left + x];
+			for (int r = 0; r < rows; r++) {
+				if (column[top + r]) {
+					inBand[r][x >>> 6] |= 1L << x;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Smallest rectangle around all living cells.
+	 *
+	 * @param inGrid field indexed [x][y]
+	 * @return int[] left, top, right and bottom(exclusive), all 0 if empty
+	 */
+	static int[] boundingBox(boolean[][] inGrid) {
+		int[] box = { Integer.MAX_VALUE, Integer.MAX_VALUE, 0, 0 };
+		for (int x = 0; x < inGrid.length; x++) {
+			for (int y = 0; y < inGrid[x].length; y++) {
+				if (inGrid[x][y]) {
+					box[0] = Math.min(box[0], x);
+					box[1] = Math.min(box[1], y);
+					box[2] = Math.max(box[2], x + 1);
+					box[3] = Math.max(box[3], y + 1);
+				}
+			}
+		}
+		if (box[2] == 0) {
+			return new int[4];
+		}
+		return box;
+	}
+
+}
@@ -5,12 +5,21 @@ import java.util.BitSet;
 /**
  * Creates a Wolfram cellular automaton from user input as an array.
  * 
+ * <p>
+ * Rows are stored packed, 64 cells in one long. A new row is calculated from
+ * the shifted words of the row above with bit operations only. Rendering
+ * reads the same packed rows with {@link #getRow(long)}. The rows are a ring
+ * which keeps the last cellHeight rows.
+ * 
  * @author BenGe47
  *
  */
 public class Wolfram {
-	private boolean[][] GridWorld;
-	private int currentRow;
+	// packed rows, bit x of word x / 64 is the cell in column x, row y in Rows[y % cellHeight]
+	private long[][] Rows;
+	private int wordsPerRow;
+	private long lastWordMask;
+	private long currentRow;
 	private Boolean isWrapEdge;
 	private int cellWidth;
 	private int cellHeight;
@@ -38,45 +47,73 @@ public class Wolfram {
 	}
 
 	/**
-	 * Calculates next generation of values for all lines except the edge value
-	 * on both sides.
+	 * Constructor for a given first row, several automata with different rules
+	 * can start from the same row.
+	 * 
+	 * @param inWidth cell width
+	 * @param inHeight cell height
+	 * @param inFirstRow packed first row, see getRow
+	 * @param inIsWrap is wrap-around edge
+	 * @param inRules BitSet of Wolfram rules
 	 */
-	private void calculateInnerField() {
-		for (int x = 1; x < GridWorld.length - 1; x++) {
-			if ((GridWorld[x - 1][currentRow - 1] == true) && (GridWorld[x][currentRow - 1] == true)
-					&& (GridWorld[x + 1][currentRow - 1] == true)) {
-				GridWorld[x][currentRow] = myWolframRules.get(0);
-			}
-			if ((GridWorld[x - 1][currentRow - 1] == true) && (GridWorld[x][currentRow - 1] == true)
-					&& (GridWorld[x + 1][currentRow - 1] == false)) {
-				GridWorld[x][currentRow] = myWolframRules.get(1);
-			}
-			if ((GridWorld[x - 1][currentRow - 1] == true) && (GridWorld[x][currentRow - 1] == false)
-					&& (GridWorld[x + 1][currentRow - 1] == true)) {
-				GridWorld[x][currentRow] = myWolframRules.get(2);
-			}
-			if ((GridWorld[x - 1][currentRow - 1] == true) && (GridWorld[x][currentRow - 1] == false)
-					&& (GridWorld[x + 1][currentRow - 1] == false)) {
-				GridWorld[x][currentRow] = myWolframRules.get(3);
-			}
-			if ((GridWorld[x - 1][currentRow - 1] == false) && (GridWorld[x][currentRow - 1] == true)
-					&& (GridWorld[x + 1][currentRow - 1] == true)) {
-				GridWorld[x][currentRow] = myWolframRules.get(4);
-			}
-			if ((GridWorld[x - 1][currentRow - 1] == false) && (GridWorld[x][currentRow - 1] == true)
-					&& (GridWorld[x + 1][currentRow - 1] == false)) {
-				GridWorld[x][currentRow] = myWolframRules.get(5);
-			}
-			if ((GridWorld[x - 1][currentRow - 1] == false) && (GridWorld[x][currentRow - 1] == false)
-					&& (GridWorld[x + 1][currentRow - 1] == true)) {
-				GridWorld[x][currentRow] = myWolframRules.get(6);
-			}
-			if ((GridWorld[x - 1][currentRow - 1] == false) && (GridWorld[x][currentRow - 1] == false)
-					&& (GridWorld[x + 1][currentRow - 1] == false)) {
-				GridWorld[x][currentRow] = myWolframRules.get(7);
-			}
+	public Wolfram(int inWidth, int inHeight, long[] inFirstRow, Boolean inIsWrap, BitSet inRules) {
+		this(inWidth, inHeight, 0.0, inIsWrap, inRules);
+		System.arraycopy(inFirstRow, 0, Rows[0], 0, wordsPerRow);
+	}
+
+	/**
+	 * Calculates the next row from the row above, 64 cells at once. The rule
+	 * is a multiplexer over the left, centre and right neighbour words: each
+	 * neighbour selects one half of the remaining rule bits, down to the bit
+	 * of the neighbourhood.
+	 *
+	 * @param inAbove packed row above
+	 * @param inRow packed new row
+	 */
+	private void calculateRow(long[] inAbove, long[] inRow) {
+		// bit k of the rule number is the new cell for neighbourhood k = 4 * left + 2 * centre + right,
+		// rule bit i of the BitSet is neighbourhood 7 - i
+		long[] ruleMasks = new long[8];
+		for (int k = 0; k < 8; k++) {
+			ruleMasks[k] = myWolframRules.get(7 - k) ? -1L : 0L;
+		}
+
+		int last = wordsPerRow - 1;
+		// the neighbours beyond the edges, dead or wrapped around
+		long leftOfFirst = isWrapEdge ? (inAbove[(cellWidth - 1) >>> 6] >>> (cellWidth - 1)) & 1L : 0L;
+		long rightOfLast = isWrapEdge ? (inAbove[0] & 1L) << (cellWidth - 1) : 0L;
+
+		for (int word = 0; word < wordsPerRow; word++) {
+			long centre = inAbove[word];
+			long left = (centre << 1) | (word > 0 ? inAbove[word - 1] >>> 63 : leftOfFirst);
+			long right = (centre >>> 1) | (word < last ? inAbove[word + 1] << 63 : rightOfLast);
+
+			// cells for left and centre 11, 10, 01 and 00 chosen by the right neighbour
+			long new11 = mux(right, ruleMasks[7], ruleMasks[6]);
+			long new10 = mux(right, ruleMasks[5], ruleMasks[4]);
+			long new01 = mux(right, ruleMasks[3], ruleMasks[2]);
+			long new00 = mux(right, ruleMasks[1], ruleMasks[0]);
+			inRow[word] = mux(left, mux(centre, new11, new10), mux(centre, new01, new00));
+		}
+		inRow[last] &= lastWordMask;
+
+		if (!isWrapEdge) {
+			// the edge cells are never calculated and stay dead
+			inRow[0] &= ~1L;
+			inRow[(cellWidth - 1) >>> 6] &= ~(1L << (cellWidth - 1));
 		}
-		currentRow += 1;
+	}
+
+	/**
+	 * Bitwise choice between two words.
+	 *
+	 * @param inSelect selecting word
+	 * @param inIfSet bits where inSelect is set
+	 * @param inIfClear bits where inSelect is clear
+	 * @return long chosen bits
+	 */
+	private static long mux(long inSelect, long inIfSet, long inIfClear) {
+		return inIfClear ^ (inSelect & (inIfSet ^ inIfClear));
 	}
 
 	/**
@@ -87,123 +124,62 @@ public class Wolfram {
 
 		Double rand;
 		currentRow = 1;
-		GridWorld = new boolean[cellWidth][cellHeight];
+		wordsPerRow = (cellWidth + 63) >>> 6;
+		lastWordMask = (cellWidth & 63) == 0 ? -1L : (1L << cellWidth) - 1;
+		Rows = new long[cellHeight][wordsPerRow];
 
 		rand = randomness;
 
 		if (!isWrapEdge) {
-			for (int x = 1; x < GridWorld.length - 1; x++) {
-				GridWorld[x][0] = Math.random() <= rand;
+			for (int x = 1; x < cellWidth - 1; x++) {
+				setFirstRowCell(x, Math.random() <= rand);
 			}
 		} else {
-			for (int x = 0; x < GridWorld.length; x++) {
-				GridWorld[x][0] = Math.random() <= rand;
+			for (int x = 0; x < cellWidth; x++) {
+				setFirstRowCell(x, Math.random() <= rand);
 			}
 		}
 
 	}
 
 	/**
-	 * Calculate next iteration of field.
+	 * Set a cell of the first row.
+	 *
+	 * @param x column
+	 * @param inIsAlive new state
+	 */
+	private void setFirstRowCell(int x, boolean inIsAlive) {
+		if (inIsAlive) {
+			Rows[0][x >>> 6] |= 1L << x;
+		}
+	}
+
+	/**
+	 * Calculate next iteration of field. After the last row the oldest row is
+	 * overwritten, so the field can run on for ever.
 	 * 
 	 */
 	public void calcNextGenField() {
-
-		// System.out.println(myWolframRules);
-
-		if (isWrapEdge) {
-
-			// Left Edge
-			if ((GridWorld[GridWorld.length - 1][currentRow - 1] == true) && (GridWorld[0][currentRow - 1] == true)
-					&& (GridWorld[0 + 1][currentRow - 1] == true)) {
-				GridWorld[0][currentRow] = (Boolean) myWolframRules.get(0);
-			}
-			if ((GridWorld[GridWorld.length - 1][currentRow - 1] == true) && (GridWorld[0][currentRow - 1] == true)
-					&& (GridWorld[0 + 1][currentRow - 1] == false)) {
-				GridWorld[0][currentRow] = (Boolean) myWolframRules.get(1);
-			}
-			if ((GridWorld[GridWorld.length - 1][currentRow - 1] == true) && (GridWorld[0][currentRow - 1] == false)
-					&& (GridWorld[0 + 1][currentRow - 1] == true)) {
-				GridWorld[0][currentRow] = (Boolean) myWolframRules.get(2);
-			}
-			if ((GridWorld[GridWorld.length - 1][currentRow - 1] == true) && (GridWorld[0][currentRow - 1] == false)
-					&& (GridWorld[0 + 1][currentRow - 1] == false)) {
-				GridWorld[0][currentRow] = (Boolean) myWolframRules.get(3);
-			}
-			if ((GridWorld[GridWorld.length - 1][currentRow - 1] == false) && (GridWorld[0][currentRow - 1] == true)
-					&& (GridWorld[0 + 1][currentRow - 1] == true)) {
-				GridWorld[0][currentRow] = (Boolean) myWolframRules.get(4);
-			}
-			if ((GridWorld[GridWorld.length - 1][currentRow - 1] == false) && (GridWorld[0][currentRow - 1] == true)
-					&& (GridWorld[0 + 1][currentRow - 1] == false)) {
-				GridWorld[0][currentRow] = (Boolean) myWolframRules.get(5);
-			}
-			if ((GridWorld[GridWorld.length - 1][currentRow - 1] == false) && (GridWorld[0][currentRow - 1] == false)
-					&& (GridWorld[0 + 1][currentRow - 1] == true)) {
-				GridWorld[0][currentRow] = (Boolean) myWolframRules.get(6);
-			}
-			if ((GridWorld[GridWorld.length - 1][currentRow - 1] == false) && (GridWorld[0][currentRow - 1] == false)
-					&& (GridWorld[0 + 1][currentRow - 1] == false)) {
-				GridWorld[0][currentRow] = (Boolean) myWolframRules.get(7);
-			}
-
-			// Right Edge
-			if ((GridWorld[GridWorld.length - 2][currentRow - 1] == true)
-					&& (GridWorld[GridWorld.length - 1][currentRow - 1] == true)
-					&& (GridWorld[0][currentRow - 1] == true)) {
-				GridWorld[GridWorld.length - 1][currentRow] = myWolframRules.get(0);
-			}
-			if ((GridWorld[GridWorld.length - 2][currentRow - 1] == true)
-					&& (GridWorld[GridWorld.length - 1][currentRow - 1] == true)
-					&& (GridWorld[0][currentRow - 1] == false)) {
-				GridWorld[GridWorld.length - 1][currentRow] = myWolframRules.get(1);
-			}
-			if ((GridWorld[GridWorld.length - 2][currentRow - 1] == true)
-					&& (GridWorld[GridWorld.length - 1][currentRow - 1] == false)
-					&& (GridWorld[0][currentRow - 1] == true)) {
-				GridWorld[GridWorld.length - 1][currentRow] = myWolframRules.get(2);
-			}
-			if ((GridWorld[GridWorld.length - 2][currentRow - 1] == true)
-					&& (GridWorld[GridWorld.length - 1][currentRow - 1] == false)
-					&& (GridWorld[0][currentRow - 1] == false)) {
-				GridWorld[GridWorld.length - 1][currentRow] = myWolframRules.get(3);
-			}
-			if ((GridWorld[GridWorld.length - 2][currentRow - 1] == false)
-					&& (GridWorld[GridWorld.length - 1][currentRow - 1] == true)
-					&& (GridWorld[0][currentRow - 1] == true)) {
-				GridWorld[GridWorld.length - 1][currentRow] = myWolframRules.get(4);
-			}
-			if ((GridWorld[GridWorld.length - 2][currentRow - 1] == false)
-					&& (GridWorld[GridWorld.length - 1][currentRow - 1] == true)
-					&& (GridWorld[0][currentRow - 1] == false)) {
-				GridWorld[GridWorld.length - 1][currentRow] = myWolframRules.get(5);
-			}
-			if ((GridWorld[GridWorld.length - 2][currentRow - 1] == false)
-					&& (GridWorld[GridWorld.length - 1][currentRow - 1] == false)
-					&& (GridWorld[0][currentRow - 1] == true)) {
-				GridWorld[GridWorld.length - 1][currentRow] = myWolframRules.get(6);
-			}
-			if ((GridWorld[GridWorld.length - 2][currentRow - 1] == false)
-					&& (GridWorld[GridWorld.length - 1][currentRow - 1] == false)
-					&& (GridWorld[0][currentRow - 1] == false)) {
-				GridWorld[GridWorld.length - 1][currentRow] = myWolframRules.get(7);
-			}
-
-			calculateInnerField();
-
-		} else {
-			calculateInnerField();
-
+		long[] above = getRow(currentRow - 1);
+		long[] row = getRow(currentRow);
+		if (above == row) {
+			// a ring of one row is its own row above, new words would overwrite the neighbours of the next word
+			above = above.clone();
 		}
+		calculateRow(above, row);
+		currentRow += 1;
 	}
 
 	/**
-	 * Return Wolfram field Gridworld.
+	 * Return one packed row of the field, bit x of word x / 64 is the cell in
+	 * column x. The array is the stored row itself and must not be changed.
 	 * 
-	 * @return boolean[][] of GridWorld
+	 * @param y row number, one of the last getCellHeight() rows below
+	 *          getCurrentRow()
+	 * @return long[] packed row
 	 */
-	public boolean[][] getGridWorld() {
-		return GridWorld;
+	public long[] getRow(long y) {
+		return Rows[(int) (y % cellHeight)];
 	}
 
 	/**
@@ -211,8 +187,26 @@ public class Wolfram {
 	 * 
 	 * @return currentRow
 	 */
-	public int getCurrentRow() {
+	public long getCurrentRow() {
 		return currentRow;
 	}
 
+	/**
+	 * Get cell width.
+	 * 
+	 * @return cellWidth
+	 */
+	public int getCellWidth() {
+		return cellWidth;
+	}
+
+	/**
+	 * Get cell height.
+	 * 
+	 * @return cellHeight
+	 */
+	public int getCellHeight() {
+		return cellHeight;
+	}
+
 }
@@ -0,0 +1,176 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Calculates many Wolfram rules from the same first row at once on a thread
+ * pool. Each rule is reduced to a tile which counts the living cells of every
+ * block of shrink x shrink cells, so the whole atlas fits on one image.
+ *
+ * @author BenGe47
+ *
+ */
+public class WolframAtlas {
+
+	private final int[] Rules;
+	private final int[][] Tiles;
+	private final long[] FirstRow;
+	private int cellWidth;
+	private int cellHeight;
+	private Boolean isWrapEdge;
+	private int shrink;
+	private int tileWidth;
+	private int tileHeight;
+	private volatile boolean isCancelled;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param inWidth cell width of every rule
+	 * @param inHeight cell height of every rule
+	 * @param inFirstRow packed first row shared by all rules, see
+	 *                   Wolfram.getRow
+	 * @param inIsWrap is wrap-around edge
+	 * @param inRules rule numbers 0 to 255
+	 * @param inShrink cells per tile pixel in both directions
+	 */
+	public WolframAtlas(int inWidth, int inHeight, long[] inFirstRow, Boolean inIsWrap, int[] inRules,
+			int inShrink) {
+		cellWidth = inWidth;
+		cellHeight = inHeight;
+		FirstRow = inFirstRow;
+		isWrapEdge = inIsWrap;
+		Rules = inRules;
+		shrink = Math.max(1, inShrink);
+		tileWidth = (cellWidth + shrink - 1) / shrink;
+		tileHeight = (cellHeight + shrink - 1) / shrink;
+		Tiles = new int[Rules.length][];
+	}
+
+	/**
+	 * Calculates all rules, one task per rule on a pool with one thread per
+	 * processor. Returns when every tile is done or the atlas was cancelled.
+	 *
+	 * @throws InterruptedException if the waiting thread was interrupted
+	 * @throws ExecutionException if a task failed, its error is the cause
+	 */
+	public void calculate() throws InterruptedException, ExecutionException {
+		ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		try {
+			List<Callable<Void>> tasks = new ArrayList<>();
+			for (int i = 0; i < Rules.length; i++) {
+				final int index = i;
+				tasks.add(new Callable<Void>() {
+					@Override
+					public Void call() {
+						if (!isCancelled) {
+							Tiles[index] = calculateTile(Rules[index]);
+						}
+						return null;
+					}
+				});
+			}
+			for (Future<Void> future : pool.invokeAll(tasks)) {
+				future.get();
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Runs one rule down to the last row and counts its living cells per tile
+	 * pixel.
+	 *
+	 * @param inRule rule number
+	 * @return int[] living cells of each tile pixel, row by row
+	 */
+	private int[] calculateTile(int inRule) {
+		// bit i of the BitSet is bit 7 - i of the rule number, as set by the sidebar
+		BitSet bits = new BitSet(8);
+		for (int i = 0; i < 8; i++) {
+			bits.set(i, ((inRule >>> (7 - i)) & 1) != 0);
+		}
+		Wolfram wolfram = new Wolfram(cellWidth, cellHeight, FirstRow, isWrapEdge, bits);
+		while (wolfram.getCurrentRow() < cellHeight) {
+			wolfram.calcNextGenField();
+		}
+
+		int[] tile = new int[tileWidth * tileHeight];
+		for (int y = 0; y < cellHeight; y++) {
+			long[] row = wolfram.getRow(y);
+			int offset = (y / shrink) * tileWidth;
+			for (int word = 0; word < row.length; word++) {
+				for (long set = row[word]; set != 0; set &= set - 1) {
+					tile[offset + ((word << 6) + Long.numberOfTrailingZeros(set)) / shrink]++;
+				}
+			}
+		}
+		return tile;
+	}
+
+	/**
+	 * Stops the calculation, tiles which are not started yet stay null.
+	 *
+	 */
+	public void cancel() {
+		isCancelled = true;
+	}
+
+	/**
+	 * Get counts of living cells for one rule.
+	 *
+	 * @param index position in the rules
+	 * @return int[] counts row by row, null if cancelled before
+	 */
+	public int[] getTile(int index) {
+		return Tiles[index];
+	}
+
+	/**
+	 * Number of cells a tile pixel stands for, smaller at the right and lower
+	 * edge.
+	 *
+	 * @param tx tile pixel column
+	 * @param ty tile pixel row
+	 * @return int number of cells
+	 */
+	public int getBlockCells(int tx, int ty) {
+		return Math.min(shrink, cellWidth - tx * shrink) * Math.min(shrink, cellHeight - ty * shrink);
+	}
+
+	/**
+	 * Get tile width in pixels.
+	 *
+	 * @return tileWidth
+	 */
+	public int getTileWidth() {
+		return tileWidth;
+	}
+
+	/**
+	 * Get tile height in pixels.
+	 *
+	 * @return tileHeight
+	 */
+	public int getTileHeight() {
+		return tileHeight;
+	}
+
+	/**
+	 * True if cancel was called, some tiles may be missing then.
+	 *
+	 * @return isCancelled
+	 */
+	public boolean isCancelled() {
+		return isCancelled;
+	}
+
+}
@@ -0,0 +1,220 @@
+package data;
+
+import java.math.BigInteger;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Creates a one dimensional cellular automaton with k states and radius r from
+ * a rule number, in the numbering of Stephen Wolfram.
+ *
+ * <p>
+ * Digit n in base k of the rule number is the new state of a cell whose 2r + 1
+ * neighbours read as the number n, the left neighbour being the highest digit.
+ * A totalistic code only looks at the sum of the neighbour states, its digit n
+ * is the new state for the sum n. With k = 2 and r = 1 the rule numbers are the
+ * rules of Wolfram.
+ *
+ * <p>
+ * The digits are unpacked once into a table. A row is calculated with one
+ * rolling neighbourhood code which is shifted by one cell and gets the new
+ * right neighbour added, instead of reading all 2r + 1 cells again.
+ *
+ * @author BenGe47
+ *
+ */
+public class WolframTable {
+
+	/** Largest table of a rule that is not totalistic. */
+	public static final int MAXTABLE = 1 << 16;
+
+	// Rows[y % cellHeight][x], a ring of the last rows
+	private byte[][] Rows;
+	// new state for each neighbourhood code or sum
+	private byte[] Table;
+	// row above with r cells of the edge on both sides
+	private byte[] Padded;
+	private int states;
+	private int radius;
+	private boolean isTotalistic;
+	private long currentRow;
+	private Boolean isWrapEdge;
+	private int cellWidth;
+	private int cellHeight;
+	private Double randomness;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param inWidth cell width
+	 * @param inHeight cell height
+	 * @param inRandomness share of cells in the first row which are not 0
+	 * @param inIsWrap is wrap-around edge
+	 * @param inStates number of states k
+	 * @param inRadius neighbours on each side r
+	 * @param inIsTotalistic rule is a totalistic code
+	 * @param inRule rule number or totalistic code
+	 * @throws IllegalArgumentException if the rule does not fit k and r
+	 */
+	public WolframTable(int inWidth, int inHeight, Double inRandomness, Boolean inIsWrap, int inStates,
+			int inRadius, boolean inIsTotalistic, String inRule) {
+		cellWidth = inWidth;
+		cellHeight = inHeight;
+		randomness = inRandomness;
+		isWrapEdge = inIsWrap;
+		states = inStates;
+		radius = inRadius;
+		isTotalistic = inIsTotalistic;
+
+		createTable(inRule);
+		init2DField();
+	}
+
+	/**
+	 * Unpacks the digits of the rule number into Table.
+	 *
+	 * @param inRule rule number or totalistic code
+	 */
+	private void createTable(String inRule) {
+		if (states < 2 || states > 10 || radius < 1) {
+			throw new IllegalArgumentException("States have to be in 2 to 10 range and radius at least 1.");
+		}
+		double size = isTotalistic ? (2 * radius + 1) * (states - 1) + 1 : Math.pow(states, 2 * radius + 1);
+		if (size > MAXTABLE) {
+			throw new IllegalArgumentException("Rule table with " + (long) size + " entries is too large, use a "
+					+ "totalistic code or fewer states or a smaller radius.");
+		}
+
+		BigInteger rule;
+		try {
+			rule = new BigInteger(inRule.trim());
+		} catch (NumberFormatException ne) {
+			throw new IllegalArgumentException("Rule number has to be a whole number.");
+		}
+		if (rule.signum() < 0 || rule.compareTo(BigInteger.valueOf(states).pow((int) size)) >= 0) {
+			throw new IllegalArgumentException(
+					"Rule number has to be in 0 to " + states + "^" + (long) size + " - 1 range.");
+		}
+
+		// the last digit is digit 0
+		String digits = rule.toString(states);
+		Table = new byte[(int) size];
+		for (int n = 0; n < digits.length(); n++) {
+			Table[n] = (byte) Character.digit(digits.charAt(digits.length() - 1 - n), states);
+		}
+	}
+
+	/**
+	 * Fill field with starting values.
+	 *
+	 */
+	private void init2DField() {
+		currentRow = 1;
+		Rows = new byte[cellHeight][cellWidth];
+		Padded = new byte[cellWidth + 2 * radius];
+
+		// without wrap-around the edge cells are never calculated and stay 0
+		int edge = isWrapEdge ? 0 : radius;
+		for (int x = edge; x < cellWidth - edge; x++) {
+			if (Math.random() <= randomness) {
+				Rows[0][x] = (byte) ThreadLocalRandom.current().nextInt(1, states);
+			}
+		}
+	}
+
+	/**
+	 * Calculate next iteration of field. After the last row the oldest row is
+	 * overwritten, so the field can run on for ever.
+	 *
+	 */
+	public void calcNextGenField() {
+		byte[] above = getRow(currentRow - 1);
+		byte[] row = getRow(currentRow);
+		int window = 2 * radius + 1;
+
+		// cells beyond the edges are wrapped around or 0
+		System.arraycopy(above, 0, Padded, radius, cellWidth);
+		for (int i = 0; i < radius; i++) {
+			Padded[i] = isWrapEdge ? above[Math.floorMod(i - radius, cellWidth)] : 0;
+			Padded[radius + cellWidth + i] = isWrapEdge ? above[i % cellWidth] : 0;
+		}
+
+		// code of the neighbourhood left of cell 0, without its right neighbour
+		int code = 0;
+		for (int i = 0; i < window - 1; i++) {
+			code = isTotalistic ? code + Padded[i] : code * states + Padded[i];
+		}
+
+		if (isTotalistic) {
+			for (int x = 0; x < cellWidth; x++) {
+				code += Padded[x + window - 1];
+				row[x] = Table[code];
+				code -= Padded[x];
+			}
+		} else {
+			// weight of the left neighbour, which is dropped before the next shift
+			int highest = (int) Math.pow(states, window - 1);
+			for (int x = 0; x < cellWidth; x++) {
+				code = code * states + Padded[x + window - 1];
+				row[x] = Table[code];
+				code -= Padded[x] * highest;
+			}
+		}
+
+		if (!isWrapEdge) {
+			for (int i = 0; i < radius && i < cellWidth; i++) {
+				row[i] = 0;
+				row[cellWidth - 1 - i] = 0;
+			}
+		}
+		currentRow += 1;
+	}
+
+	/**
+	 * Return one row of the field. The array is the stored row itself and must
+	 * not be changed.
+	 *
+	 * @param y row number, one of the last getCellHeight() rows below
+	 *          getCurrentRow()
+	 * @return byte[] cell states 0 to k - 1
+	 */
+	public byte[] getRow(long y) {
+		return Rows[(int) (y % cellHeight)];
+	}
+
+	/**
+	 * Get current row number.
+	 *
+	 * @return currentRow
+	 */
+	public long getCurrentRow() {
+		return currentRow;
+	}
+
+	/**
+	 * Get number of states.
+	 *
+	 * @return states
+	 */
+	public int getStates() {
+		return states;
+	}
+
+	/**
+	 * Get cell width.
+	 *
+	 * @return cellWidth
+	 */
+	public int getCellWidth() {
+		return cellWidth;
+	}
+
+	/**
+	 * Get cell height.
+	 *
+	 * @return cellHeight
+	 */
+	public int getCellHeight() {
+		return cellHeight;
+	}
+
+}
@@ -179,6 +179,16 @@ public abstract class AGenerator extends Observable implements IGenerator, Runna
 		this.myCanvas.setImage(inImage);
 	}
 
+	/**
+	 * Set myCanvas to an image whose rows are a ring.
+	 *
+	 * @param inImage image to show
+	 * @param inRingTop image row shown on top
+	 */
+	public void setMainCanvasToImage(BufferedImage inImage, int inRingTop) {
+		this.myCanvas.setImage(inImage, inRingTop);
+	}
+
 	/**
 	 * Setter for mnemonic key.
 	 * 
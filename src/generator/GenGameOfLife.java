@@ -1,13 +1,38 @@
 package generator;
 
+import data.AGameOfLife;
+import data.APatternReader;
 import data.GameOfLife;
+import data.GameOfLifeActiveTiles;
+import data.GameOfLifeBitPacked;
+import data.GameOfLifeCensus;
+import data.GameOfLifeEnsemble;
+import data.GameOfLifeGenerations;
+import data.GameOfLifeHashLife;
+import data.GameOfLifeHistory;
+import data.GameOfLifeLookup;
+import data.GameOfLifeOffHeap;
+import data.GameOfLifeUnbounded;
 import data.GlobalSettings;
+import data.LifeRule;
+import data.MacrocellWriter;
+import data.PeriodDetector;
+import data.RLEWriter;
 import gui.MainCanvasPanel;
 import gui.SideBarGOL;
-import java.awt.Graphics2D;
+import java.awt.Color;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 /**
  * Implementation of Conway's Game of Life cellular automata.
@@ -17,11 +42,17 @@ import java.awt.image.BufferedImage;
 public class GenGameOfLife extends AGenerator {
 
 	private final static int MAXFIELDPIXEL = 4;
+	// longest time the lock is held while a frame is calculated
+	private final static long CHUNKNANOS = 50000000L;
 	private SideBarGOL guiSideBar;
 	private boolean[][] GridWorld;
 	private int pixelGap = 1;
-	private int genCounter;
-	private GameOfLife myGOL;
+	private long genCounter;
+	private AGameOfLife myGOL;
+	// guards myGOL between the generator thread and an export
+	private final Object GOLLock = new Object();
+	// GridWorld shows a step of the rewind history instead of the engine
+	private boolean isRewound;
 
 	/**
 	 * Constructor
@@ -42,6 +73,9 @@ public class GenGameOfLife extends AGenerator {
 				updateStatus(GlobalSettings.Status.READY);
 			}
 		});
+		guiSideBar.setExportAction((ActionEvent e) -> {
+			exportPattern();
+		});
 
 		createSideBarGUI();
 	}
@@ -63,34 +97,135 @@ public class GenGameOfLife extends AGenerator {
 					&& Double.parseDouble(guiSideBar.getRandomness()) <= 1.0) {
 
 				// init2DField();
-				myGOL = new GameOfLife(guiSideBar.getWidth(), guiSideBar.getHeight(),
-						Double.parseDouble(guiSideBar.getRandomness()), guiSideBar.isEdgeWrapAround());
-				GridWorld = myGOL.getGridWorld();
+				AGameOfLife newGOL;
+				if (guiSideBar.getPatternPath().isEmpty()) {
+					newGOL = createGameOfLife(Double.parseDouble(guiSideBar.getRandomness()),
+							LifeRule.parse(guiSideBar.getRule()));
+				} else {
+					newGOL = loadPattern(guiSideBar.getPatternPath());
+				}
+				newGOL.setParallelism(guiSideBar.getThreads());
+				// without period detection the field hash is never read
+				newGOL.setHashing(guiSideBar.getMaxPeriod() > 0);
+				synchronized (GOLLock) {
+					myGOL = newGOL;
+				}
+				// a world file is written to the disk when the run ends, also after an error
+				try {
+					GridWorld = myGOL.getGridWorld();
+					PeriodDetector detector = new PeriodDetector(guiSideBar.getMaxPeriod());
+					detector.addHash(myGOL.getFieldHash());
+					guiSideBar.setPeriod("");
 
-				genCounter = 0;
+					genCounter = 0;
+					GameOfLifeHistory history = new GameOfLifeHistory(guiSideBar.getHistorySize() * 1048576L);
+					history.record(genCounter, GridWorld);
+					GameOfLifeCensus census = guiSideBar.isCensus() ? new GameOfLifeCensus(myGOL.getRule()) : null;
+					updateCensus(census);
+					// the census skips steps while it took longer than the engine
+					long engineNanos = 0;
+					long censusNanos = 0;
+					long censusGeneration = 0;
+					// frames of a new length start a new period detection
+					long detectedGenerations = guiSideBar.getRenderEvery() * myGOL.getGenerationsPerStep();
+					// generations per lock, grows while a chunk is faster than CHUNKNANOS
+					long chunkGenerations = myGOL.getGenerationsPerStep();
 
-				while (!guiSideBar.isStopped()) {
+					while (!guiSideBar.isStopped()) {
 
-					try {
-						Thread.sleep(guiSideBar.getSpeed());
-					} catch (Exception e) {
+						try {
+							Thread.sleep(guiSideBar.getSpeed());
+						} catch (Exception e) {
 
-					}
+						}
+
+						updateScreenPanel();
+						guiSideBar.setGenCounter(String.valueOf(genCounter));
+						guiSideBar.setPopulation(populationText());
+						guiSideBar.setEngineInfo(myGOL.getEngineInfo());
+						guiSideBar.setEngineDetails(myGOL.getEngineDetails());
 
-					updateScreenPanel();
-					genCounter += 1;
-					guiSideBar.setGenCounter(String.valueOf(genCounter));
+						// only every K-th step is shown, the steps in between run without rendering
+						long frameGenerations = guiSideBar.getRenderEvery() * myGOL.getGenerationsPerStep();
+						long advanced = 0;
+						// the frame is calculated in chunks, so stop and pause do not wait for all K steps
+						while (advanced < frameGenerations && !guiSideBar.isStopped() && !guiSideBar.isPaused()) {
+							long chunkStart = System.nanoTime();
+							synchronized (GOLLock) {
+								advanced += myGOL.advanceGenerations(Math.min(chunkGenerations,
+										frameGenerations - advanced));
+							}
+							long chunkNanos = System.nanoTime() - chunkStart;
+							engineNanos += chunkNanos;
+							if (chunkNanos < CHUNKNANOS / 2) {
+								chunkGenerations *= 2;
+							} else if (chunkNanos > CHUNKNANOS && chunkGenerations > myGOL.getGenerationsPerStep()) {
+								chunkGenerations /= 2;
+							}
+						}
+						// a frame cut short by stop or pause is shown like a full one
+						if (advanced > 0) {
+							synchronized (GOLLock) {
+								GridWorld = myGOL.getGridWorld();
+							}
+							genCounter += advanced;
+							history.record(genCounter, GridWorld);
+							if (census != null && censusNanos <= engineNanos) {
+								updateCensus(census);
+								censusNanos += census.getUpdateNanos();
+								censusGeneration = genCounter;
+							} else if (census != null) {
+								// the counts are sampled, they belong to an earlier generation
+								guiSideBar.setCensusInfo(census.getInfo() + " (gen " + censusGeneration + ")");
+							}
+							guiSideBar.setHistoryInfo(history.getInfo());
 
-					myGOL.calcNextGenField();
-					// GridWorld = myGOL.getGridWorld();
+							if (advanced != detectedGenerations) {
+								// hashes of frames with other lengths are not comparable
+								detector = new PeriodDetector(guiSideBar.getMaxPeriod());
+								detectedGenerations = advanced;
+							}
+							int period = myGOL.isHashing() ? detector.addHash(myGOL.getFieldHash()) : 0;
+							if (period > 0) {
+								long generations = period * advanced;
+								if (advanced > myGOL.getGenerationsPerStep()) {
+									// the field repeats, the period may be a divisor of the skipped generations
+									guiSideBar.setPeriod("Repeats after " + generations);
+								} else {
+									guiSideBar.setPeriod(generations == 1 ? "Still life" : "Period: " + generations);
+								}
+								if (guiSideBar.isStopWhenSettled()) {
+									updateScreenPanel();
+									guiSideBar.setStopped();
+								}
+							}
+						}
 
-					while (guiSideBar.isPaused()) {
-						updateStatus(GlobalSettings.Status.PAUSED);
-						if (guiSideBar.isStopped()) {
-							break;
+						if (guiSideBar.isPaused() && !history.isEmpty()) {
+							guiSideBar.setHistoryRange(history.getFirstStep(), history.getLastStep());
 						}
+						int shownStep = history.getLastStep();
+						while (guiSideBar.isPaused()) {
+							updateStatus(GlobalSettings.Status.PAUSED);
+							if (!history.isEmpty() && guiSideBar.getHistoryStep() != shownStep) {
+								shownStep = guiSideBar.getHistoryStep();
+								showHistoryStep(history, shownStep);
+							}
+							if (guiSideBar.isStopped()) {
+								break;
+							}
+						}
+						guiSideBar.setHistoryDisabled();
+						if (isRewound) {
+							isRewound = false;
+							GridWorld = myGOL.getGridWorld();
+						}
+						updateStatus(GlobalSettings.Status.CALCULATING);
+					}
+				} finally {
+					if (newGOL instanceof Closeable) {
+						((Closeable) newGOL).close();
 					}
-					updateStatus(GlobalSettings.Status.CALCULATING);
 				}
 				endCalcTime();
 				guiSideBar.setButtonsReady();
@@ -99,12 +234,185 @@ public class GenGameOfLife extends AGenerator {
 				showWarning("Randomness has to be in 0.0 to 1.0 range.");
 				guiSideBar.setButtonsReady();
 			}
+		} catch (NumberFormatException ne) {
+			showWarning("Randomness has to be in 0.0 to 1.0 range.");
+			guiSideBar.setButtonsReady();
+		} catch (IOException ioe) {
+			showWarning("File could not be used: " + ioe.getMessage());
+			guiSideBar.setButtonsReady();
+		} catch (IllegalArgumentException ie) {
+			showWarning(ie.getMessage());
+			guiSideBar.setButtonsReady();
 		} catch (Exception ne) {
 			showWarning("Randomness has to be in 0.0 to 1.0 range.");
 			guiSideBar.setButtonsReady();
 		}
 	}
 
+	/**
+	 * Creates an empty engine and loads the first generation from a pattern
+	 * file, the rule of the file replaces the rule of the sidebar.
+	 *
+	 * @param inPath path of RLE or Macrocell file
+	 * @return new engine with the pattern
+	 * @throws IOException if the file can not be read
+	 */
+	private AGameOfLife loadPattern(String inPath) throws IOException {
+		try (APatternReader reader = APatternReader.open(inPath)) {
+			LifeRule rule = LifeRule.parse(reader.getRule() != null ? reader.getRule() : guiSideBar.getRule());
+			guiSideBar.setRule(rule.toString());
+			AGameOfLife newGOL = createGameOfLife(0.0, rule);
+			try {
+				// a continued world file is not empty
+				newGOL.clear();
+				reader.readCells(newGOL);
+				return newGOL;
+			} catch (IOException | RuntimeException e) {
+				// the engine is never handed over, an off-heap world would keep its file open
+				if (newGOL instanceof Closeable) {
+					((Closeable) newGOL).close();
+				}
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * Saves the current field into a file chosen by the user, as Macrocell if
+	 * the name ends with .mc and as RLE otherwise.
+	 *
+	 */
+	private void exportPattern() {
+		synchronized (GOLLock) {
+			if (myGOL == null) {
+				showWarning("No field to export.");
+				return;
+			}
+		}
+		String path = guiSideBar.choosePatternExportPath();
+		if (path.isEmpty()) {
+			return;
+		}
+		try (Writer writer = new BufferedWriter(
+				new OutputStreamWriter(new FileOutputStream(path), StandardCharsets.US_ASCII))) {
+			synchronized (GOLLock) {
+				if (path.toLowerCase().endsWith(".mc")) {
+					new MacrocellWriter(writer).write(myGOL);
+				} else {
+					new RLEWriter(writer).write(myGOL);
+				}
+			}
+		} catch (IOException ioe) {
+			showWarning("Pattern file could not be written: " + ioe.getMessage());
+		}
+	}
+
+	/**
+	 * Create the Game of Life engine chosen in the sidebar.
+	 *
+	 * @param inRandomness spawn randomness
+	 * @param inRule birth/survival rule
+	 * @return new engine with initialized field
+	 * @throws IllegalArgumentException if the engine does not support the rule or edge
+	 * @throws IOException if the world file can not be used
+	 */
+	private AGameOfLife createGameOfLife(Double inRandomness, LifeRule inRule) throws IOException {
+		GlobalSettings.BoundaryMode boundary = guiSideBar.getBoundaryMode();
+		// the mirrored boundaries need the halo of the scalar and ensemble engine
+		if ((boundary == GlobalSettings.BoundaryMode.REFLECT || boundary == GlobalSettings.BoundaryMode.KLEIN)
+				&& (inRule.getStates() > 2 || (guiSideBar.getEngine() != GlobalSettings.GOLEngine.SCALAR
+						&& guiSideBar.getEngine() != GlobalSettings.GOLEngine.ENSEMBLE))) {
+			throw new IllegalArgumentException(
+					"Edge " + boundary + " needs the SCALAR or ENSEMBLE engine and a B/S rule.");
+		}
+		// only the scalar engine counts neighbourhoods larger than 3x3
+		if (inRule.isLargerThanLife()) {
+			return new GameOfLife(guiSideBar.getWidth(), guiSideBar.getHeight(), inRandomness, boundary, inRule);
+		}
+		// dying states do not fit into the single bit of the other engines
+		if (inRule.getStates() > 2) {
+			return new GameOfLifeGenerations(guiSideBar.getWidth(), guiSideBar.getHeight(), inRandomness,
+					guiSideBar.isEdgeWrapAround(), inRule);
+		}
+		switch (guiSideBar.getEngine()) {
+		case BITPACKED:
+			return new GameOfLifeBitPacked(guiSideBar.getWidth(), guiSideBar.getHeight(), inRandomness,
+					guiSideBar.isEdgeWrapAround(), inRule);
+		case ACTIVETILES:
+			return new GameOfLifeActiveTiles(guiSideBar.getWidth(), guiSideBar.getHeight(), inRandomness,
+					guiSideBar.isEdgeWrapAround(), inRule);
+		case VECTOR:
+			return GameOfLifeBitPacked.createVectorEngine(guiSideBar.getWidth(), guiSideBar.getHeight(),
+					inRandomness, guiSideBar.isEdgeWrapAround(), inRule);
+		case LOOKUP:
+			return new GameOfLifeLookup(guiSideBar.getWidth(), guiSideBar.getHeight(), inRandomness,
+					guiSideBar.isEdgeWrapAround(), inRule);
+		case HASHLIFE:
+			return new GameOfLifeHashLife(guiSideBar.getWidth(), guiSideBar.getHeight(), inRandomness,
+					guiSideBar.isEdgeWrapAround(), inRule, guiSideBar.getStepExponent(), guiSideBar.getCacheSize());
+		case GENERATIONS:
+			return new GameOfLifeGenerations(guiSideBar.getWidth(), guiSideBar.getHeight(), inRandomness,
+					guiSideBar.isEdgeWrapAround(), inRule);
+		case UNBOUNDED:
+			return new GameOfLifeUnbounded(guiSideBar.getWidth(), guiSideBar.getHeight(), inRandomness,
+					guiSideBar.isEdgeWrapAround(), inRule);
+		case OFFHEAP:
+			return new GameOfLifeOffHeap(guiSideBar.getWorldSize(), guiSideBar.getWorldSize(), guiSideBar.getWidth(),
+					guiSideBar.getHeight(), inRandomness, guiSideBar.isEdgeWrapAround(), inRule,
+					guiSideBar.getWorldFile());
+		case ENSEMBLE:
+			return new GameOfLifeEnsemble(guiSideBar.getWidth(), guiSideBar.getHeight(), inRandomness, boundary,
+					inRule, guiSideBar.getMaxPeriod());
+		default:
+			return new GameOfLife(guiSideBar.getWidth(), guiSideBar.getHeight(), inRandomness, boundary, inRule);
+		}
+	}
+
+	/**
+	 * Counts the objects of the current field and shows the counts.
+	 *
+	 * @param inCensus census of the run, null if objects are not counted
+	 */
+	private void updateCensus(GameOfLifeCensus inCensus) {
+		if (inCensus == null) {
+			guiSideBar.setCensusInfo("");
+			guiSideBar.setCensusDetails("");
+			return;
+		}
+		inCensus.update(myGOL, GridWorld);
+		guiSideBar.setCensusInfo(inCensus.getInfo());
+		guiSideBar.setCensusDetails(inCensus.getDetails());
+	}
+
+	/**
+	 * Shows a remembered step instead of the current generation, the engine
+	 * keeps its generation.
+	 *
+	 * @param inHistory rewind history of the run
+	 * @param inStep step number
+	 */
+	private void showHistoryStep(GameOfLifeHistory inHistory, int inStep) {
+		GridWorld = inHistory.seek(inStep);
+		isRewound = true;
+		updateScreenPanel();
+		guiSideBar.setGenCounter(String.valueOf(inHistory.getGeneration(inStep)));
+		guiSideBar.setHistoryInfo(inHistory.getInfo());
+	}
+
+	/**
+	 * Population of the current generation with births and deaths of the last
+	 * step, the engine counts them while it calculates the step.
+	 *
+	 * @return String population text
+	 */
+	private String populationText() {
+		String text = "Population: " + myGOL.getPopulation();
+		if (myGOL.getBirths() >= 0) {
+			text += " (+" + myGOL.getBirths() + " -" + myGOL.getDeaths() + ")";
+		}
+		return text;
+	}
+
 	@Override
 	public void stopGenerator() {
 		guiSideBar.setStopped();
@@ -112,33 +420,61 @@ public class GenGameOfLife extends AGenerator {
 	}
 
 	/**
-	 * Draw dead/alive values from array into color squares on myCanvas.
+	 * Draw cell states from array into color squares on myCanvas. The pixels
+	 * are written straight into the image raster with colors from a palette.
 	 *
 	 */
 	private void updateScreenPanel() {
-		BufferedImage image = new BufferedImage((GridWorld.length * (MAXFIELDPIXEL + pixelGap)),
-				(GridWorld[0].length * (MAXFIELDPIXEL + pixelGap)), BufferedImage.TYPE_INT_ARGB);
-		Graphics2D g2d = image.createGraphics();
-		g2d.setColor(guiSideBar.getBGColor());
-		g2d.fillRect(0, 0, guiSideBar.getWidth() * (MAXFIELDPIXEL + pixelGap),
-				guiSideBar.getHeight() * (MAXFIELDPIXEL + pixelGap));
-		g2d.setColor(guiSideBar.getColor());
-
-		for (int y = 0; y < GridWorld[0].length; y++) {
-			for (int x = 0; x < GridWorld.length; x++) {
-				if (GridWorld[x][y] == true) {
-					g2d.setColor(guiSideBar.getColor());
-					g2d.fillRect((MAXFIELDPIXEL + pixelGap) * x, (MAXFIELDPIXEL + pixelGap) * y, MAXFIELDPIXEL,
-							MAXFIELDPIXEL);
-				} else {
-					g2d.setColor(guiSideBar.getBGColor());
-					g2d.fillRect((MAXFIELDPIXEL + pixelGap) * x, (MAXFIELDPIXEL + pixelGap) * y, MAXFIELDPIXEL,
-							MAXFIELDPIXEL);
+		int width = GridWorld.length;
+		int height = GridWorld[0].length;
+		int cellPixel = MAXFIELDPIXEL + pixelGap;
+		int imageWidth = width * cellPixel;
+		BufferedImage image = new BufferedImage(imageWidth, height * cellPixel, BufferedImage.TYPE_INT_ARGB);
+		int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+
+		// the history only knows living cells, dying states are not shown
+		byte[] cells = myGOL instanceof GameOfLifeGenerations && !isRewound
+				? ((GameOfLifeGenerations) myGOL).getCells() : null;
+		int[] palette = createPalette(myGOL.getRule().getStates());
+		Arrays.fill(pixels, palette[0]);
+
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int state = cells != null ? cells[y * width + x] & 0xFF : (GridWorld[x][y] ? 1 : 0);
+				if (state != 0) {
+					int color = palette[state];
+					int offset = y * cellPixel * imageWidth + x * cellPixel;
+					for (int row = 0; row < MAXFIELDPIXEL; row++) {
+						Arrays.fill(pixels, offset + row * imageWidth, offset + row * imageWidth + MAXFIELDPIXEL,
+								color);
+					}
 				}
 			}
 		}
-		g2d.dispose();
 		this.setMainCanvasToImage(image);
 	}
 
+	/**
+	 * ARGB colors of all cell states. Dead cells get the background color,
+	 * living cells the foreground color and dying cells fade from foreground
+	 * to background.
+	 *
+	 * @param inStates number of states
+	 * @return int[] ARGB color per state
+	 */
+	private int[] createPalette(int inStates) {
+		Color fg = guiSideBar.getColor();
+		Color bg = guiSideBar.getBGColor();
+		int[] palette = new int[inStates];
+		palette[0] = bg.getRGB();
+		for (int state = 1; state < inStates; state++) {
+			double fade = (double) (state - 1) / (inStates - 1);
+			int red = (int) (fg.getRed() + (bg.getRed() - fg.getRed()) * fade);
+			int green = (int) (fg.getGreen() + (bg.getGreen() - fg.getGreen()) * fade);
+			int blue = (int) (fg.getBlue() + (bg.getBlue() - fg.getBlue()) * fade);
+			palette[state] = 0xFF000000 | red << 16 | green << 8 | blue;
+		}
+		return palette;
+	}
+
 }
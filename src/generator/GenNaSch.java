@@ -5,10 +5,11 @@ import data.NaSch;
 import gui.MainCanvasPanel;
 import gui.SideBarNaSch;
 import java.awt.Color;
-import java.awt.Graphics2D;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
 
 /**
  * Implements cellular automaton by Stephen Wolfram with all 256 rules.
@@ -19,8 +20,11 @@ public final class GenNaSch extends AGenerator {
 
 	private static int MAXFIELDPIXEL = 1;
 	private SideBarNaSch guiSideBar;
-	private int[][] GridWorld;
 	private int pixelGap = 0;
+	private BufferedImage image;
+	// rows of the current run which are already in image and their street color
+	private int drawnRows;
+	private int drawnBGColor;
 	private NaSch myNaSch;
 
 	/**
@@ -67,7 +71,7 @@ public final class GenNaSch extends AGenerator {
 				myNaSch = new NaSch(guiSideBar.getWidth(), guiSideBar.getHeight(),
 						Double.parseDouble(guiSideBar.getRandomness()), Double.parseDouble(guiSideBar.getBrakeRandomness()));
 				
-				GridWorld = myNaSch.getGridWorld();
+				image = null;
 				MAXFIELDPIXEL = guiSideBar.getZoomFactor();
 
 				while (!guiSideBar.isStopped()) {
@@ -80,7 +84,7 @@ public final class GenNaSch extends AGenerator {
 
 					updateScreenPanel();
 
-					if (myNaSch.getCurrentRow() < GridWorld[0].length) {
+					if (myNaSch.getCurrentRow() < myNaSch.getCellHeight()) {
 						myNaSch.calcNextGenField();
 					} else {
 						break;
@@ -116,47 +120,43 @@ public final class GenNaSch extends AGenerator {
 	}
 
 	/**
-	 * Draw dead/alive values from array into color squares on myCanvas.
+	 * Draw car speeds from the rows into color squares on myCanvas. The image
+	 * is kept for the whole run and only rows calculated since the last call
+	 * are drawn, unless the street color has changed.
 	 */
 	private void updateScreenPanel() {
-		BufferedImage image = new BufferedImage((GridWorld.length * (MAXFIELDPIXEL + pixelGap)),
-				(GridWorld[0].length * (MAXFIELDPIXEL + pixelGap)), BufferedImage.TYPE_INT_ARGB);
-		Graphics2D g2d = image.createGraphics();
-		g2d.setColor(guiSideBar.getColor());
-		for (int y = 0; y < GridWorld[0].length; y++) {
-			for (int x = 0; x < GridWorld.length; x++) {
-
-				switch (GridWorld[x][y]) {
-
-				case 0:
-					g2d.setColor(Color.RED);
-					break;
-				case 1:
-					g2d.setColor(Color.ORANGE);
-					break;
-				case 2:
-					g2d.setColor(Color.YELLOW);
-					break;
-				case 3:
-					g2d.setColor(Color.GREEN);
-					break;
-				case 4:
-					g2d.setColor(Color.BLUE);
-					break;
-				case 5:
-					g2d.setColor(new Color(102, 0, 153)); // Purple
-					break;
-				case 6:
-					g2d.setColor(guiSideBar.getBGColor());
-					break;
-				}
-
-				g2d.fillRect((MAXFIELDPIXEL + pixelGap) * x, (MAXFIELDPIXEL + pixelGap) * y, MAXFIELDPIXEL,
-						MAXFIELDPIXEL);
+		int width = myNaSch.getCellWidth();
+		int cellPixel = MAXFIELDPIXEL + pixelGap;
+		int imageWidth = width * cellPixel;
+		int bgColor = guiSideBar.getBGColor().getRGB();
+		// color by speed 0 to 5
+		int[] palette = { Color.RED.getRGB(), Color.ORANGE.getRGB(), Color.YELLOW.getRGB(), Color.GREEN.getRGB(),
+				Color.BLUE.getRGB(), new Color(102, 0, 153).getRGB() }; // last is purple
+
+		if (image == null) {
+			image = new BufferedImage(imageWidth, myNaSch.getCellHeight() * cellPixel, BufferedImage.TYPE_INT_ARGB);
+			drawnRows = -1;
+		}
+		int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+		if (drawnRows < 0 || bgColor != drawnBGColor) {
+			Arrays.fill(pixels, bgColor);
+			drawnRows = 0;
+			drawnBGColor = bgColor;
+		}
 
+		for (int y = drawnRows; y < myNaSch.getCurrentRow(); y++) {
+			byte[] row = myNaSch.getRow(y);
+			for (int x = 0; x < width; x++) {
+				if (row[x] != NaSch.EMPTY) {
+					int offset = y * cellPixel * imageWidth + x * cellPixel;
+					for (int line = 0; line < MAXFIELDPIXEL; line++) {
+						Arrays.fill(pixels, offset + line * imageWidth, offset + line * imageWidth + MAXFIELDPIXEL,
+								palette[row[x]]);
+					}
+				}
 			}
 		}
-		g2d.dispose();
+		drawnRows = myNaSch.getCurrentRow();
 		this.setMainCanvasToImage(image);
 	}
 
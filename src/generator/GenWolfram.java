@@ -2,14 +2,23 @@ package generator;
 
 import data.GlobalSettings;
 import data.Wolfram;
+import data.WolframAtlas;
+import data.WolframTable;
 import gui.MainCanvasPanel;
 import gui.SideBarWolfram;
+import java.awt.Color;
+import java.awt.Font;
 import java.awt.Graphics2D;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Implements cellular automaton by Stephen Wolfram with all rules.
@@ -19,11 +28,27 @@ import java.util.Random;
 public final class GenWolfram extends AGenerator {
 
 	private final static int MAXFIELDPIXEL = 1;
+	// longest side of the atlas image in pixels and gap between its tiles
+	private final static int MAXATLASPIXEL = 1600;
+	private final static int ATLASGAP = 2;
 	private SideBarWolfram guiSideBar;
-	private boolean[][] GridWorld;
 	private int pixelGap = 0;
+	private BufferedImage image;
+	// rows of the current run which are already in image and their colors
+	private long drawnRows;
+	private int drawnColor;
+	private int drawnBGColor;
 	private BitSet myWolframBits = new BitSet(8);
 	private Wolfram myWolfram;
+	// automaton from a rule number, used instead of myWolfram when not null
+	private WolframTable myTable;
+	private volatile WolframAtlas myAtlas;
+	// shown atlas, its rules, columns and the distance between tiles
+	private volatile BufferedImage atlasImage;
+	private int[] atlasRules;
+	private int atlasColumns;
+	private int atlasTileX;
+	private int atlasTileY;
 
 	/**
 	 * Constructor.
@@ -49,6 +74,13 @@ public final class GenWolfram extends AGenerator {
 		createSideBarGUI();
 		// so current rule gets calculated
 		guiSideBar.clickRules();
+
+		mainCanvas.addMouseListener(new MouseAdapter() {
+			@Override
+			public void mouseClicked(MouseEvent e) {
+				selectAtlasTile(mainCanvas, e.getX(), e.getY());
+			}
+		});
 	}
 
 	@Override
@@ -68,10 +100,23 @@ public final class GenWolfram extends AGenerator {
 					&& Double.parseDouble(guiSideBar.getRandomness()) <= 1.0) {
 
 				setWolframBits();
-				myWolfram = new Wolfram(guiSideBar.getWidth(), guiSideBar.getHeight(),
-						Double.parseDouble(guiSideBar.getRandomness()), guiSideBar.isEdgeWrapAround(), myWolframBits);
+				if (guiSideBar.isAtlas()) {
+					runAtlas();
+					return;
+				}
+				myTable = null;
+				if (guiSideBar.isRuleNumber()) {
+					myTable = new WolframTable(guiSideBar.getWidth(), guiSideBar.getHeight(),
+							Double.parseDouble(guiSideBar.getRandomness()), guiSideBar.isEdgeWrapAround(),
+							guiSideBar.getStates(), guiSideBar.getRadius(), guiSideBar.isTotalistic(),
+							guiSideBar.getRuleNumber());
+				} else {
+					myWolfram = new Wolfram(guiSideBar.getWidth(), guiSideBar.getHeight(),
+							Double.parseDouble(guiSideBar.getRandomness()), guiSideBar.isEdgeWrapAround(),
+							myWolframBits);
+				}
 
-				GridWorld = myWolfram.getGridWorld();
+				image = null;
 
 				while (!guiSideBar.isStopped()) {
 
@@ -84,8 +129,16 @@ public final class GenWolfram extends AGenerator {
 					updateScreenPanel();
 					setWolframBits();
 
-					if (myWolfram.getCurrentRow() < GridWorld[0].length) {
-						myWolfram.calcNextGenField();
+					long currentRow = myTable != null ? myTable.getCurrentRow() : myWolfram.getCurrentRow();
+					int height = myTable != null ? myTable.getCellHeight() : myWolfram.getCellHeight();
+
+					// in the endless mode the oldest rows are overwritten and scrolled out
+					if (guiSideBar.isEndless() || currentRow < height) {
+						if (myTable != null) {
+							myTable.calcNextGenField();
+						} else {
+							myWolfram.calcNextGenField();
+						}
 					} else {
 						break;
 
@@ -108,12 +161,197 @@ public final class GenWolfram extends AGenerator {
 				showWarning("Randomness has to be in 0.0 to 1.0 range.");
 				guiSideBar.setButtonsReady();
 			}
+		} catch (NumberFormatException ne) {
+			showWarning("Randomness has to be in 0.0 to 1.0 range.");
+			guiSideBar.setButtonsReady();
+		} catch (IllegalArgumentException ie) {
+			showWarning(ie.getMessage());
+			guiSideBar.setButtonsReady();
 		} catch (Exception ne) {
 			showWarning("Randomness has to be in 0.0 to 1.0 range.");
 			guiSideBar.setButtonsReady();
 		}
 	}
 
+	/**
+	 * Ends an atlas run that was stopped. A partial mosaic is not shown, the
+	 * canvas keeps what it showed before.
+	 */
+	private void endStoppedAtlas() {
+		myAtlas = null;
+		endCalcTime();
+		guiSideBar.setButtonsReady();
+		updateStatus(GlobalSettings.Status.STOP);
+	}
+
+	/**
+	 * Calculates the atlas rules from one random first row and shows them as a
+	 * mosaic of tiles. A tile pixel stands for a block of cells and is shaded
+	 * by the share of living cells in it.
+	 *
+	 * @throws InterruptedException if the run was interrupted while waiting for the atlas
+	 */
+	private void runAtlas() throws InterruptedException {
+		int[] rules = parseAtlasRules(guiSideBar.getAtlasRules());
+		if (rules == null) {
+			showWarning("Atlas rules have to be numbers or ranges like 0-255, separated by commas.");
+			guiSideBar.setButtonsReady();
+			return;
+		}
+		int width = guiSideBar.getWidth();
+		int height = guiSideBar.getHeight();
+		long[] firstRow = new Wolfram(width, 1, Double.parseDouble(guiSideBar.getRandomness()),
+				guiSideBar.isEdgeWrapAround(), myWolframBits).getRow(0);
+
+		// about as many pixels across as down, shrunk to fit MAXATLASPIXEL
+		int columns = (int) Math.min(rules.length,
+				Math.max(1, Math.ceil(Math.sqrt(rules.length * (double) height / width))));
+		int rows = (rules.length + columns - 1) / columns;
+		int shrink = (int) Math.max(1,
+				Math.ceil(Math.max((double) columns * width, (double) rows * height) / MAXATLASPIXEL));
+
+		myAtlas = new WolframAtlas(width, height, firstRow, guiSideBar.isEdgeWrapAround(), rules, shrink);
+		// a stop before myAtlas was assigned could not cancel it
+		if (guiSideBar.isStopped() || myAtlas.isCancelled()) {
+			endStoppedAtlas();
+			return;
+		}
+		try {
+			myAtlas.calculate();
+		} catch (ExecutionException ee) {
+			myAtlas = null;
+			showWarning("Atlas could not be calculated: " + ee.getCause());
+			guiSideBar.setButtonsReady();
+			return;
+		}
+		if (myAtlas.isCancelled()) {
+			endStoppedAtlas();
+			return;
+		}
+
+		int tileWidth = myAtlas.getTileWidth();
+		int tileHeight = myAtlas.getTileHeight();
+		int imageWidth = columns * (tileWidth + ATLASGAP) + ATLASGAP;
+		BufferedImage image = new BufferedImage(imageWidth, rows * (tileHeight + ATLASGAP) + ATLASGAP,
+				BufferedImage.TYPE_INT_ARGB);
+		int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+		Arrays.fill(pixels, Color.GRAY.getRGB());
+		int[] shades = createShades(guiSideBar.getBGColor(), guiSideBar.getColor());
+
+		for (int i = 0; i < rules.length; i++) {
+			int[] tile = myAtlas.getTile(i);
+			if (tile == null) {
+				continue;
+			}
+			int left = ATLASGAP + (i % columns) * (tileWidth + ATLASGAP);
+			int top = ATLASGAP + (i / columns) * (tileHeight + ATLASGAP);
+			for (int ty = 0; ty < tileHeight; ty++) {
+				for (int tx = 0; tx < tileWidth; tx++) {
+					pixels[(top + ty) * imageWidth + left + tx] = shades[tile[ty * tileWidth + tx] * 255
+							/ myAtlas.getBlockCells(tx, ty)];
+				}
+			}
+		}
+
+		Graphics2D g2d = image.createGraphics();
+		g2d.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 11));
+		for (int i = 0; i < rules.length; i++) {
+			int left = ATLASGAP + (i % columns) * (tileWidth + ATLASGAP);
+			int top = ATLASGAP + (i / columns) * (tileHeight + ATLASGAP);
+			g2d.setColor(Color.BLACK);
+			g2d.drawString(Integer.toString(rules[i]), left + 3, top + 13);
+			g2d.setColor(Color.WHITE);
+			g2d.drawString(Integer.toString(rules[i]), left + 2, top + 12);
+		}
+		g2d.dispose();
+		if (myAtlas.isCancelled()) {
+			endStoppedAtlas();
+			return;
+		}
+
+		atlasRules = rules;
+		atlasColumns = columns;
+		atlasTileX = tileWidth + ATLASGAP;
+		atlasTileY = tileHeight + ATLASGAP;
+		atlasImage = image;
+		this.setMainCanvasToImage(image);
+
+		myAtlas = null;
+		endCalcTime();
+		guiSideBar.setButtonsReady();
+		updateStatus(GlobalSettings.Status.FINISHED);
+	}
+
+	/**
+	 * Loads the rule of the atlas tile under a click into the sidebar, if the
+	 * atlas is shown.
+	 *
+	 * @param inCanvas canvas which was clicked
+	 * @param x click column
+	 * @param y click row
+	 */
+	private void selectAtlasTile(MainCanvasPanel inCanvas, int x, int y) {
+		BufferedImage image = atlasImage;
+		if (image == null || inCanvas.getImage() != image || x < ATLASGAP || y < ATLASGAP) {
+			return;
+		}
+		int column = (x - ATLASGAP) / atlasTileX;
+		int index = (y - ATLASGAP) / atlasTileY * atlasColumns + column;
+		if (column < atlasColumns && index < atlasRules.length) {
+			guiSideBar.setRule(atlasRules[index]);
+		}
+	}
+
+	/**
+	 * Parses rule numbers and ranges like "0-255" or "30, 90, 110-120".
+	 *
+	 * @param inRules user input
+	 * @return int[] rules in input order, null if the input is not valid
+	 */
+	private static int[] parseAtlasRules(String inRules) {
+		BitSet seen = new BitSet(256);
+		int[] rules = new int[256];
+		int count = 0;
+		try {
+			for (String part : inRules.split(",")) {
+				String[] range = part.trim().split("-");
+				int from = Integer.parseInt(range[0].trim());
+				int to = range.length > 1 ? Integer.parseInt(range[1].trim()) : from;
+				if (range.length > 2 || from < 0 || to > 255 || from > to) {
+					return null;
+				}
+				for (int rule = from; rule <= to; rule++) {
+					if (!seen.get(rule)) {
+						seen.set(rule);
+						rules[count++] = rule;
+					}
+				}
+			}
+		} catch (NumberFormatException ne) {
+			return null;
+		}
+		return count == 0 ? null : Arrays.copyOf(rules, count);
+	}
+
+	/**
+	 * Colors between background and cell color for 0 to 255 parts living
+	 * cells.
+	 *
+	 * @param inBG color of dead cells
+	 * @param inColor color of living cells
+	 * @return int[] 256 ARGB colors
+	 */
+	private static int[] createShades(Color inBG, Color inColor) {
+		int[] shades = new int[256];
+		for (int level = 0; level < 256; level++) {
+			int red = inBG.getRed() + (inColor.getRed() - inBG.getRed()) * level / 255;
+			int green = inBG.getGreen() + (inColor.getGreen() - inBG.getGreen()) * level / 255;
+			int blue = inBG.getBlue() + (inColor.getBlue() - inBG.getBlue()) * level / 255;
+			shades[level] = new Color(red, green, blue).getRGB();
+		}
+		return shades;
+	}
+
 	/**
 	 * Convert 8 checkboxes for Wolfram rules into a bitset.
 	 * 
@@ -132,32 +370,106 @@ public final class GenWolfram extends AGenerator {
 	@Override
 	public void stopGenerator() {
 		guiSideBar.setStopped();
+		WolframAtlas atlas = myAtlas;
+		if (atlas != null) {
+			atlas.cancel();
+		}
 		setGenStatus(GlobalSettings.Status.STOP);
 	}
 
 	/**
-	 * Draw dead/alive values from array into color squares on myCanvas.
+	 * Draw cell states from the rows into color squares on myCanvas. The image
+	 * is kept for the whole run and only rows calculated since the last call
+	 * are drawn, unless the colors have changed. When the rows go on past the
+	 * image height, a new row replaces the oldest row in the image and the
+	 * canvas shows the image rows as a ring starting at the oldest row.
 	 */
 	private void updateScreenPanel() {
-		BufferedImage image = new BufferedImage((GridWorld.length * (MAXFIELDPIXEL + pixelGap)),
-				(GridWorld[0].length * (MAXFIELDPIXEL + pixelGap)), BufferedImage.TYPE_INT_ARGB);
-		Graphics2D g2d = image.createGraphics();
-		g2d.setColor(guiSideBar.getColor());
-		for (int y = 0; y < GridWorld[0].length; y++) {
-			for (int x = 0; x < GridWorld.length; x++) {
-				if (GridWorld[x][y] == true) {
-					g2d.setColor(guiSideBar.getColor());
-					g2d.fillRect((MAXFIELDPIXEL + pixelGap) * x, (MAXFIELDPIXEL + pixelGap) * y, MAXFIELDPIXEL,
-							MAXFIELDPIXEL);
-				} else {
-					g2d.setColor(guiSideBar.getBGColor());
-					g2d.fillRect((MAXFIELDPIXEL + pixelGap) * x, (MAXFIELDPIXEL + pixelGap) * y, MAXFIELDPIXEL,
-							MAXFIELDPIXEL);
+		int width = myTable != null ? myTable.getCellWidth() : myWolfram.getCellWidth();
+		int height = myTable != null ? myTable.getCellHeight() : myWolfram.getCellHeight();
+		long currentRow = myTable != null ? myTable.getCurrentRow() : myWolfram.getCurrentRow();
+		int cellPixel = MAXFIELDPIXEL + pixelGap;
+		int imageWidth = width * cellPixel;
+		int color = guiSideBar.getColor().getRGB();
+		int bgColor = guiSideBar.getBGColor().getRGB();
+
+		if (image == null) {
+			image = new BufferedImage(imageWidth, height * cellPixel, BufferedImage.TYPE_INT_ARGB);
+			drawnRows = -1;
+		}
+		int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+
+		// first row on top of the image, the image rows are a ring like the rows
+		// of the field, so row y is drawn at y % height and nothing is moved
+		long top = Math.max(0, currentRow - height);
+		int pixelsPerRow = cellPixel * imageWidth;
+		if (drawnRows < 0 || color != drawnColor || bgColor != drawnBGColor || top >= drawnRows) {
+			Arrays.fill(pixels, bgColor);
+			drawnRows = top;
+			drawnColor = color;
+			drawnBGColor = bgColor;
+		}
+
+		int[] shades = myTable != null ? createShades(guiSideBar.getBGColor(), guiSideBar.getColor()) : null;
+		for (long y = drawnRows; y < currentRow; y++) {
+			int offset = (int) (y % height) * pixelsPerRow;
+			// the slot still holds the row which scrolled out
+			Arrays.fill(pixels, offset, offset + pixelsPerRow, bgColor);
+			if (myTable != null) {
+				drawTableRow(pixels, offset, imageWidth, myTable.getRow(y), shades);
+			} else {
+				drawRow(pixels, offset, imageWidth, myWolfram.getRow(y), color);
+			}
+		}
+		drawnRows = currentRow;
+		this.setMainCanvasToImage(image, (int) (top % height) * cellPixel);
+	}
+
+	/**
+	 * Draw the living cells of a packed row.
+	 *
+	 * @param inPixels image pixels
+	 * @param inOffset first pixel of the row
+	 * @param inImageWidth image width in pixels
+	 * @param inRow packed row
+	 * @param inColor color of living cells
+	 */
+	private void drawRow(int[] inPixels, int inOffset, int inImageWidth, long[] inRow, int inColor) {
+		int cellPixel = MAXFIELDPIXEL + pixelGap;
+		for (int word = 0; word < inRow.length; word++) {
+			// visit the living cells only
+			for (long bits = inRow[word]; bits != 0; bits &= bits - 1) {
+				int offset = inOffset + ((word << 6) + Long.numberOfTrailingZeros(bits)) * cellPixel;
+				for (int line = 0; line < MAXFIELDPIXEL; line++) {
+					Arrays.fill(inPixels, offset + line * inImageWidth, offset + line * inImageWidth + MAXFIELDPIXEL,
+							inColor);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Draw the cells of a rule number row, state 0 stays background and the
+	 * other states are shaded up to the cell color.
+	 *
+	 * @param inPixels image pixels
+	 * @param inOffset first pixel of the row
+	 * @param inImageWidth image width in pixels
+	 * @param inRow cell states
+	 * @param inShades colors of createShades
+	 */
+	private void drawTableRow(int[] inPixels, int inOffset, int inImageWidth, byte[] inRow, int[] inShades) {
+		int cellPixel = MAXFIELDPIXEL + pixelGap;
+		int maxState = myTable.getStates() - 1;
+		for (int x = 0; x < inRow.length; x++) {
+			if (inRow[x] != 0) {
+				int offset = inOffset + x * cellPixel;
+				for (int line = 0; line < MAXFIELDPIXEL; line++) {
+					Arrays.fill(inPixels, offset + line * inImageWidth, offset + line * inImageWidth + MAXFIELDPIXEL,
+							inShades[inRow[x] * 255 / maxState]);
 				}
 			}
 		}
-		g2d.dispose();
-		this.setMainCanvasToImage(image);
 	}
 
 }
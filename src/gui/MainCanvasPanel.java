@@ -17,6 +17,8 @@ public class MainCanvasPanel extends JPanel {
 	 */
 	private static final long serialVersionUID = 1L;
 	private BufferedImage mainCanvas;
+	// image row shown on top, the rows above it are shown below the last row
+	private int ringTop;
 
 	/**
 	 * Constructor.
@@ -27,12 +29,22 @@ public class MainCanvasPanel extends JPanel {
 	}
 
 	/**
-	 * Get mainCanvas JPanel.
+	 * Get mainCanvas JPanel. An image with its rows in a ring is returned as a
+	 * copy in the shown order.
 	 *
 	 * @return mainCanvas main Panel
 	 */
 	public BufferedImage getImage() {
-		return this.mainCanvas;
+		BufferedImage image = this.mainCanvas;
+		int top = ringTop;
+		if (image == null || top == 0) {
+			return image;
+		}
+		BufferedImage ordered = new BufferedImage(image.getWidth(), image.getHeight(), image.getType());
+		Graphics g = ordered.getGraphics();
+		drawRing(g, image, top);
+		g.dispose();
+		return ordered;
 	}
 
 	@Override
@@ -44,7 +56,24 @@ public class MainCanvasPanel extends JPanel {
 	public void paintComponent(final Graphics g) {
 		super.paintComponent(g);
 		if (mainCanvas != null) {
-			g.drawImage(mainCanvas, 0, 0, mainCanvas.getWidth(), mainCanvas.getHeight(), null);
+			drawRing(g, mainCanvas, ringTop);
+		}
+	}
+
+	/**
+	 * Draws an image whose rows are a ring as two slices, from row inTop down
+	 * to the last row and then from the first row down to row inTop.
+	 *
+	 * @param g graphics to draw on
+	 * @param inImage image to draw
+	 * @param inTop image row shown on top
+	 */
+	private static void drawRing(Graphics g, BufferedImage inImage, int inTop) {
+		int width = inImage.getWidth();
+		int height = inImage.getHeight();
+		g.drawImage(inImage, 0, 0, width, height - inTop, 0, inTop, width, height, null);
+		if (inTop > 0) {
+			g.drawImage(inImage, 0, height - inTop, width, height, 0, 0, width, inTop, null);
 		}
 	}
 
@@ -55,8 +84,20 @@ public class MainCanvasPanel extends JPanel {
 	 * @param inGraphics2D new mainCanvas to display
 	 */
 	public void setImage(BufferedImage inGraphics2D) {
+		setImage(inGraphics2D, 0);
+	}
+
+	/**
+	 * Draw mainCanvas with an image whose rows are a ring, so new rows replace
+	 * the oldest ones without moving the rest of the image.
+	 *
+	 * @param inGraphics2D new mainCanvas to display
+	 * @param inRingTop image row shown on top
+	 */
+	public void setImage(BufferedImage inGraphics2D, int inRingTop) {
 		this.setSize(inGraphics2D.getWidth(), inGraphics2D.getHeight());
 		this.mainCanvas = inGraphics2D;
+		this.ringTop = inRingTop;
 		super.repaint();
 	}
 }
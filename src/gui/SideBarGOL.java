@@ -1,18 +1,25 @@
 package gui;
 
+import data.GlobalSettings;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.GridLayout;
 import java.awt.Insets;
+import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.File;
 import javax.swing.BorderFactory;
-import javax.swing.ButtonGroup;
+import javax.swing.JButton;
 import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
+import javax.swing.JFileChooser;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JSlider;
+import javax.swing.JSpinner;
+import javax.swing.SpinnerNumberModel;
 import javax.swing.JTextField;
 import javax.swing.border.Border;
 
@@ -25,11 +32,49 @@ public class SideBarGOL extends ASideBar {
 
 	private static JLabel lblRandomness = new JLabel("Enter Randomness:");
 	private static JTextField tfRandomness = new JTextField("0.33");
+	private static JLabel lblRule = new JLabel("Rule(B/S):");
+	private static JComboBox<String> cbRule = new JComboBox<>(
+			new String[] { "B3/S23", "B36/S23", "B3678/S34678", "B2/S", "B1357/S1357", "B368/S245", "B2/S/C3",
+					"B2/S345/C4", "R5,C0,M1,S34..58,B34..45,NM", "R10,C0,M1,S123..212,B123..170,NM",
+					"R3,C0,M0,S4..9,B5..7,NN", "R4,C0,M1,S19..33,B20..26,NH" });
 	private static JLabel lblSpeed = new JLabel("Speed(in ms wait):");
 	private static JSlider sliderSpeed = new JSlider();
-	private static JCheckBox cbEdgeDead = new JCheckBox("Dead Cells Edge", true);
-	private static JCheckBox cbEdgeWrapAround = new JCheckBox("Wraparound Edge");
+	private static JLabel lblBoundary = new JLabel("Edge:");
+	private static JComboBox<GlobalSettings.BoundaryMode> cbBoundary = new JComboBox<>(
+			GlobalSettings.BoundaryMode.values());
 	private static JLabel lblNumGens = new JLabel("0");
+	private static JLabel lblEngineInfo = new JLabel("");
+	private static JLabel lblEngine = new JLabel("Engine:");
+	private static JComboBox<GlobalSettings.GOLEngine> cbEngine = new JComboBox<>(GlobalSettings.GOLEngine.values());
+	private static JLabel lblThreads = new JLabel("Threads:");
+	private static JSpinner jsThreads = new JSpinner(
+			new SpinnerNumberModel(Runtime.getRuntime().availableProcessors(), 1, 256, 1));
+	private static JLabel lblStepExponent = new JLabel("HashLife Step 2^k:");
+	private static JSpinner jsStepExponent = new JSpinner(new SpinnerNumberModel(0, 0, 40, 1));
+	private static JLabel lblCacheSize = new JLabel("HashLife Cache MB:");
+	private static JSpinner jsCacheSize = new JSpinner(new SpinnerNumberModel(256, 16, 65536, 16));
+	private static JLabel lblMaxPeriod = new JLabel("Detect Period up to:");
+	private static JSpinner jsMaxPeriod = new JSpinner(new SpinnerNumberModel(30, 0, 10000, 1));
+	private static JCheckBox cbStopSettled = new JCheckBox("Stop when settled");
+	private static JCheckBox cbCensus = new JCheckBox("Count objects");
+	private static JLabel lblRenderEvery = new JLabel("Show every k-th step:");
+	private static JSpinner jsRenderEvery = new JSpinner(new SpinnerNumberModel(1, 1, 1000000, 1));
+	private static JLabel lblCensus = new JLabel("");
+	private static JLabel lblPeriod = new JLabel("");
+	private static JLabel lblPopulation = new JLabel("");
+	private static JLabel lblPattern = new JLabel("Random field");
+	private static JButton btnLoadPattern = new JButton("Load RLE/MC");
+	private static JButton btnRandomPattern = new JButton("Random");
+	private static JButton btnExportPattern = new JButton("Export");
+	private static String patternPath = "";
+	private static JLabel lblWorldSize = new JLabel("World Size:");
+	private static JSpinner jsWorldSize = new JSpinner(new SpinnerNumberModel(10000, 1000, 1000000, 1000));
+	private static JLabel lblWorldFile = new JLabel("World File:");
+	private static JTextField tfWorldFile = new JTextField("");
+	private static JLabel lblHistorySize = new JLabel("History MB:");
+	private static JSpinner jsHistorySize = new JSpinner(new SpinnerNumberModel(64, 0, 65536, 16));
+	private static JSlider sliderHistory = new JSlider(0, 0, 0);
+	private static JLabel lblHistory = new JLabel("");
 	private JPanel GeneratorPnl;
 
 	/**
@@ -41,6 +86,168 @@ public class SideBarGOL extends ASideBar {
 		super(e);
 	}
 
+	/**
+	 * Get memory budget of the HashLife node cache.
+	 *
+	 * @return int size in MB
+	 */
+	public int getCacheSize() {
+		return (int) jsCacheSize.getValue();
+	}
+
+	/**
+	 * Return chosen calculation engine.
+	 *
+	 * @return GOLEngine selected engine
+	 */
+	public GlobalSettings.GOLEngine getEngine() {
+		return (GlobalSettings.GOLEngine) cbEngine.getSelectedItem();
+	}
+
+	/**
+	 * Get exponent k of 2^k generations calculated per HashLife step.
+	 *
+	 * @return int exponent
+	 */
+	public int getStepExponent() {
+		return (int) jsStepExponent.getValue();
+	}
+
+	/**
+	 * Get longest still life or oscillator period which is detected.
+	 *
+	 * @return int period in steps
+	 */
+	public int getMaxPeriod() {
+		return (int) jsMaxPeriod.getValue();
+	}
+
+	/**
+	 * Get path of the pattern file the first generation is loaded from.
+	 *
+	 * @return String path, empty for a random field
+	 */
+	public String getPatternPath() {
+		return patternPath;
+	}
+
+	/**
+	 * Get cell width and height of the off-heap world.
+	 *
+	 * @return int cells per side
+	 */
+	public int getWorldSize() {
+		return (int) jsWorldSize.getValue();
+	}
+
+	/**
+	 * Get path of the file the off-heap world is kept in.
+	 *
+	 * @return String path, empty for memory only
+	 */
+	public String getWorldFile() {
+		return tfWorldFile.getText().trim();
+	}
+
+	/**
+	 * Get memory limit of the rewind history.
+	 *
+	 * @return int size in MB, 0 for no history
+	 */
+	public int getHistorySize() {
+		return (int) jsHistorySize.getValue();
+	}
+
+	/**
+	 * Get step chosen on the rewind slider.
+	 *
+	 * @return int step number
+	 */
+	public int getHistoryStep() {
+		return sliderHistory.getValue();
+	}
+
+	/**
+	 * Enables the rewind slider for the stored steps and moves it to the
+	 * newest step.
+	 *
+	 * @param inFirstStep oldest stored step
+	 * @param inLastStep newest stored step
+	 */
+	public void setHistoryRange(int inFirstStep, int inLastStep) {
+		sliderHistory.setMinimum(inFirstStep);
+		sliderHistory.setMaximum(inLastStep);
+		sliderHistory.setValue(inLastStep);
+		sliderHistory.setEnabled(true);
+	}
+
+	/**
+	 * Disables the rewind slider while the generator calculates.
+	 *
+	 */
+	public void setHistoryDisabled() {
+		sliderHistory.setEnabled(false);
+	}
+
+	/**
+	 * Set history memory and seek time into label.
+	 *
+	 * @param inString history text
+	 */
+	public void setHistoryInfo(String inString) {
+		lblHistory.setText(inString);
+	}
+
+	/**
+	 * Lets the user choose a file to export the current field into.
+	 *
+	 * @return String path, empty if cancelled
+	 */
+	public String choosePatternExportPath() {
+		JFileChooser saveFileChooser = new JFileChooser(System.getProperty("user.home"));
+		saveFileChooser.setSelectedFile(new File("pattern.rle"));
+		if (saveFileChooser.showSaveDialog(null) == JFileChooser.APPROVE_OPTION) {
+			return saveFileChooser.getSelectedFile().getAbsolutePath();
+		}
+		return "";
+	}
+
+	/**
+	 * Set action of the export button, the generator owns the field.
+	 *
+	 * @param inAction ActionListener export
+	 */
+	public void setExportAction(ActionListener inAction) {
+		btnExportPattern.addActionListener(inAction);
+	}
+
+	/**
+	 * Show rule read from a pattern file in the rule box.
+	 *
+	 * @param inRule rule text
+	 */
+	public void setRule(String inRule) {
+		cbRule.setSelectedItem(inRule);
+	}
+
+	/**
+	 * Return birth/survival rule as string, e.g. B3/S23.
+	 *
+	 * @return string user input text
+	 */
+	public String getRule() {
+		return String.valueOf(cbRule.getSelectedItem());
+	}
+
+	/**
+	 * Get number of threads for parallel calculation of a generation.
+	 *
+	 * @return int number of threads
+	 */
+	public int getThreads() {
+		return (int) jsThreads.getValue();
+	}
+
 	/**
 	 * Return randomness as string.
 	 *
@@ -64,10 +271,6 @@ public class SideBarGOL extends ASideBar {
 
 		GeneratorPnl = new JPanel();
 
-		ButtonGroup bgEdge = new ButtonGroup();
-		bgEdge.add(cbEdgeWrapAround);
-		bgEdge.add(cbEdgeDead);
-
 		GridBagLayout layout = new GridBagLayout();
 		GridBagConstraints gbConstraints = new GridBagConstraints();
 
@@ -91,36 +294,204 @@ public class SideBarGOL extends ASideBar {
 		gbConstraints.gridx = 0;
 		gbConstraints.gridy = 1;
 		gbConstraints.insets = new Insets(10, 10, 10, 10);
-		GeneratorPnl.add(SideBarGOL.lblSpeed, gbConstraints);
+		GeneratorPnl.add(SideBarGOL.lblRule, gbConstraints);
+		cbRule.setEditable(true);
 		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
 		gbConstraints.weightx = 0.5;
 		gbConstraints.gridx = 1;
 		gbConstraints.gridy = 1;
 		gbConstraints.insets = new Insets(10, 10, 10, 10);
-		GeneratorPnl.add(SideBarGOL.sliderSpeed, gbConstraints);
+		GeneratorPnl.add(SideBarGOL.cbRule, gbConstraints);
 		//
 		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
 		gbConstraints.weightx = 0.5;
 		gbConstraints.gridx = 0;
 		gbConstraints.gridy = 2;
 		gbConstraints.insets = new Insets(10, 10, 10, 10);
-		GeneratorPnl.add(SideBarGOL.cbEdgeWrapAround, gbConstraints);
+		GeneratorPnl.add(SideBarGOL.lblSpeed, gbConstraints);
 		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
 		gbConstraints.weightx = 0.5;
 		gbConstraints.gridx = 1;
 		gbConstraints.gridy = 2;
 		gbConstraints.insets = new Insets(10, 10, 10, 10);
-		GeneratorPnl.add(SideBarGOL.cbEdgeDead, gbConstraints);
+		GeneratorPnl.add(SideBarGOL.sliderSpeed, gbConstraints);
+		//
+		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+		gbConstraints.weightx = 0.5;
+		gbConstraints.gridx = 0;
+		gbConstraints.gridy = 3;
+		gbConstraints.insets = new Insets(10, 10, 10, 10);
+		GeneratorPnl.add(SideBarGOL.lblBoundary, gbConstraints);
+		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+		gbConstraints.weightx = 0.5;
+		gbConstraints.gridx = 1;
+		gbConstraints.gridy = 3;
+		gbConstraints.insets = new Insets(10, 10, 10, 10);
+		GeneratorPnl.add(SideBarGOL.cbBoundary, gbConstraints);
+		//
+		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+		gbConstraints.weightx = 0.5;
+		gbConstraints.gridx = 0;
+		gbConstraints.gridy = 4;
+		gbConstraints.insets = new Insets(10, 10, 10, 10);
+		GeneratorPnl.add(SideBarGOL.lblEngine, gbConstraints);
+		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+		gbConstraints.weightx = 0.5;
+		gbConstraints.gridx = 1;
+		gbConstraints.gridy = 4;
+		gbConstraints.insets = new Insets(10, 10, 10, 10);
+		GeneratorPnl.add(SideBarGOL.cbEngine, gbConstraints);
+		//
+		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+		gbConstraints.weightx = 0.5;
+		gbConstraints.gridx = 0;
+		gbConstraints.gridy = 5;
+		gbConstraints.insets = new Insets(10, 10, 10, 10);
+		GeneratorPnl.add(SideBarGOL.lblThreads, gbConstraints);
+		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+		gbConstraints.weightx = 0.5;
+		gbConstraints.gridx = 1;
+		gbConstraints.gridy = 5;
+		gbConstraints.insets = new Insets(10, 10, 10, 10);
+		GeneratorPnl.add(SideBarGOL.jsThreads, gbConstraints);
+		//
+		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+		gbConstraints.weightx = 0.5;
+		gbConstraints.gridx = 0;
+		gbConstraints.gridy = 6;
+		gbConstraints.insets = new Insets(10, 10, 10, 10);
+		GeneratorPnl.add(SideBarGOL.lblStepExponent, gbConstraints);
+		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+		gbConstraints.weightx = 0.5;
+		gbConstraints.gridx = 1;
+		gbConstraints.gridy = 6;
+		gbConstraints.insets = new Insets(10, 10, 10, 10);
+		GeneratorPnl.add(SideBarGOL.jsStepExponent, gbConstraints);
+		//
+		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+		gbConstraints.weightx = 0.5;
+		gbConstraints.gridx = 0;
+		gbConstraints.gridy = 7;
+		gbConstraints.insets = new Insets(10, 10, 10, 10);
+		GeneratorPnl.add(SideBarGOL.lblCacheSize, gbConstraints);
+		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+		gbConstraints.weightx = 0.5;
+		gbConstraints.gridx = 1;
+		gbConstraints.gridy = 7;
+		gbConstraints.insets = new Insets(10, 10, 10, 10);
+		GeneratorPnl.add(SideBarGOL.jsCacheSize, gbConstraints);
+		//
+		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+		gbConstraints.weightx = 0.5;
+		gbConstraints.gridx = 0;
+		gbConstraints.gridy = 8;
+		gbConstraints.insets = new Insets(10, 10, 10, 10);
+		GeneratorPnl.add(SideBarGOL.lblMaxPeriod, gbConstraints);
+		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+		gbConstraints.weightx = 0.5;
+		gbConstraints.gridx = 1;
+		gbConstraints.gridy = 8;
+		gbConstraints.insets = new Insets(10, 10, 10, 10);
+		GeneratorPnl.add(SideBarGOL.jsMaxPeriod, gbConstraints);
+		//
+		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+		gbConstraints.weightx = 0.5;
+		gbConstraints.gridx = 0;
+		gbConstraints.gridy = 9;
+		gbConstraints.insets = new Insets(10, 10, 10, 10);
+		GeneratorPnl.add(SideBarGOL.cbStopSettled, gbConstraints);
+		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+		gbConstraints.weightx = 0.5;
+		gbConstraints.gridx = 1;
+		gbConstraints.gridy = 9;
+		gbConstraints.insets = new Insets(10, 10, 10, 10);
+		GeneratorPnl.add(SideBarGOL.cbCensus, gbConstraints);
+		//
+		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+		gbConstraints.weightx = 0.5;
+		gbConstraints.gridx = 0;
+		gbConstraints.gridy = 10;
+		gbConstraints.insets = new Insets(10, 10, 10, 10);
+		GeneratorPnl.add(SideBarGOL.lblRenderEvery, gbConstraints);
+		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+		gbConstraints.weightx = 0.5;
+		gbConstraints.gridx = 1;
+		gbConstraints.gridy = 10;
+		gbConstraints.insets = new Insets(10, 10, 10, 10);
+		GeneratorPnl.add(SideBarGOL.jsRenderEvery, gbConstraints);
+		//
+		JPanel pnlPattern = new JPanel(new GridLayout(2, 2));
+		pnlPattern.setBorder(BorderFactory.createTitledBorder("Pattern"));
+		pnlPattern.add(lblPattern);
+		pnlPattern.add(btnLoadPattern);
+		pnlPattern.add(btnRandomPattern);
+		pnlPattern.add(btnExportPattern);
+		btnLoadPattern.addActionListener((ActionEvent e) -> {
+			JFileChooser openFileChooser = new JFileChooser(System.getProperty("user.home"));
+			if (openFileChooser.showOpenDialog(null) == JFileChooser.APPROVE_OPTION) {
+				patternPath = openFileChooser.getSelectedFile().getAbsolutePath();
+				lblPattern.setText(openFileChooser.getSelectedFile().getName());
+			}
+		});
+		btnRandomPattern.addActionListener((ActionEvent e) -> {
+			patternPath = "";
+			lblPattern.setText("Random field");
+		});
+		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+		gbConstraints.weightx = 1;
+		gbConstraints.gridx = 0;
+		gbConstraints.gridy = 11;
+		gbConstraints.gridwidth = 2;
+		gbConstraints.insets = new Insets(10, 10, 10, 10);
+		GeneratorPnl.add(pnlPattern, gbConstraints);
+		//
+		JPanel pnlOffHeap = new JPanel(new GridLayout(2, 2));
+		pnlOffHeap.setBorder(BorderFactory.createTitledBorder("Off-heap World"));
+		pnlOffHeap.add(lblWorldSize);
+		pnlOffHeap.add(jsWorldSize);
+		pnlOffHeap.add(lblWorldFile);
+		pnlOffHeap.add(tfWorldFile);
+		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+		gbConstraints.weightx = 1;
+		gbConstraints.gridx = 0;
+		gbConstraints.gridy = 12;
+		gbConstraints.gridwidth = 2;
+		gbConstraints.insets = new Insets(10, 10, 10, 10);
+		GeneratorPnl.add(pnlOffHeap, gbConstraints);
+		//
+		JPanel pnlHistory = new JPanel(new GridLayout(2, 2));
+		pnlHistory.setBorder(BorderFactory.createTitledBorder("Rewind(while paused)"));
+		pnlHistory.add(lblHistorySize);
+		pnlHistory.add(jsHistorySize);
+		sliderHistory.setEnabled(false);
+		pnlHistory.add(sliderHistory);
+		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+		gbConstraints.weightx = 1;
+		gbConstraints.gridx = 0;
+		gbConstraints.gridy = 13;
+		gbConstraints.gridwidth = 2;
+		gbConstraints.insets = new Insets(10, 10, 10, 10);
+		GeneratorPnl.add(pnlHistory, gbConstraints);
 		//
 		JPanel pnlWolframRules = new JPanel(new GridLayout(2, 8));
 		Border border2 = BorderFactory.createTitledBorder("Generation Counter");
 		pnlWolframRules.setBorder(border2);
 		pnlWolframRules.add(lblNumGens);
 		lblNumGens.setHorizontalAlignment(JLabel.CENTER);
+		pnlWolframRules.add(lblPopulation);
+		lblPopulation.setHorizontalAlignment(JLabel.CENTER);
+		pnlWolframRules.add(lblEngineInfo);
+		lblEngineInfo.setHorizontalAlignment(JLabel.CENTER);
+		pnlWolframRules.add(lblPeriod);
+		lblPeriod.setHorizontalAlignment(JLabel.CENTER);
+		pnlWolframRules.add(lblHistory);
+		lblHistory.setHorizontalAlignment(JLabel.CENTER);
+		pnlWolframRules.add(lblCensus);
+		lblCensus.setHorizontalAlignment(JLabel.CENTER);
 		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
 		gbConstraints.weightx = 1;
 		gbConstraints.gridx = 0;
-		gbConstraints.gridy = 3;
+		gbConstraints.gridy = 14;
 		gbConstraints.gridwidth = 2;
 		gbConstraints.insets = new Insets(10, 10, 10, 10);
 		GeneratorPnl.add(pnlWolframRules, gbConstraints);
@@ -134,13 +505,103 @@ public class SideBarGOL extends ASideBar {
 	}
 
 	/**
-	 * Is true if selected and signals edge of array wraps around to opposite
-	 * edge.
+	 * Is true if edge of array wraps around to opposite edge.
 	 *
-	 * @return bool true if selected
+	 * @return bool true if TORUS is selected
 	 */
 	public Boolean isEdgeWrapAround() {
-		return cbEdgeWrapAround.isSelected();
+		return getBoundaryMode() == GlobalSettings.BoundaryMode.TORUS;
+	}
+
+	/**
+	 * Return chosen neighbours of the outermost cells.
+	 *
+	 * @return BoundaryMode selected mode
+	 */
+	public GlobalSettings.BoundaryMode getBoundaryMode() {
+		return (GlobalSettings.BoundaryMode) cbBoundary.getSelectedItem();
+	}
+
+	/**
+	 * Is true if the generator stops by itself when the field became a still
+	 * life or oscillator.
+	 *
+	 * @return bool true if selected
+	 */
+	public Boolean isStopWhenSettled() {
+		return cbStopSettled.isSelected();
+	}
+
+	/**
+	 * Get number of steps calculated per shown frame.
+	 *
+	 * @return int steps per frame
+	 */
+	public int getRenderEvery() {
+		return (int) jsRenderEvery.getValue();
+	}
+
+	/**
+	 * Is true if the objects of the field are counted while it runs.
+	 *
+	 * @return bool true if selected
+	 */
+	public Boolean isCensus() {
+		return cbCensus.isSelected();
+	}
+
+	/**
+	 * Set object counts into label.
+	 * 
+	 * @param inString census text
+	 */
+	public void setCensusInfo(String inString) {
+		lblCensus.setText(inString);
+	}
+
+	/**
+	 * Set table of all object counts as tooltip of the census label.
+	 * 
+	 * @param inString census table, empty for no tooltip
+	 */
+	public void setCensusDetails(String inString) {
+		lblCensus.setToolTipText(inString.isEmpty() ? null : inString);
+	}
+
+	/**
+	 * Set engine specific status text into label.
+	 * 
+	 * @param inString status text
+	 */
+	public void setEngineInfo(String inString) {
+		lblEngineInfo.setText(inString);
+	}
+
+	/**
+	 * Set longer engine specific status as tooltip of the status label.
+	 * 
+	 * @param inString status text, empty for no tooltip
+	 */
+	public void setEngineDetails(String inString) {
+		lblEngineInfo.setToolTipText(inString.isEmpty() ? null : inString);
+	}
+
+	/**
+	 * Set detected period into label.
+	 * 
+	 * @param inString period text
+	 */
+	public void setPeriod(String inString) {
+		lblPeriod.setText(inString);
+	}
+
+	/**
+	 * Set population, births and deaths into label.
+	 * 
+	 * @param inString population text
+	 */
+	public void setPopulation(String inString) {
+		lblPopulation.setText(inString);
 	}
 
 	/**
@@ -154,7 +615,9 @@ public class SideBarGOL extends ASideBar {
 
 	@Override
 	public void setStdValues() {
-		cbEdgeWrapAround.setSelected(true);
+		cbBoundary.setSelectedItem(GlobalSettings.BoundaryMode.TORUS);
+		cbEngine.setSelectedItem(GlobalSettings.GOLEngine.SCALAR);
+		cbRule.setSelectedItem("B3/S23");
 		sliderSpeed.setMinimum(0);
 		sliderSpeed.setMaximum(500);
 		sliderSpeed.setMajorTickSpacing(100);
@@ -175,7 +638,60 @@ public class SideBarGOL extends ASideBar {
 						+ "<li>Alive cells with less than two living neighbouring cells die.</li>"
 						+ "<li>Alive cells with two or three living neighbouring cells stays alive.</li>"
 						+ "<li>An alive cell with more than 3 living neighbors dies.</li>"
-						+ "</ul>");
+						+ "</ul>"
+						+ "<i>Rule</i> changes these numbers in B/S notation: B3/S23 is Conway's rule,"
+						+ " a cell is <b>born</b> with 3 and <b>survives</b> with 2 or 3 neighbours."
+						+ " Try B36/S23(HighLife), B3678/S34678(Day & Night), B2/S(Seeds),"
+						+ " B1357/S1357(Replicator) or B368/S245(Morley). HashLife and the unbounded world"
+						+ " can not use rules with B0."
+						+ " A third part like B2/S/C3(Brian's Brain) or B2/S345/C4(Star Wars) adds <b>dying states</b>:"
+						+ " cells which do not survive fade out over C - 2 generations and are no living neighbours,"
+						+ " these rules always use the <b>GENERATIONS</b> engine."
+						+ " <b>Larger than Life</b> rules like R5,C0,M1,S34..58,B34..45,NM(Bosco's Rule) count all"
+						+ " cells up to <b>radius R</b>, M1 includes the cell itself, S and B are the intervals of"
+						+ " living cells to survive and to be born and N sets the shape: NM a square(Moore),"
+						+ " NN a diamond(von Neumann) and NH a hexagon. They always use the <b>SCALAR</b> engine,"
+						+ " which reports the <b>cells per second</b> for the radius."
+						+ "<br><i>Edge</i> sets the neighbours of the outermost cells: <b>DEAD</b> keeps the outermost"
+						+ " cells dead, <b>TORUS</b> wraps around to the opposite edge, <b>REFLECT</b> mirrors the"
+						+ " cells at the edge and <b>KLEIN</b> wraps top and bottom around mirrored like a Klein"
+						+ " bottle. REFLECT and KLEIN need the SCALAR or ENSEMBLE engine."
+						+ "<br><i>Engine</i> chooses the calculation: <b>SCALAR</b> stores one byte per cell"
+						+ " in a field with a halo of extra cells, filled by the edge mode, and counts the neighbours"
+						+ " of Larger than Life rules from running sums, so a bigger radius costs no more time,"
+						+ " <b>BITPACKED</b> stores 64 cells in one number and calculates them all at once,"
+						+ " <b>ACTIVETILES</b> does the same but skips tiles where nothing changed,"
+						+ " <b>LOOKUP</b> reads 4 new cells at once from a precalculated table,"
+						+ " <b>VECTOR</b> calculates several numbers of 64 cells with one SIMD instruction"
+						+ " (needs Java 17+ started with --add-modules jdk.incubator.vector, else it runs as BITPACKED)."
+						+ "<br><i>Threads</i> splits big fields into horizontal bands which are calculated in parallel."
+						+ "<br><b>HASHLIFE</b> remembers every calculated pattern in an unbounded world and jumps"
+						+ " <b>2^k generations</b> per step, the <i>Cache</i> limits its memory. Edges are ignored."
+						+ "<br><b>UNBOUNDED</b> lets patterns leave the visible field and travel on forever."
+						+ "<br>Every generation is compared with the last generations, a field which repeats is shown"
+						+ " as <b>still life</b> or with its <b>period</b>. <i>Stop when settled</i> ends the run then."
+						+ " With <i>Detect Period up to</i> 0 the fields are not hashed, which saves time on large fields."
+						+ " <i>Show every k-th step</i> calculates k steps per shown frame, the steps in between"
+						+ " are never drawn and HASHLIFE jumps over them at once. The wait of <i>Speed</i> is per frame."
+						+ " <i>Count objects</i> names the groups of touching living cells of Conway's rule, like"
+						+ " blocks, blinkers and gliders, the tooltip lists all counts. Only groups near changed cells"
+						+ " are counted again. The census is sampled: while it takes longer than the engine, steps"
+						+ " are skipped and the counts show the generation they belong to. The bit-packed engines"
+						+ " hand over their packed rows, so their census costs little more than the changes."
+						+ "<br><i>Pattern</i> loads the first generation from an RLE or Macrocell(.mc) file instead of"
+						+ " a random field, the pattern is centred and its rule is used. <i>Export</i> saves the"
+						+ " current field, as Macrocell if the file name ends with .mc and as RLE otherwise."
+						+ "<br><b>OFFHEAP</b> keeps a <i>World Size</i> x <i>World Size</i> world outside of the"
+						+ " Java heap and shows its centre, 100000 x 100000 cells need 2.5 GB. With a"
+						+ " <i>World File</i> the world is stored in that file and continued on the next start."
+						+ "<br><b>ENSEMBLE</b> runs 8 x 8 small worlds with their own random fields at once, for"
+						+ " statistics of many random soups. The tooltip of the engine status lists population,"
+						+ " the generation of extinction and of settling and the period of every world,"
+						+ " <i>Detect Period up to</i> limits the detected periods, to at most 64 because every"
+						+ " period keeps a copy of the worlds."
+						+ "<br><i>Rewind</i> remembers the last steps in up to <i>History MB</i>, while paused the"
+						+ " slider shows any remembered step. Only changes between steps are stored, so slow"
+						+ " fields are remembered much longer. The run goes on from the newest step.");
 		super.setWidth(150);
 		super.setHeight(150);
 		super.setColor(Color.decode("#CC00CC"));
@@ -14,7 +14,9 @@ import javax.swing.JCheckBox;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JSlider;
+import javax.swing.JSpinner;
 import javax.swing.JTextField;
+import javax.swing.SpinnerNumberModel;
 import javax.swing.border.Border;
 
 /**
@@ -39,6 +41,16 @@ public class SideBarWolfram extends ASideBar implements ActionListener {
 	private static JCheckBox cb6 = new JCheckBox("", true);
 	private static JCheckBox cb7 = new JCheckBox("", false);
 	private static JLabel lblRule = new JLabel("");
+	private static JCheckBox cbAtlas = new JCheckBox("Atlas of rules:");
+	private static JTextField tfAtlasRules = new JTextField("0-255");
+	private static JCheckBox cbRuleNumber = new JCheckBox("Rule number:");
+	private static JTextField tfRuleNumber = new JTextField("1635");
+	private static JLabel lblStates = new JLabel("States k:");
+	private static JSpinner jsStates = new JSpinner(new SpinnerNumberModel(3, 2, 10, 1));
+	private static JLabel lblRadius = new JLabel("Radius r:");
+	private static JSpinner jsRadius = new JSpinner(new SpinnerNumberModel(1, 1, 50, 1));
+	private static JCheckBox cbTotalistic = new JCheckBox("Totalistic code", true);
+	private static JCheckBox cbEndless = new JCheckBox("Endless scrolling");
 	private int rule;
 	private JPanel GeneratorPnl;
 
@@ -90,6 +102,43 @@ public class SideBarWolfram extends ASideBar implements ActionListener {
 		cb0.doClick();
 	}
 
+	/**
+	 * Gets the rules of the atlas as string from user input, numbers and
+	 * ranges separated by commas.
+	 *
+	 * @return string of atlas rules user input
+	 */
+	public String getAtlasRules() {
+		return tfAtlasRules.getText();
+	}
+
+	/**
+	 * Gets the rule number or totalistic code as string from user input.
+	 *
+	 * @return string of rule number user input
+	 */
+	public String getRuleNumber() {
+		return tfRuleNumber.getText();
+	}
+
+	/**
+	 * Returns number of cell states for rule numbers.
+	 *
+	 * @return int of states k
+	 */
+	public int getStates() {
+		return (int) jsStates.getValue();
+	}
+
+	/**
+	 * Returns number of neighbours on each side for rule numbers.
+	 *
+	 * @return int of radius r
+	 */
+	public int getRadius() {
+		return (int) jsRadius.getValue();
+	}
+
 	/**
 	 * Gets randomness as string from user input.
 	 *
@@ -193,6 +242,73 @@ public class SideBarWolfram extends ASideBar implements ActionListener {
 		gbConstraints.gridwidth = 2;
 		gbConstraints.insets = new Insets(10, 10, 10, 10);
 		GeneratorPnl.add(pnlWolframRules, gbConstraints);
+		//
+		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+		gbConstraints.weightx = 0.5;
+		gbConstraints.gridx = 0;
+		gbConstraints.gridy = 4;
+		gbConstraints.gridwidth = 1;
+		gbConstraints.insets = new Insets(10, 10, 10, 10);
+		GeneratorPnl.add(SideBarWolfram.cbAtlas, gbConstraints);
+		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+		gbConstraints.weightx = 0.5;
+		gbConstraints.gridx = 1;
+		gbConstraints.gridy = 4;
+		gbConstraints.insets = new Insets(10, 10, 10, 10);
+		GeneratorPnl.add(SideBarWolfram.tfAtlasRules, gbConstraints);
+		//
+		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+		gbConstraints.weightx = 0.5;
+		gbConstraints.gridx = 0;
+		gbConstraints.gridy = 5;
+		gbConstraints.insets = new Insets(10, 10, 10, 10);
+		GeneratorPnl.add(SideBarWolfram.cbRuleNumber, gbConstraints);
+		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+		gbConstraints.weightx = 0.5;
+		gbConstraints.gridx = 1;
+		gbConstraints.gridy = 5;
+		gbConstraints.insets = new Insets(10, 10, 10, 10);
+		GeneratorPnl.add(SideBarWolfram.tfRuleNumber, gbConstraints);
+		//
+		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+		gbConstraints.weightx = 0.5;
+		gbConstraints.gridx = 0;
+		gbConstraints.gridy = 6;
+		gbConstraints.insets = new Insets(10, 10, 10, 10);
+		GeneratorPnl.add(SideBarWolfram.lblStates, gbConstraints);
+		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+		gbConstraints.weightx = 0.5;
+		gbConstraints.gridx = 1;
+		gbConstraints.gridy = 6;
+		gbConstraints.insets = new Insets(10, 10, 10, 10);
+		GeneratorPnl.add(SideBarWolfram.jsStates, gbConstraints);
+		//
+		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+		gbConstraints.weightx = 0.5;
+		gbConstraints.gridx = 0;
+		gbConstraints.gridy = 7;
+		gbConstraints.insets = new Insets(10, 10, 10, 10);
+		GeneratorPnl.add(SideBarWolfram.lblRadius, gbConstraints);
+		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+		gbConstraints.weightx = 0.5;
+		gbConstraints.gridx = 1;
+		gbConstraints.gridy = 7;
+		gbConstraints.insets = new Insets(10, 10, 10, 10);
+		GeneratorPnl.add(SideBarWolfram.jsRadius, gbConstraints);
+		//
+		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+		gbConstraints.weightx = 0.5;
+		gbConstraints.gridx = 1;
+		gbConstraints.gridy = 8;
+		gbConstraints.insets = new Insets(10, 10, 10, 10);
+		GeneratorPnl.add(SideBarWolfram.cbTotalistic, gbConstraints);
+		//
+		gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+		gbConstraints.weightx = 0.5;
+		gbConstraints.gridx = 0;
+		gbConstraints.gridy = 9;
+		gbConstraints.insets = new Insets(10, 10, 10, 10);
+		GeneratorPnl.add(SideBarWolfram.cbEndless, gbConstraints);
 
 		Border border = BorderFactory.createTitledBorder("Generator settings:");
 		GeneratorPnl.setBorder(border);
@@ -275,6 +391,46 @@ public class SideBarWolfram extends ASideBar implements ActionListener {
 		return cb7.isSelected();
 	}
 
+	/**
+	 * True if all atlas rules should be calculated into one mosaic instead of
+	 * a run of the current rule.
+	 *
+	 * @return true if selected
+	 */
+	public Boolean isAtlas() {
+		return cbAtlas.isSelected();
+	}
+
+	/**
+	 * True if the rule number with k states and radius r is used instead of
+	 * the 8 checkboxes.
+	 *
+	 * @return true if selected
+	 */
+	public Boolean isRuleNumber() {
+		return cbRuleNumber.isSelected();
+	}
+
+	/**
+	 * True if the run goes on past the last row and scrolls the field up
+	 * instead of stopping.
+	 *
+	 * @return true if selected
+	 */
+	public Boolean isEndless() {
+		return cbEndless.isSelected();
+	}
+
+	/**
+	 * True if the rule number is a totalistic code, which only looks at the
+	 * sum of the neighbour states.
+	 *
+	 * @return true if selected
+	 */
+	public Boolean isTotalistic() {
+		return cbTotalistic.isSelected();
+	}
+
 	/**
 	 * True if cellular automaton calculations should calculate edge cases.
 	 *
@@ -284,6 +440,22 @@ public class SideBarWolfram extends ASideBar implements ActionListener {
 		return cbEdgeWrapAround1.isSelected();
 	}
 
+	/**
+	 * Load a rule into the 8 checkboxes and leave the atlas mode, so the next
+	 * start runs this rule.
+	 *
+	 * @param inRule rule number 0 to 255
+	 */
+	public void setRule(int inRule) {
+		JCheckBox[] boxes = { cb0, cb1, cb2, cb3, cb4, cb5, cb6, cb7 };
+		for (int i = 0; i < boxes.length; i++) {
+			boxes[i].setSelected(((inRule >>> (7 - i)) & 1) != 0);
+		}
+		cbAtlas.setSelected(false);
+		cbRuleNumber.setSelected(false);
+		actionPerformed(null);
+	}
+
 	@Override
 	public void setStdValues() {
 		super.setLblWidthText("Enter Pixel Width:");
@@ -309,6 +481,14 @@ public class SideBarWolfram extends ASideBar implements ActionListener {
 				+ " 3 predecessors(topleft, top, topright) are alive(1) or dead(0)."
 				+ "<br>Bit7: 111 -- Bit6: 110 -- Bit5: 101 -- Bit4: 100	<br>Bit3: 011 -- Bit2: 010 -- Bit1: 001 -- Bit0: 000"
 				+ "<br><i>Initial randomness</i> determines how many set pixels get spawned in the first row."
+				+ "<br><br><i>Atlas of rules</i> calculates the listed rules, e.g. <i>0-255</i> or <i>30, 90, 110</i>,"
+				+ " from the same first row at once and shows them as tiles, width and height are per rule."
+				+ " Click a tile to load its rule."
+				+ "<br><br><i>Rule number</i> replaces the 8 bits by a rule with <b>k states</b> and <b>radius r</b>."
+				+ " Digit n in base k of the number is the new state when the 2r + 1 predecessors read as n."
+				+ " A <i>totalistic code</i> only looks at their sum, e.g. 1635 for k = 3 and r = 1."
+				+ "<br><br><i>Endless scrolling</i> runs until stop and scrolls the rows up, only the visible rows"
+				+ " are kept in memory."
 
 		);
 
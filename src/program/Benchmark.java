@@ -0,0 +1,118 @@
+package program;
+
+import data.AGameOfLife;
+import data.GameOfLife;
+import data.GameOfLifeActiveTiles;
+import data.GameOfLifeBitPacked;
+import data.GameOfLifeGenerations;
+import data.GameOfLifeLookup;
+import data.GlobalSettings;
+import data.LifeRule;
+
+/**
+ * Console benchmark of the calculation engines. Prints generations per second
+ * of every engine on the same field sizes, without GUI and rendering. The
+ * Vector API engine is only measured when it is compiled from src-vector and
+ * the JVM runs with --add-modules jdk.incubator.vector, otherwise its line
+ * shows the bit-packed fallback.
+ *
+ * @author BenGe47
+ */
+public class Benchmark {
+
+	private final static int[][] SIZES = { { 512, 512 }, { 1920, 1080 }, { 3840, 2160 } };
+	private final static double RANDOMNESS = 0.33;
+	private final static LifeRule BRIANSBRAIN = LifeRule.parse("B2/S/C3");
+	private final static int[] RADII = { 1, 5, 20, 50 };
+
+	/**
+	 * Runs all benchmarks.
+	 *
+	 * @param args optional seconds per measurement, default 3
+	 */
+	public static void main(String[] args) {
+		double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 3.0;
+
+		for (int[] size : SIZES) {
+			int width = size[0];
+			int height = size[1];
+			System.out.println("Game of Life " + width + "x" + height + ":");
+			measureGameOfLife(new GameOfLife(width, height, RANDOMNESS, true, LifeRule.CONWAY), seconds);
+			measureGameOfLife(new GameOfLifeBitPacked(width, height, RANDOMNESS, true, LifeRule.CONWAY), seconds);
+			measureGameOfLife(
+					GameOfLifeBitPacked.createVectorEngine(width, height, RANDOMNESS, true, LifeRule.CONWAY),
+					seconds);
+			measureGameOfLife(new GameOfLifeActiveTiles(width, height, RANDOMNESS, true, LifeRule.CONWAY), seconds);
+			measureGameOfLife(new GameOfLifeLookup(width, height, RANDOMNESS, true, LifeRule.CONWAY), seconds);
+			measureGameOfLife(new GameOfLifeGenerations(width, height, RANDOMNESS, true, BRIANSBRAIN), seconds);
+		}
+
+		// the cost per cell of Larger than Life should not grow with the radius
+		System.out.println("Larger than Life " + SIZES[1][0] + "x" + SIZES[1][1] + ":");
+		for (int radius : RADII) {
+			for (GlobalSettings.Neighbourhood neighbourhood : GlobalSettings.Neighbourhood.values()) {
+				LifeRule rule = createLargerThanLife(radius, neighbourhood);
+				measureGameOfLife(new GameOfLife(SIZES[1][0], SIZES[1][1], 0.5, GlobalSettings.BoundaryMode.TORUS,
+						rule), "R" + radius + " " + neighbourhood, seconds);
+			}
+		}
+	}
+
+	/**
+	 * Larger than Life rule which keeps about half of the cells alive, the
+	 * intervals grow with the neighbourhood.
+	 *
+	 * @param inRadius radius
+	 * @param inNeighbourhood shape
+	 * @return LifeRule rule
+	 */
+	private static LifeRule createLargerThanLife(int inRadius, GlobalSettings.Neighbourhood inNeighbourhood) {
+		String shape = inNeighbourhood == GlobalSettings.Neighbourhood.VONNEUMANN ? "N"
+				: inNeighbourhood == GlobalSettings.Neighbourhood.HEXAGONAL ? "H" : "M";
+		LifeRule shapeRule = LifeRule.parse("R" + inRadius + ",C0,M1,S1..1,B1..1,N" + shape);
+		int cells = shapeRule.getMaxCount();
+		return LifeRule.parse("R" + inRadius + ",C0,M1,S" + cells / 4 + ".." + cells / 2 + ",B" + cells / 3 + ".."
+				+ cells / 2 + ",N" + shape);
+	}
+
+	/**
+	 * Steps an engine for the given time after a warm-up and prints the
+	 * generations per second. The warm-up takes at least a second, vector code
+	 * is compiled late by the JIT.
+	 *
+	 * @param inGOL engine to measure
+	 * @param seconds measuring time
+	 */
+	private static void measureGameOfLife(AGameOfLife inGOL, double seconds) {
+		measureGameOfLife(inGOL, inGOL.getClass().getSimpleName(), seconds);
+	}
+
+	/**
+	 * Steps an engine for the given time after a warm-up and prints the
+	 * generations and cells per second.
+	 *
+	 * @param inGOL engine to measure
+	 * @param inName name in the printed line
+	 * @param seconds measuring time
+	 */
+	private static void measureGameOfLife(AGameOfLife inGOL, String inName, double seconds) {
+		long warmUpEnd = System.nanoTime() + (long) (Math.max(1.0, seconds * 0.2) * 1e9);
+		while (System.nanoTime() < warmUpEnd) {
+			inGOL.calcNextGenField();
+		}
+
+		long generations = 0;
+		long start = System.nanoTime();
+		long end = start + (long) (seconds * 1e9);
+		while (System.nanoTime() < end) {
+			inGOL.calcNextGenField();
+			generations += inGOL.getGenerationsPerStep();
+		}
+		double perSecond = generations / ((System.nanoTime() - start) / 1e9);
+
+		double cellsPerSecond = perSecond * inGOL.getCellWidth() * inGOL.getCellHeight();
+		System.out.println(
+				String.format("  %-24s %12.1f gen/s %10.1f Mcells/s", inName, perSecond, cellsPerSecond / 1e6));
+	}
+
+}